@@ -0,0 +1,180 @@
+package com.example.loginmodule.loginAuth;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.pm.PackageManager;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.provider.ContactsContract;
+import android.test.mock.MockContentProvider;
+import android.test.mock.MockContentResolver;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * AccountDetector's profile lookup against a fake contacts provider that counts queries.
+ * Checks phones, emails and the display name arrive from one projection-limited query and
+ * that the cursor is closed on every path, including a row that fails to read.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AccountDetectorProfileTest {
+    private static final String PHONE = ContactsContract.CommonDataKinds.Phone.CONTENT_ITEM_TYPE;
+    private static final String EMAIL = ContactsContract.CommonDataKinds.Email.CONTENT_ITEM_TYPE;
+    private static final String NAME = ContactsContract.CommonDataKinds.StructuredName.CONTENT_ITEM_TYPE;
+    private static final String FAILING_VALUE = "unreadable";
+
+    private CountingProfileProvider provider;
+    private Context target;
+    private boolean contactsGranted;
+
+    /**
+     * Serves the profile Data rows and remembers every query and cursor it handed out
+     */
+    private static final class CountingProfileProvider extends MockContentProvider {
+        final List<String[]> rows = new ArrayList<>();
+        final List<Cursor> cursors = new ArrayList<>();
+        final List<String[]> projections = new ArrayList<>();
+        int queryCount;
+
+        @Override
+        public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                String sortOrder) {
+            return answer(projection);
+        }
+
+        @Override
+        public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                String sortOrder, CancellationSignal cancellationSignal) {
+            return answer(projection);
+        }
+
+        private synchronized Cursor answer(String[] projection) {
+            queryCount++;
+            projections.add(projection);
+            MatrixCursor cursor = new MatrixCursor(projection) {
+                @Override
+                public String getString(int column) {
+                    String value = super.getString(column);
+                    if (FAILING_VALUE.equals(value)) {
+                        throw new IllegalStateException("Row could not be read");
+                    }
+                    return value;
+                }
+            };
+            int mimeTypeColumn = Arrays.asList(projection).indexOf(ContactsContract.Data.MIMETYPE);
+            int dataColumn = Arrays.asList(projection).indexOf(ContactsContract.Data.DATA1);
+            for (String[] row : rows) {
+                Object[] values = new Object[projection.length];
+                values[mimeTypeColumn] = row[0];
+                values[dataColumn] = row[1];
+                cursor.addRow(values);
+            }
+            cursors.add(cursor);
+            return cursor;
+        }
+
+        synchronized boolean allCursorsClosed() {
+            for (Cursor cursor : cursors) {
+                if (!cursor.isClosed()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        target = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        provider = new CountingProfileProvider();
+        contactsGranted = true;
+    }
+
+    private AccountDetector newDetector() {
+        MockContentResolver resolver = new MockContentResolver(target);
+        resolver.addProvider(ContactsContract.AUTHORITY, provider);
+        Context context = new ContextWrapper(target) {
+            @Override
+            public android.content.ContentResolver getContentResolver() {
+                return resolver;
+            }
+
+            @Override
+            public int checkPermission(String permission, int pid, int uid) {
+                return contactsGranted && Manifest.permission.READ_CONTACTS.equals(permission)
+                        ? PackageManager.PERMISSION_GRANTED : PackageManager.PERMISSION_DENIED;
+            }
+        };
+        return new AccountDetector(context);
+    }
+
+    @Test
+    public void phonesEmailsAndNameComeFromOneQuery() {
+        provider.rows.add(new String[] { NAME, "Asha Rao" });
+        provider.rows.add(new String[] { PHONE, "+91 98765 43210" });
+        provider.rows.add(new String[] { EMAIL, "Asha@Example.COM" });
+        provider.rows.add(new String[] { PHONE, "+91-98123-45678" });
+        provider.rows.add(new String[] { PHONE, "+919876543210" });
+
+        AccountDetector.AccountInfo info = newDetector().detectProfile();
+
+        assertEquals(1, provider.queryCount);
+        assertEquals(2, provider.projections.get(0).length);
+        assertEquals(2, info.phoneNumbers.size());
+        assertTrue(info.phoneNumbers.contains("+919876543210"));
+        assertTrue(info.phoneNumbers.contains("+919812345678"));
+        assertEquals(Arrays.asList("Asha@example.com"), info.emails);
+        assertEquals("Asha Rao", info.displayName);
+        assertTrue(provider.allCursorsClosed());
+    }
+
+    @Test
+    public void profilePhoneNumberIsOneQuery() {
+        provider.rows.add(new String[] { NAME, "Asha Rao" });
+        provider.rows.add(new String[] { PHONE, "+91 98765 43210" });
+
+        assertEquals("+919876543210", newDetector().getProfilePhoneNumber());
+        assertEquals(1, provider.queryCount);
+        assertTrue(provider.allCursorsClosed());
+    }
+
+    @Test
+    public void cursorIsClosedWhenARowFails() {
+        provider.rows.add(new String[] { PHONE, "+91 98765 43210" });
+        provider.rows.add(new String[] { EMAIL, FAILING_VALUE });
+
+        AccountDetector.AccountInfo info = newDetector().detectProfile();
+
+        // Rows read before the failure are kept
+        assertEquals(1, provider.queryCount);
+        assertEquals(Arrays.asList("+919876543210"), info.phoneNumbers);
+        assertTrue(info.emails.isEmpty());
+        assertTrue(provider.allCursorsClosed());
+    }
+
+    @Test
+    public void noQueryWithoutContactsPermission() {
+        provider.rows.add(new String[] { PHONE, "+91 98765 43210" });
+        contactsGranted = false;
+
+        AccountDetector.AccountInfo info = newDetector().detectProfile();
+
+        assertEquals(0, provider.queryCount);
+        assertTrue(info.phoneNumbers.isEmpty());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.loginmodule.loginAuth;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * detectAccountsAsync with sources that never answer.
+ * A hung source must still time out and the run must complete, even when every source hangs
+ * and holds its io thread; other io work keeps running meanwhile.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AccountDetectorTimeoutTest {
+    private static final long SOURCE_TIMEOUT_MS = 200;
+    private static final long WAIT_SECONDS = 5;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Context target;
+
+    /**
+     * Blocks in query() for the hung sources until the test releases them
+     */
+    private final class HangingDetector extends AccountDetector {
+        private final Set<Source> hung;
+
+        HangingDetector(Set<Source> hung) {
+            super(target);
+            this.hung = hung;
+        }
+
+        @Override
+        List<String> query(Source source) {
+            if (hung.contains(source)) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Collections.emptyList();
+            }
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Records every partial result and the final one
+     */
+    private static final class Recorder implements AccountDetector.DetectionListener {
+        final Map<AccountDetector.Source, Boolean> partials = new ConcurrentHashMap<>();
+        final AtomicReference<AccountDetector.AccountInfo> completed = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        @Override
+        public void onPartialResult(AccountDetector.AccountInfo info, AccountDetector.Source source) {
+            partials.put(source, Boolean.TRUE);
+        }
+
+        @Override
+        public void onComplete(AccountDetector.AccountInfo info) {
+            completed.set(info);
+            done.countDown();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        target = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        // Every source must reach query(), not a cached answer
+        AccountInfoCache.getInstance(target).invalidate(AccountDetector.Source.values());
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    public void hungSourceTimesOut() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        new HangingDetector(EnumSet.of(AccountDetector.Source.LINE1))
+                .detectAccountsAsync(SOURCE_TIMEOUT_MS, recorder);
+
+        assertTrue(recorder.done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(AccountDetector.Source.values().length, recorder.partials.size());
+        assertNotNull(recorder.completed.get());
+    }
+
+    @Test
+    public void everySourceHungStillCompletes() throws InterruptedException {
+        Recorder recorder = new Recorder();
+        new HangingDetector(EnumSet.allOf(AccountDetector.Source.class))
+                .detectAccountsAsync(SOURCE_TIMEOUT_MS, recorder);
+
+        assertTrue(recorder.done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(AccountDetector.Source.values().length, recorder.partials.size());
+        assertTrue(recorder.completed.get().phoneNumbers.isEmpty());
+
+        // The hung queries hold one io thread per source; other io work still runs
+        CountDownLatch ioRan = new CountDownLatch(1);
+        AuthExecutors.io().execute(ioRan::countDown);
+        assertTrue(ioRan.await(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void hungSourceIsNotQueriedAgain() throws InterruptedException {
+        Set<AccountDetector.Source> hung = EnumSet.allOf(AccountDetector.Source.class);
+        for (int run = 0; run < 3; run++) {
+            Recorder recorder = new Recorder();
+            new HangingDetector(hung).detectAccountsAsync(SOURCE_TIMEOUT_MS, recorder);
+            assertTrue(recorder.done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        }
+
+        // Three runs of four hung sources would need twelve io threads without the query slot
+        CountDownLatch ioRan = new CountDownLatch(1);
+        AuthExecutors.io().execute(ioRan::countDown);
+        assertTrue(ioRan.await(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.loginmodule.loginAuth;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cold-start cost of the encrypted session path vs. the original plain SharedPreferences path.
+ * Every iteration reads a store this process has never opened, so the prefs case pays the XML
+ * parse and the encrypted case pays the mmap replay, the keystore unwrap and one AES-GCM open.
+ * Results are logged under the "SessionBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SessionStorageBenchmark {
+    private static final String TAG = "SessionBenchmark";
+    private static final int ITERATIONS = 40;
+    private static final int WARM_READS = 10_000;
+    private static final String TEMPLATE_PREFS = "session_benchmark_template";
+
+    private Context context;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        AuthUser user = new AuthUser("bench-uid", "+919876543210", "bench@example.com", "Bench User");
+
+        // Written once under a template name, then copied, so no copy is already cached in this process
+        context.getSharedPreferences(TEMPLATE_PREFS, Context.MODE_PRIVATE).edit()
+                .putBoolean("isLoggedIn", true)
+                .putString("userId", user.getUid())
+                .putString("userName", user.getDisplayName())
+                .putString("userPhone", user.getPhoneNumber())
+                .putString("userEmail", user.getEmail())
+                .putString("loginType", UserSession.LOGIN_TYPE_PHONE)
+                .putLong("lastLogin", System.currentTimeMillis())
+                .commit();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            copy(prefsFile(TEMPLATE_PREFS), prefsFile(prefsName(i)));
+
+            MappedSessionStore store = new MappedSessionStore(sessionFile(i));
+            UserSession.initialize(store, SessionCipher.keystoreBacked(store))
+                    .createSession(user, UserSession.LOGIN_TYPE_PHONE);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteSharedPreferences(TEMPLATE_PREFS);
+        for (int i = 0; i < ITERATIONS; i++) {
+            context.deleteSharedPreferences(prefsName(i));
+            sessionFile(i).delete();
+        }
+    }
+
+    @Test
+    public void coldStart_encryptedVsPlainPrefs() throws Exception {
+        LatencyHistogram plain = new LatencyHistogram();
+        LatencyHistogram encrypted = new LatencyHistogram();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            SharedPreferences prefs = prefs(i);
+            boolean valid = prefs.getBoolean("isLoggedIn", false) && !prefs.getString("userId", "").isEmpty();
+            plain.recordNanos(System.nanoTime() - start);
+            assertTrue(valid);
+
+            start = System.nanoTime();
+            MappedSessionStore store = new MappedSessionStore(sessionFile(i));
+            UserSession session = UserSession.initialize(store, SessionCipher.keystoreBacked(store));
+            valid = session.isValidSession();
+            encrypted.recordNanos(System.nanoTime() - start);
+            assertTrue(valid);
+            assertEquals("+919876543210", session.getUserPhone());
+        }
+
+        report("cold plain prefs", plain);
+        report("cold encrypted", encrypted);
+    }
+
+    @Test
+    public void warmReads_encryptedSnapshotVsPlainPrefs() throws Exception {
+        SharedPreferences prefs = prefs(0);
+        MappedSessionStore store = new MappedSessionStore(sessionFile(0));
+        UserSession session = UserSession.initialize(store, SessionCipher.keystoreBacked(store));
+
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < WARM_READS; i++) {
+            sink += prefs.getString("userPhone", "").length() + prefs.getString("userEmail", "").length();
+        }
+        long plainNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < WARM_READS; i++) {
+            sink -= session.getUserPhone().length() + session.getUserEmail().length();
+        }
+        long snapshotNanos = System.nanoTime() - start;
+
+        assertEquals(0, sink);
+        Log.i(TAG, String.format(Locale.US, "warm getter pair: plain prefs %.0f ns, encrypted snapshot %.0f ns",
+                (double) plainNanos / WARM_READS, (double) snapshotNanos / WARM_READS));
+    }
+
+    private void report(String name, LatencyHistogram histogram) {
+        Log.i(TAG, String.format(Locale.US, "%s: p50 %.2f ms, p90 %.2f ms, max %.2f ms (n=%d)", name,
+                histogram.getPercentileMillis(50), histogram.getPercentileMillis(90),
+                histogram.getMaxMillis(), histogram.getCount()));
+    }
+
+    private SharedPreferences prefs(int i) {
+        return context.getSharedPreferences(prefsName(i), Context.MODE_PRIVATE);
+    }
+
+    private static String prefsName(int i) {
+        return "session_benchmark_" + i;
+    }
+
+    private File prefsFile(String name) {
+        return new File(new File(context.getDataDir(), "shared_prefs"), name + ".xml");
+    }
+
+    private static void copy(File from, File to) throws IOException {
+        try (InputStream in = new FileInputStream(from); OutputStream out = new FileOutputStream(to)) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private File sessionFile(int i) {
+        return new File(context.getNoBackupFilesDir(), "session_benchmark_" + i + ".bin");
+    }
+}
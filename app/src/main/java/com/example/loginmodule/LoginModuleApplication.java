@@ -0,0 +1,25 @@
+package com.example.loginmodule;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+
+import com.example.loginmodule.loginAuth.AuthInitializer;
+import com.example.loginmodule.loginAuth.CountdownTicker;
+import com.example.loginmodule.loginAuth.LoginTracer;
+
+/**
+ * LoginModuleApplication - Process entry point
+ * Starts the background warm-up of Firebase and Google Sign-In before the first activity,
+ * and the countdown ticker so it sees every activity start / stop. Debuggable builds also
+ * record LoginTracer stage timings.
+ */
+public class LoginModuleApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        LoginTracer.setEnabled((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0);
+        AuthInitializer.start(this);
+        CountdownTicker.getInstance(this);
+    }
+}
@@ -2,31 +2,38 @@ package com.example.loginmodule;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.widget.Button;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.loginmodule.loginAuth.AuthExecutors;
 import com.example.loginmodule.loginAuth.AuthManager;
+import com.example.loginmodule.loginAuth.AuthRequest;
+import com.example.loginmodule.loginAuth.AuthUser;
+import com.example.loginmodule.loginAuth.SuggestionRanker;
 import com.example.loginmodule.loginAuth.UserSession;
 import com.example.loginmodule.loginUi.LoginActivity;
 
 public class MainActivity extends AppCompatActivity {
 
-    private AuthManager authManager;
+    private static final String TAG = "MainActivity";
+
     private UserSession userSession;
+    private AuthRequest<AuthManager.AuthCallback> validationRequest;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        authManager = AuthManager.getInstance();
         userSession = UserSession.getInstance(this);
 
         // Security Check: If not logged in, go to LoginActivity
-        if (!authManager.isLoggedIn() || !userSession.isValidSession()) {
-            startActivity(new Intent(this, LoginActivity.class));
-            finish();
+        // Only the cached session is checked here; the token is validated in the background
+        if (!userSession.isValidSession()) {
+            navigateToLogin();
             return;
         }
 
@@ -34,6 +41,7 @@ public class MainActivity extends AppCompatActivity {
 
         TextView tvWelcome = findViewById(R.id.tvWelcome);
         Button btnLogout = findViewById(R.id.btnLogout);
+        Button btnSwitchAccount = findViewById(R.id.btnSwitchAccount);
 
         // Get username from session
         String username = userSession.getUserName();
@@ -44,10 +52,68 @@ public class MainActivity extends AppCompatActivity {
         tvWelcome.setText("Hello, " + username + "!");
 
         btnLogout.setOnClickListener(v -> {
-            authManager.signOut();
+            cancelValidation();
+            AuthManager.getInstance(this).signOut();
             userSession.clearSession();
-            startActivity(new Intent(this, LoginActivity.class));
+            if (userSession.getAccounts().isEmpty()) {
+                // Nobody is left signed in on this device: forget which phones / emails were used
+                SuggestionRanker.clearInBackground(this);
+            }
+            navigateToLogin();
+        });
+
+        // Keeps this account signed in; the login screen lists it next to the others
+        btnSwitchAccount.setOnClickListener(v -> {
+            cancelValidation();
+            Intent intent = new Intent(this, LoginActivity.class);
+            intent.putExtra(LoginActivity.EXTRA_SWITCH_ACCOUNT, true);
+            startActivity(intent);
             finish();
         });
+
+        validateSessionInBackground();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        cancelValidation();
+    }
+
+    private void validateSessionInBackground() {
+        AuthManager.whenReady(this).thenAcceptAsync(manager -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
+            }
+            validationRequest = manager.validateSession(new AuthManager.AuthCallback() {
+                @Override
+                public void onSuccess(AuthUser user) {
+                    if (user == null) {
+                        onError("No signed in user");
+                    }
+                }
+
+                @Override
+                public void onError(String message) {
+                    Log.w(TAG, "Session rejected: " + message);
+                    userSession.clearSession();
+                    Toast.makeText(MainActivity.this, "Session expired. Please log in again.",
+                            Toast.LENGTH_SHORT).show();
+                    navigateToLogin();
+                }
+            });
+        }, AuthExecutors.mainThread());
+    }
+
+    private void cancelValidation() {
+        if (validationRequest != null) {
+            validationRequest.cancel();
+            validationRequest = null;
+        }
+    }
+
+    private void navigateToLogin() {
+        startActivity(new Intent(this, LoginActivity.class));
+        finish();
     }
 }
\ No newline at end of file
@@ -11,23 +11,62 @@ import android.net.Uri;
 import android.os.Build;
 import android.provider.ContactsContract;
 import android.telephony.TelephonyManager;
-import android.util.Patterns;
+import android.util.Log;
 
 import androidx.core.content.ContextCompat;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * AccountDetector - Detects system phone numbers and email accounts
  * Helps users by auto-suggesting their contact information
+ * detectAccountsAsync queries every source in parallel off the main thread, each with its
+ * own timeout, and streams the merged AccountInfo as sources answer
+ * Timeouts run on AuthExecutors.timer(), and a source whose earlier query is still blocked
+ * is not queried again, so a hung binder call holds at most one io thread per source
+ * Sources still fresh in AccountInfoCache answer from the cache without any binder call
+ * Merged phones and emails are ordered by SuggestionRanker, so the primary ones are the likeliest
  */
 public class AccountDetector {
     private static final String TAG = "AccountDetector";
+    public static final long DEFAULT_SOURCE_TIMEOUT_MS = 1000;
+
+    // Source values are "value" or "value<separator>detail" (account type, SIM slot); emails and
+    // normalized numbers never contain a space
+    static final char DETAIL_SEPARATOR = ' ';
+
+    // PROFILE values are "<kind><value>" since a display name may contain spaces
+    static final String PROFILE_PHONE = "phone:";
+    static final String PROFILE_EMAIL = "email:";
+    static final String PROFILE_NAME = "name:";
+
+    // Phone.NUMBER, Email.ADDRESS and StructuredName.DISPLAY_NAME are all stored in DATA1
+    private static final String[] PROFILE_PROJECTION = {
+            ContactsContract.Data.MIMETYPE,
+            ContactsContract.Data.DATA1
+    };
+    private static final String PROFILE_SELECTION = ContactsContract.Data.MIMETYPE + " IN (?, ?, ?)";
+    private static final String[] PROFILE_SELECTION_ARGS = {
+            ContactsContract.CommonDataKinds.Phone.CONTENT_ITEM_TYPE,
+            ContactsContract.CommonDataKinds.Email.CONTENT_ITEM_TYPE,
+            ContactsContract.CommonDataKinds.StructuredName.CONTENT_ITEM_TYPE
+    };
+
+    // Sources with a query still running on AuthExecutors.io(), across all detectors
+    private static final Set<Source> queriesInFlight = EnumSet.noneOf(Source.class);
 
     private final Context context;
+    private volatile PhoneNumberNormalizer.Country defaultCountry;
 
     public AccountDetector(Context context) {
         this.context = context;
@@ -41,12 +80,14 @@ public class AccountDetector {
         public List<String> emails;
         public String primaryPhone;
         public String primaryEmail;
+        public String displayName;
 
         public AccountInfo() {
             phoneNumbers = new ArrayList<>();
             emails = new ArrayList<>();
             primaryPhone = "";
             primaryEmail = "";
+            displayName = "";
         }
 
         public boolean hasPhone() {
@@ -56,6 +97,36 @@ public class AccountDetector {
         public boolean hasEmail() {
             return primaryEmail != null && !primaryEmail.isEmpty();
         }
+
+        public boolean hasDisplayName() {
+            return displayName != null && !displayName.isEmpty();
+        }
+    }
+
+    /**
+     * Where detected accounts come from; each source is one or more binder calls
+     */
+    public enum Source {
+        /** AccountManager.getAccounts */
+        ACCOUNTS,
+        /** TelephonyManager.getLine1Number */
+        LINE1,
+        /** SubscriptionManager.getActiveSubscriptionInfoList */
+        SUBSCRIPTIONS,
+        /** The user's own contact card (ContactsContract.Profile), one Data query */
+        PROFILE
+    }
+
+    public interface DetectionListener {
+        /**
+         * A source answered or timed out; info merges every source finished so far
+         */
+        void onPartialResult(AccountInfo info, Source source);
+
+        /**
+         * Every source answered or timed out
+         */
+        void onComplete(AccountInfo info);
     }
 
     /**
@@ -83,24 +154,198 @@ public class AccountDetector {
     }
 
     /**
-     * Get all detected account information
+     * Detect accounts in the background with the default per-source timeout
      */
-    public AccountInfo detectAccounts() {
-        AccountInfo accountInfo = new AccountInfo();
+    public AuthRequest<DetectionListener> detectAccountsAsync(DetectionListener listener) {
+        return detectAccountsAsync(DEFAULT_SOURCE_TIMEOUT_MS, listener);
+    }
+
+    /**
+     * Query all sources in parallel; results are delivered on the main thread
+     * A source that has not answered within sourceTimeoutMs counts as empty
+     */
+    public AuthRequest<DetectionListener> detectAccountsAsync(long sourceTimeoutMs, DetectionListener listener) {
+        AuthRequest<DetectionListener> request = new AuthRequest<>(listener, AuthExecutors.mainThread());
+        Detection detection = new Detection(context, request);
+
+        for (Source source : Source.values()) {
+            if (startQuery(source)) {
+                AuthExecutors.io().execute(() -> {
+                    try {
+                        if (request.isActive()) {
+                            detection.complete(source, cachedOrQuery(source));
+                        }
+                    } finally {
+                        endQuery(source);
+                    }
+                });
+            }
+            AuthExecutors.timer().schedule(() -> {
+                // Binder calls cannot be interrupted; a late answer is simply dropped
+                if (detection.complete(source, null)) {
+                    Log.w(TAG, source + " did not answer within " + sourceTimeoutMs + "ms");
+                }
+            }, sourceTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        return request;
+    }
+
+    /**
+     * Claim the source's query slot; false while an earlier query is still blocked in a binder call
+     */
+    private static boolean startQuery(Source source) {
+        synchronized (queriesInFlight) {
+            return queriesInFlight.add(source);
+        }
+    }
+
+    private static void endQuery(Source source) {
+        synchronized (queriesInFlight) {
+            queriesInFlight.remove(source);
+        }
+    }
+
+    /**
+     * One detection run: per-source results and the request they stream to
+     */
+    private static final class Detection {
+        private final Context context;
+        private final AuthRequest<DetectionListener> request;
+        private final Map<Source, List<String>> results = new EnumMap<>(Source.class);
+
+        Detection(Context context, AuthRequest<DetectionListener> request) {
+            this.context = context;
+            this.request = request;
+        }
+
+        /**
+         * Record a source's answer (null = timed out); false if it already finished
+         */
+        synchronized boolean complete(Source source, List<String> found) {
+            if (results.containsKey(source)) {
+                return false;
+            }
+            results.put(source, found != null ? found : Collections.emptyList());
+
+            // Posted under the lock so partial results reach the listener in order
+            AccountInfo info = merge(results, SuggestionRanker.getInstance(context));
+            request.post(listener -> listener.onPartialResult(info, source));
+            if (results.size() == Source.values().length) {
+                request.finish(listener -> listener.onComplete(info));
+            }
+            return true;
+        }
+    }
+
+    private static AccountInfo merge(Map<Source, List<String>> results, SuggestionRanker ranker) {
+        AccountInfo info = new AccountInfo();
+        List<String> profile = results.get(Source.PROFILE);
+        if (profile == null) {
+            profile = Collections.emptyList();
+        }
+
+        // Canonical mailbox -> candidate; a device account wins over the same address on the profile
+        Map<String, SuggestionRanker.Candidate> emails = new LinkedHashMap<>();
+        List<String> accounts = results.get(Source.ACCOUNTS);
+        if (accounts != null) {
+            for (String entry : accounts) {
+                String email = valueOf(entry);
+                emails.putIfAbsent(ranker.keyOf(SuggestionRanker.Kind.EMAIL, email),
+                        SuggestionRanker.Candidate.email(email, detailOf(entry)));
+            }
+        }
+        for (String entry : profile) {
+            if (entry.startsWith(PROFILE_EMAIL)) {
+                String email = entry.substring(PROFILE_EMAIL.length());
+                emails.putIfAbsent(ranker.keyOf(SuggestionRanker.Kind.EMAIL, email),
+                        SuggestionRanker.Candidate.email(email, null));
+            } else if (entry.startsWith(PROFILE_NAME) && info.displayName.isEmpty()) {
+                info.displayName = entry.substring(PROFILE_NAME.length());
+            }
+        }
+        info.emails.addAll(ranker.rank(new ArrayList<>(emails.values())));
+
+        // Line 1 is the default line; a number on both keeps its subscription's SIM slot
+        Map<String, SuggestionRanker.Candidate> phones = new LinkedHashMap<>();
+        List<String> line1 = results.get(Source.LINE1);
+        List<String> subscriptions = results.get(Source.SUBSCRIPTIONS);
+        Set<String> defaultLines = new LinkedHashSet<>();
+        if (line1 != null) {
+            for (String entry : line1) {
+                defaultLines.add(valueOf(entry));
+            }
+        }
+        if (subscriptions != null) {
+            for (String entry : subscriptions) {
+                String number = valueOf(entry);
+                phones.putIfAbsent(number, SuggestionRanker.Candidate.phone(number,
+                        defaultLines.contains(number), parseSlot(detailOf(entry))));
+            }
+        }
+        for (String number : defaultLines) {
+            phones.putIfAbsent(number, SuggestionRanker.Candidate.phone(number, true, -1));
+        }
+        for (String entry : profile) {
+            if (entry.startsWith(PROFILE_PHONE)) {
+                String number = entry.substring(PROFILE_PHONE.length());
+                phones.putIfAbsent(number, SuggestionRanker.Candidate.phone(number, false, -1));
+            }
+        }
+        info.phoneNumbers.addAll(ranker.rank(new ArrayList<>(phones.values())));
 
-        // Detect emails from accounts
-        accountInfo.emails = detectEmails();
-        if (!accountInfo.emails.isEmpty()) {
-            accountInfo.primaryEmail = accountInfo.emails.get(0);
+        if (!info.emails.isEmpty()) {
+            info.primaryEmail = info.emails.get(0);
+        }
+        if (!info.phoneNumbers.isEmpty()) {
+            info.primaryPhone = info.phoneNumbers.get(0);
         }
+        return info;
+    }
 
-        // Detect phone numbers
-        accountInfo.phoneNumbers = detectPhoneNumbers();
-        if (!accountInfo.phoneNumbers.isEmpty()) {
-            accountInfo.primaryPhone = accountInfo.phoneNumbers.get(0);
+    /**
+     * Cached answer while still fresh; otherwise query and cache it, even if this run timed out
+     */
+    private List<String> cachedOrQuery(Source source) {
+        AccountInfoCache cache = AccountInfoCache.getInstance(context);
+        boolean permissionGranted = source == Source.ACCOUNTS ? hasAccountPermission()
+                : source == Source.PROFILE ? hasContactsPermission() : hasPhonePermission();
+        List<String> cached = cache.get(source, permissionGranted);
+        if (cached != null) {
+            return cached;
         }
 
-        return accountInfo;
+        int generation = cache.generation(source);
+        List<String> found = query(source);
+        cache.put(source, generation, permissionGranted, found);
+        return found;
+    }
+
+    /**
+     * The source's binder calls; package-private so tests can stand in a source that hangs
+     */
+    List<String> query(Source source) {
+        switch (source) {
+            case ACCOUNTS:
+                return detectAccountEntries();
+            case LINE1:
+                return detectLine1Numbers();
+            case PROFILE:
+                return detectProfileEntries();
+            default:
+                return detectSubscriptionNumbers();
+        }
+    }
+
+    /**
+     * Get all detected account information
+     * Blocks on every source in turn; prefer detectAccountsAsync on the main thread
+     */
+    public AccountInfo detectAccounts() {
+        Map<Source, List<String>> results = new EnumMap<>(Source.class);
+        for (Source source : Source.values()) {
+            results.put(source, query(source));
+        }
+        return merge(results, SuggestionRanker.getInstance(context));
     }
 
     /**
@@ -108,17 +353,27 @@ public class AccountDetector {
      */
     @SuppressLint("HardwareIds")
     public List<String> detectEmails() {
-        Set<String> emailSet = new HashSet<>();
+        return valuesOf(detectAccountEntries());
+    }
+
+    /**
+     * Emails of device accounts, each followed by its account type
+     */
+    private List<String> detectAccountEntries() {
+        // Canonical mailbox -> first spelling seen, so Gmail aliases show up once
+        Map<String, String> emails = new LinkedHashMap<>();
 
         try {
             if (hasAccountPermission()) {
                 AccountManager accountManager = AccountManager.get(context);
                 Account[] accounts = accountManager.getAccounts();
 
+                EmailNormalizer normalizer = EmailNormalizer.forCurrentThread();
                 for (Account account : accounts) {
-                    String email = account.name;
-                    if (isValidEmail(email)) {
-                        emailSet.add(email);
+                    if (normalizer.parse(account.name)) {
+                        String email = normalizer.toNormalized();
+                        emails.putIfAbsent(normalizer.toCanonical(),
+                                account.type != null ? email + DETAIL_SEPARATOR + account.type : email);
                     }
                 }
             }
@@ -126,18 +381,27 @@ public class AccountDetector {
             e.printStackTrace();
         }
 
-        return new ArrayList<>(emailSet);
+        return new ArrayList<>(emails.values());
     }
 
     /**
      * Detect phone numbers from device
      */
-    @SuppressLint("HardwareIds")
     public List<String> detectPhoneNumbers() {
-        Set<String> phoneSet = new HashSet<>();
+        Set<String> phoneSet = new LinkedHashSet<>(detectLine1Numbers());
+        // Additional phone detection for dual SIM
+        phoneSet.addAll(valuesOf(detectSubscriptionNumbers()));
+        return new ArrayList<>(phoneSet);
+    }
+
+    /**
+     * Detect the line 1 number from TelephonyManager
+     */
+    @SuppressLint("HardwareIds")
+    private List<String> detectLine1Numbers() {
+        List<String> phones = new ArrayList<>();
 
         try {
-            // Try to get from TelephonyManager
             if (hasPhonePermission()) {
                 TelephonyManager telephonyManager = (TelephonyManager) context
                         .getSystemService(Context.TELEPHONY_SERVICE);
@@ -145,29 +409,23 @@ public class AccountDetector {
                 if (telephonyManager != null) {
                     String line1Number = telephonyManager.getLine1Number();
                     if (line1Number != null && !line1Number.isEmpty()) {
-                        phoneSet.add(formatPhoneNumber(line1Number));
+                        phones.add(formatPhoneNumber(line1Number));
                     }
                 }
             }
-
-            // Try to get from SIM subscription (Android 5.1+)
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP_MR1 && hasPhonePermission()) {
-                // Additional phone detection for dual SIM
-                detectFromSubscriptions(phoneSet);
-            }
-
         } catch (SecurityException e) {
             e.printStackTrace();
         }
 
-        return new ArrayList<>(phoneSet);
+        return phones;
     }
 
     /**
-     * Detect phone numbers from SIM subscriptions
+     * Detect phone numbers from SIM subscriptions (Android 5.1+), each followed by its SIM slot
      */
     @SuppressLint("MissingPermission")
-    private void detectFromSubscriptions(Set<String> phoneSet) {
+    private List<String> detectSubscriptionNumbers() {
+        Set<String> phoneSet = new LinkedHashSet<>();
         try {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP_MR1) {
                 android.telephony.SubscriptionManager subscriptionManager = (android.telephony.SubscriptionManager) context
@@ -181,7 +439,8 @@ public class AccountDetector {
                         for (android.telephony.SubscriptionInfo info : subscriptionInfoList) {
                             String number = info.getNumber();
                             if (number != null && !number.isEmpty()) {
-                                phoneSet.add(formatPhoneNumber(number));
+                                phoneSet.add(formatPhoneNumber(number) + DETAIL_SEPARATOR
+                                        + info.getSimSlotIndex());
                             }
                         }
                     }
@@ -190,114 +449,174 @@ public class AccountDetector {
         } catch (SecurityException e) {
             e.printStackTrace();
         }
+        return new ArrayList<>(phoneSet);
+    }
+
+    private static String valueOf(String entry) {
+        int separator = entry.indexOf(DETAIL_SEPARATOR);
+        return separator < 0 ? entry : entry.substring(0, separator);
     }
 
     /**
-     * Get user's profile phone number from contacts
+     * Detail after the value, or null for entries cached before details were recorded
      */
-    @SuppressLint("Range")
-    public String getProfilePhoneNumber() {
-        if (!hasContactsPermission()) {
-            return "";
+    private static String detailOf(String entry) {
+        int separator = entry.indexOf(DETAIL_SEPARATOR);
+        return separator < 0 ? null : entry.substring(separator + 1);
+    }
+
+    private static List<String> valuesOf(List<String> entries) {
+        List<String> values = new ArrayList<>(entries.size());
+        for (String entry : entries) {
+            values.add(valueOf(entry));
         }
+        return values;
+    }
 
+    private static int parseSlot(String detail) {
         try {
-            Uri uri = ContactsContract.Profile.CONTENT_URI;
-            Cursor cursor = context.getContentResolver().query(
-                    uri,
-                    new String[] { ContactsContract.Profile.DISPLAY_NAME },
-                    null, null, null);
-
-            if (cursor != null && cursor.moveToFirst()) {
-                // User has a profile, try to get associated phone
-                cursor.close();
-
-                // Query profile phones
-                Uri phonesUri = Uri.withAppendedPath(
-                        ContactsContract.Profile.CONTENT_URI,
-                        ContactsContract.Contacts.Data.CONTENT_DIRECTORY);
-
-                Cursor phoneCursor = context.getContentResolver().query(
-                        phonesUri,
-                        new String[] { ContactsContract.CommonDataKinds.Phone.NUMBER },
-                        ContactsContract.Data.MIMETYPE + " = ?",
-                        new String[] { ContactsContract.CommonDataKinds.Phone.CONTENT_ITEM_TYPE },
-                        null);
-
-                if (phoneCursor != null && phoneCursor.moveToFirst()) {
-                    String phone = phoneCursor.getString(
-                            phoneCursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.NUMBER));
-                    phoneCursor.close();
-                    return formatPhoneNumber(phone);
-                }
+            return detail != null ? Integer.parseInt(detail) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 
-                if (phoneCursor != null) {
-                    phoneCursor.close();
-                }
-            }
+    /**
+     * Phones, emails and display name from the user's own contact card
+     * Blocks on one ContentResolver query; detectAccountsAsync includes it as Source.PROFILE
+     */
+    public AccountInfo detectProfile() {
+        Map<Source, List<String>> results = new EnumMap<>(Source.class);
+        results.put(Source.PROFILE, detectProfileEntries());
+        return merge(results, SuggestionRanker.getInstance(context));
+    }
 
-            if (cursor != null) {
-                cursor.close();
+    /**
+     * Get user's profile phone number from contacts
+     */
+    public String getProfilePhoneNumber() {
+        for (String entry : detectProfileEntries()) {
+            if (entry.startsWith(PROFILE_PHONE)) {
+                return entry.substring(PROFILE_PHONE.length());
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
-
         return "";
     }
 
     /**
-     * Validate email format
+     * Every phone, email and name row of the profile in a single projection-limited Data query
      */
-    private boolean isValidEmail(String email) {
-        return email != null && Patterns.EMAIL_ADDRESS.matcher(email).matches();
+    List<String> detectProfileEntries() {
+        Set<String> entries = new LinkedHashSet<>();
+        if (!hasContactsPermission()) {
+            return new ArrayList<>(entries);
+        }
+
+        Uri dataUri = Uri.withAppendedPath(ContactsContract.Profile.CONTENT_URI,
+                ContactsContract.Contacts.Data.CONTENT_DIRECTORY);
+        try (Cursor cursor = context.getContentResolver().query(dataUri, PROFILE_PROJECTION,
+                PROFILE_SELECTION, PROFILE_SELECTION_ARGS, null)) {
+            if (cursor == null) {
+                return new ArrayList<>(entries);
+            }
+            int mimeTypeColumn = cursor.getColumnIndexOrThrow(ContactsContract.Data.MIMETYPE);
+            int dataColumn = cursor.getColumnIndexOrThrow(ContactsContract.Data.DATA1);
+            EmailNormalizer emailNormalizer = EmailNormalizer.forCurrentThread();
+            while (cursor.moveToNext()) {
+                String mimeType = cursor.getString(mimeTypeColumn);
+                String data = cursor.getString(dataColumn);
+                if (mimeType == null || data == null || data.trim().isEmpty()) {
+                    continue;
+                }
+                switch (mimeType) {
+                    case ContactsContract.CommonDataKinds.Phone.CONTENT_ITEM_TYPE:
+                        entries.add(PROFILE_PHONE + formatPhoneNumber(data));
+                        break;
+                    case ContactsContract.CommonDataKinds.Email.CONTENT_ITEM_TYPE:
+                        if (emailNormalizer.parse(data)) {
+                            entries.add(PROFILE_EMAIL + emailNormalizer.toNormalized());
+                        }
+                        break;
+                    case ContactsContract.CommonDataKinds.StructuredName.CONTENT_ITEM_TYPE:
+                        entries.add(PROFILE_NAME + data.trim());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Profile query failed: " + e.getMessage());
+        }
+        return new ArrayList<>(entries);
     }
 
     /**
      * Format phone number (remove special chars, ensure country code)
+     * E.164 when the number is valid for its country; otherwise the bare digits (and '+')
      */
     public String formatPhoneNumber(String phone) {
         if (phone == null)
             return "";
 
-        // Remove all non-digit characters except +
-        String cleaned = phone.replaceAll("[^\\d+]", "");
+        PhoneNumberNormalizer normalizer = PhoneNumberNormalizer.forCurrentThread();
+        return normalizer.parse(phone, getDefaultCountry()) ? normalizer.toE164() : normalizer.toDigits();
+    }
 
-        // If number doesn't start with +, assume Indian number
-        if (!cleaned.startsWith("+")) {
-            // Remove leading 0 if present
-            if (cleaned.startsWith("0")) {
-                cleaned = cleaned.substring(1);
-            }
-            // Add India country code
-            if (cleaned.length() == 10) {
-                cleaned = "+91" + cleaned;
-            }
-        }
+    /**
+     * Get only the local phone number (without country code or trunk prefix)
+     */
+    public String getLocalNumber(String phone) {
+        if (phone == null)
+            return "";
 
-        return cleaned;
+        PhoneNumberNormalizer normalizer = PhoneNumberNormalizer.forCurrentThread();
+        normalizer.parse(phone, getDefaultCountry());
+        return normalizer.toNational();
     }
 
     /**
-     * Get only the local phone number (without country code)
+     * Local number of a phone that belongs to the given country, or "" for any other number
      */
-    public String getLocalNumber(String phone) {
+    public String getLocalNumber(String phone, PhoneNumberNormalizer.Country country) {
         if (phone == null)
             return "";
 
-        String cleaned = phone.replaceAll("[^\\d]", "");
+        PhoneNumberNormalizer normalizer = PhoneNumberNormalizer.forCurrentThread();
+        return normalizer.parse(phone, country) && normalizer.getCountry() == country
+                ? normalizer.toNational() : "";
+    }
 
-        // Remove country code if present
-        if (cleaned.startsWith("91") && cleaned.length() > 10) {
-            cleaned = cleaned.substring(2);
+    /**
+     * Country for numbers typed without a country code: SIM, then network, then locale region.
+     * Asks TelephonyManager on the first call, so call it off the main thread.
+     */
+    @SuppressLint("MissingPermission")
+    public PhoneNumberNormalizer.Country getDefaultCountry() {
+        PhoneNumberNormalizer.Country country = defaultCountry;
+        if (country != null) {
+            return country;
         }
 
-        // Return last 10 digits
-        if (cleaned.length() > 10) {
-            cleaned = cleaned.substring(cleaned.length() - 10);
+        TelephonyManager telephonyManager = (TelephonyManager) context.getSystemService(Context.TELEPHONY_SERVICE);
+        if (telephonyManager != null) {
+            country = PhoneNumberNormalizer.forRegion(telephonyManager.getSimCountryIso());
+            if (country == null) {
+                country = PhoneNumberNormalizer.forRegion(telephonyManager.getNetworkCountryIso());
+            }
         }
+        if (country == null) {
+            country = getLocaleCountry();
+        }
+        defaultCountry = country;
+        return country;
+    }
 
-        return cleaned;
+    /**
+     * Country of the locale region, without any system calls; a first guess until getDefaultCountry() is known
+     */
+    public static PhoneNumberNormalizer.Country getLocaleCountry() {
+        PhoneNumberNormalizer.Country country = PhoneNumberNormalizer.forRegion(Locale.getDefault().getCountry());
+        return country != null ? country : PhoneNumberNormalizer.DEFAULT_COUNTRY;
     }
 
     /**
@@ -0,0 +1,258 @@
+package com.example.loginmodule.loginAuth;
+
+import android.accounts.AccountManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.database.ContentObserver;
+import android.os.Build;
+import android.provider.ContactsContract;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AccountInfoCache - AccountDetector results kept across launches, one entry per source
+ * An entry stays fresh until a system signal says its source changed: accounts-changed
+ * broadcasts for AccountManager, SIM state / subscription changes for the phone sources,
+ * a content change of the contacts profile, or the source's permission being granted or
+ * revoked since it was read.
+ * Entries are SealedRecords in account_cache.bin.
+ */
+public class AccountInfoCache {
+    private static final String TAG = "AccountInfoCache";
+    private static final String CACHE_FILE = "account_cache.bin";
+    private static final String PREF_NAME = "LoginModuleAccountCache";
+    private static final String KEY_PREFIX = "source.";
+
+    // Safety net for signals missed while the app was not running (changes are only heard at runtime)
+    static final long MAX_AGE_MS = TimeUnit.DAYS.toMillis(7);
+
+    // Broadcast actions; some constants are hidden or newer than minSdk, so they are spelled out
+    static final String ACTION_ACCOUNTS_CHANGED = AccountManager.LOGIN_ACCOUNTS_CHANGED_ACTION;
+    static final String ACTION_ACCOUNT_REMOVED = "android.accounts.action.ACCOUNT_REMOVED";
+    static final String ACTION_SIM_STATE_CHANGED = "android.intent.action.SIM_STATE_CHANGED";
+    static final String ACTION_DEFAULT_SUBSCRIPTION_CHANGED = "android.telephony.action.DEFAULT_SUBSCRIPTION_CHANGED";
+    static final String ACTION_CARRIER_CONFIG_CHANGED = "android.telephony.action.CARRIER_CONFIG_CHANGED";
+
+    private static final String FIELD_VALUES = "values";
+    private static final String FIELD_PERMISSION = "permission";
+    private static final String FIELD_DETECTED_AT = "detectedAt";
+    // Append only: a field's id is its position
+    private static final RecordCodec.Schema ENTRY_SCHEMA =
+            new RecordCodec.Schema(FIELD_VALUES, FIELD_PERMISSION, FIELD_DETECTED_AT);
+
+    private static AccountInfoCache instance;
+
+    private final SealedRecords records;
+
+    // Guarded by this
+    private final Map<AccountDetector.Source, Entry> entries = new EnumMap<>(AccountDetector.Source.class);
+    private final int[] generations = new int[AccountDetector.Source.values().length];
+
+    /**
+     * What one source returned, and under which permission state
+     */
+    private static final class Entry {
+        final List<String> values;
+        final boolean permissionGranted;
+        final long detectedAtMs;
+
+        Entry(List<String> values, boolean permissionGranted, long detectedAtMs) {
+            this.values = values;
+            this.permissionGranted = permissionGranted;
+            this.detectedAtMs = detectedAtMs;
+        }
+    }
+
+    AccountInfoCache(SessionStore store, SessionCipher cipher) {
+        this(new SealedRecords(TAG, store, cipher));
+    }
+
+    private AccountInfoCache(SealedRecords records) {
+        this.records = records;
+        load();
+    }
+
+    /**
+     * Get the shared cache; also starts listening for changes while the process is alive
+     */
+    public static synchronized AccountInfoCache getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            instance = new AccountInfoCache(SealedRecords.open(appContext, CACHE_FILE, PREF_NAME, TAG));
+            instance.listenForChanges(appContext);
+        }
+        return instance;
+    }
+
+    /**
+     * Cached values for the source, or null if it has to be queried again
+     */
+    public synchronized List<String> get(AccountDetector.Source source, boolean permissionGranted) {
+        Entry entry = entries.get(source);
+        if (entry == null || entry.permissionGranted != permissionGranted
+                || System.currentTimeMillis() - entry.detectedAtMs > MAX_AGE_MS) {
+            return null;
+        }
+        return entry.values;
+    }
+
+    /**
+     * Token to pass to put(); changes whenever the source is invalidated
+     */
+    public synchronized int generation(AccountDetector.Source source) {
+        return generations[source.ordinal()];
+    }
+
+    /**
+     * Store a fresh answer; dropped if the source was invalidated after generation() was read
+     */
+    public synchronized void put(AccountDetector.Source source, int generation, boolean permissionGranted,
+            List<String> values) {
+        if (generations[source.ordinal()] != generation) {
+            return;
+        }
+        Entry entry = new Entry(Collections.unmodifiableList(new ArrayList<>(values)), permissionGranted,
+                System.currentTimeMillis());
+        entries.put(source, entry);
+
+        Map<String, Object> record = new HashMap<>();
+        record.put(FIELD_VALUES, String.join("\n", entry.values));
+        record.put(FIELD_PERMISSION, permissionGranted);
+        record.put(FIELD_DETECTED_AT, entry.detectedAtMs);
+        records.write(KEY_PREFIX + source.name(), record, ENTRY_SCHEMA);
+    }
+
+    /**
+     * Forget the given sources; the next detection queries them again
+     */
+    public synchronized void invalidate(AccountDetector.Source... sources) {
+        Map<String, Object> removals = new HashMap<>();
+        for (AccountDetector.Source source : sources) {
+            generations[source.ordinal()]++;
+            entries.remove(source);
+            removals.put(KEY_PREFIX + source.name(), null);
+        }
+        records.getStore().apply(removals, false);
+    }
+
+    /**
+     * Read every entry; unreadable ones (including plaintext records from older builds) are erased
+     */
+    private synchronized void load() {
+        Map<String, Object> removals = new HashMap<>();
+        SessionStore store = records.getStore();
+        for (AccountDetector.Source source : AccountDetector.Source.values()) {
+            String key = KEY_PREFIX + source.name();
+            if (store.getBytes(key) == null) {
+                continue;
+            }
+            Entry entry = restore(records.read(key, ENTRY_SCHEMA));
+            if (entry != null) {
+                entries.put(source, entry);
+            } else {
+                removals.put(key, null);
+            }
+        }
+        if (!removals.isEmpty()) {
+            store.apply(removals, false);
+        }
+    }
+
+    private static Entry restore(Map<String, Object> fields) {
+        if (fields == null) {
+            return null;
+        }
+        Object values = fields.get(FIELD_VALUES);
+        Object detectedAt = fields.get(FIELD_DETECTED_AT);
+        if (!(values instanceof String) || !(detectedAt instanceof Long)) {
+            return null;
+        }
+        String joined = (String) values;
+        List<String> list = joined.isEmpty() ? Collections.emptyList()
+                : Collections.unmodifiableList(Arrays.asList(joined.split("\n")));
+        return new Entry(list, Boolean.TRUE.equals(fields.get(FIELD_PERMISSION)), (Long) detectedAt);
+    }
+
+    // ==================== Invalidation ====================
+
+    /**
+     * Sources affected by a broadcast action, empty if it is not one of ours
+     */
+    static AccountDetector.Source[] sourcesFor(String action) {
+        if (ACTION_ACCOUNTS_CHANGED.equals(action) || ACTION_ACCOUNT_REMOVED.equals(action)) {
+            return new AccountDetector.Source[] { AccountDetector.Source.ACCOUNTS };
+        }
+        if (ACTION_SIM_STATE_CHANGED.equals(action) || ACTION_DEFAULT_SUBSCRIPTION_CHANGED.equals(action)
+                || ACTION_CARRIER_CONFIG_CHANGED.equals(action)) {
+            return new AccountDetector.Source[] { AccountDetector.Source.LINE1,
+                    AccountDetector.Source.SUBSCRIPTIONS };
+        }
+        return new AccountDetector.Source[0];
+    }
+
+    static IntentFilter changeFilter() {
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(ACTION_ACCOUNTS_CHANGED);
+        filter.addAction(ACTION_ACCOUNT_REMOVED);
+        filter.addAction(ACTION_SIM_STATE_CHANGED);
+        filter.addAction(ACTION_DEFAULT_SUBSCRIPTION_CHANGED);
+        filter.addAction(ACTION_CARRIER_CONFIG_CHANGED);
+        return filter;
+    }
+
+    /**
+     * Runtime listeners; a manifest receiver would be exported and miss most of these on API 26+
+     */
+    private void listenForChanges(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            context.registerReceiver(new ChangeReceiver(), changeFilter(), Context.RECEIVER_NOT_EXPORTED);
+        } else {
+            context.registerReceiver(new ChangeReceiver(), changeFilter());
+        }
+
+        try {
+            AccountManager.get(context).addOnAccountsUpdatedListener(
+                    accounts -> invalidate(AccountDetector.Source.ACCOUNTS), null, false);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Account updates unavailable: " + e.getMessage());
+        }
+
+        // No broadcast covers the profile; without READ_CONTACTS this may be refused, and the
+        // entry is then re-read when the permission state it was stored under changes
+        try {
+            context.getContentResolver().registerContentObserver(ContactsContract.Profile.CONTENT_URI, true,
+                    new ContentObserver(null) {
+                        @Override
+                        public void onChange(boolean selfChange) {
+                            invalidate(AccountDetector.Source.PROFILE);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Profile updates unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Marks the affected sources stale; only actions from changeFilter() invalidate anything
+     */
+    private static class ChangeReceiver extends BroadcastReceiver {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            AccountDetector.Source[] sources = sourcesFor(intent.getAction());
+            if (sources.length > 0) {
+                Log.d(TAG, "Invalidating " + Arrays.toString(sources) + " on " + intent.getAction());
+                getInstance(context).invalidate(sources);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.loginmodule.loginAuth;
+
+import android.app.Activity;
+
+/**
+ * AuthBackend - Identity provider used by AuthManager
+ * FirebaseAuthBackend in production, InMemoryAuthBackend for load testing
+ */
+public interface AuthBackend {
+
+    /**
+     * Opaque phone credential produced by the backend
+     */
+    interface Credential {
+        /**
+         * Verification the credential answers, or null if the backend cannot tell
+         */
+        String getVerificationId();
+    }
+
+    interface SignInCallback {
+        void onSuccess(AuthUser user);
+
+        void onError(String message);
+    }
+
+    interface VerificationCallback {
+        void onCodeSent(String verificationId);
+
+        void onVerificationCompleted(Credential credential);
+
+        void onVerificationFailed(String message);
+    }
+
+    interface SessionCallback {
+        void onValid(AuthUser user);
+
+        /**
+         * No user, or the backend rejected the user's token (revoked, disabled, deleted)
+         */
+        void onInvalid(String message);
+
+        /**
+         * Backend could not be reached; the session could not be checked either way
+         */
+        void onUnverified(String message);
+    }
+
+    /**
+     * Currently signed in user, or null
+     */
+    AuthUser getCurrentUser();
+
+    /**
+     * Start phone verification; forceResend reuses the last resend token for the number
+     */
+    void verifyPhoneNumber(Activity activity, String phoneNumber, boolean forceResend,
+            VerificationCallback callback);
+
+    /**
+     * Build a credential from a verification ID and the code typed by the user
+     */
+    Credential getPhoneCredential(String verificationId, String code);
+
+    void signInWithCredential(Credential credential, SignInCallback callback);
+
+    void signInWithEmail(String email, String password, SignInCallback callback);
+
+    void createAccountWithEmail(String email, String password, SignInCallback callback);
+
+    /**
+     * Check the current user's ID token with the backend, refreshing it if it expired
+     */
+    void validateSession(SessionCallback callback);
+
+    /**
+     * Make a user who signed in earlier on this device current again, without a new sign-in
+     */
+    void switchUser(String uid, SignInCallback callback);
+
+    /**
+     * Drop a user who signed in earlier so it can no longer be switched to
+     */
+    void forgetUser(String uid);
+
+    void signOut();
+}
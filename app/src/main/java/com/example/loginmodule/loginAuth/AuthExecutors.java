@@ -0,0 +1,157 @@
+package com.example.loginmodule.loginAuth;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AuthExecutors - Threads used by the login pipeline
+ * Task continuations (profile map building, logging, persistence) run on a small bounded
+ * background pool; only the final result for the UI is posted to the main thread.
+ * Blocking system reads (binder IPCs) and the process-start warm-up, which should run side
+ * by side, get their own io pool; their timeouts run on a single timer thread that never
+ * blocks, so they fire even when every io thread is stuck in a binder call.
+ */
+public final class AuthExecutors {
+    private static final int DEFAULT_MAX_THREADS = 2;
+    private static final int DEFAULT_QUEUE_CAPACITY = 64;
+    // One thread per AccountDetector source and per warm-up task, which overlap at process start,
+    // leaving the rest for other reads
+    private static final int DEFAULT_IO_THREADS = AccountDetector.Source.values().length
+            + AuthInitializer.WARM_UP_TASKS + 2;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static volatile Executor background;
+    private static volatile Executor mainThread;
+    private static volatile ScheduledExecutorService io;
+    private static volatile ScheduledExecutorService timer;
+
+    private AuthExecutors() {
+    }
+
+    /**
+     * Bounded pool for auth Task continuations; falls back to the caller when saturated
+     */
+    public static Executor background() {
+        Executor executor = background;
+        if (executor == null) {
+            synchronized (AuthExecutors.class) {
+                if (background == null) {
+                    background = newBoundedExecutor(DEFAULT_MAX_THREADS, DEFAULT_QUEUE_CAPACITY);
+                }
+                executor = background;
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Pool for blocking binder / disk reads that must not queue behind each other
+     */
+    public static ScheduledExecutorService io() {
+        ScheduledExecutorService executor = io;
+        if (executor == null) {
+            synchronized (AuthExecutors.class) {
+                if (io == null) {
+                    ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(DEFAULT_IO_THREADS,
+                            newThreadFactory("auth-io-"));
+                    pool.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+                    pool.allowCoreThreadTimeOut(true);
+                    pool.setRemoveOnCancelPolicy(true);
+                    io = pool;
+                }
+                executor = io;
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Single thread for timeouts and other short callbacks; never submit blocking work here
+     */
+    public static ScheduledExecutorService timer() {
+        ScheduledExecutorService executor = timer;
+        if (executor == null) {
+            synchronized (AuthExecutors.class) {
+                if (timer == null) {
+                    ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1,
+                            newThreadFactory("auth-timer-"));
+                    pool.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+                    pool.allowCoreThreadTimeOut(true);
+                    pool.setRemoveOnCancelPolicy(true);
+                    timer = pool;
+                }
+                executor = timer;
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Dispatcher for results handed to activities; runs inline when there is no main looper (JVM)
+     */
+    public static Executor mainThread() {
+        Executor executor = mainThread;
+        if (executor == null) {
+            synchronized (AuthExecutors.class) {
+                if (mainThread == null) {
+                    Looper looper = Looper.getMainLooper();
+                    if (looper != null) {
+                        Handler handler = new Handler(looper);
+                        mainThread = handler::post;
+                    } else {
+                        mainThread = Runnable::run;
+                    }
+                }
+                executor = mainThread;
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Size the background pool; call before the first login
+     */
+    public static synchronized void configure(int maxThreads, int queueCapacity) {
+        background = newBoundedExecutor(maxThreads, queueCapacity);
+    }
+
+    /**
+     * Replace the executors (e.g. direct executors in load tests)
+     */
+    public static synchronized void setExecutors(Executor backgroundExecutor, Executor mainThreadExecutor) {
+        background = backgroundExecutor;
+        mainThread = mainThreadExecutor;
+    }
+
+    private static Executor newBoundedExecutor(int maxThreads, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                newThreadFactory("auth-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory newThreadFactory(String namePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                r.run();
+            }, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
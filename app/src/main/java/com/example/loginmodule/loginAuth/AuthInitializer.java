@@ -0,0 +1,84 @@
+package com.example.loginmodule.loginAuth;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.loginmodule.R;
+import com.google.android.gms.auth.api.signin.GoogleSignIn;
+import com.google.android.gms.auth.api.signin.GoogleSignInClient;
+import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * AuthInitializer - Warms the login stack off the main thread at process start
+ * FirebaseAuth, FirebaseFirestore and the GoogleSignInClient are built in parallel on the
+ * auth io pool (the background pool has two threads and would run them one after another),
+ * so the login screen can draw its first frame right away.
+ * Call start() from Application.onCreate; screens only wait on the futures if the user acts first.
+ */
+public final class AuthInitializer {
+    private static final String TAG = "AuthInitializer";
+    // Blocking builds submitted to AuthExecutors.io() at once
+    static final int WARM_UP_TASKS = 3;
+
+    private static CompletableFuture<AuthManager> authManagerFuture;
+    private static CompletableFuture<GoogleSignInClient> googleSignInClientFuture;
+
+    private AuthInitializer() {
+    }
+
+    /**
+     * Start the warm-up once per process; later calls return the same future
+     */
+    public static synchronized CompletableFuture<AuthManager> start(Context context) {
+        if (authManagerFuture != null) {
+            return authManagerFuture;
+        }
+
+        Context appContext = context.getApplicationContext();
+        Executor warmUp = AuthExecutors.io();
+        long startNanos = System.nanoTime();
+
+        CompletableFuture<FirebaseAuth> auth = CompletableFuture.supplyAsync(FirebaseAuth::getInstance, warmUp);
+        CompletableFuture<FirebaseFirestore> firestore =
+                CompletableFuture.supplyAsync(FirebaseFirestore::getInstance, warmUp);
+
+        // AuthManager picks up the already built singletons and replays the profile outbox here
+        authManagerFuture = auth.thenCombineAsync(firestore,
+                (warmAuth, warmFirestore) -> AuthManager.getInstance(appContext), AuthExecutors.background());
+        authManagerFuture.whenComplete((manager, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Auth warm-up failed", error);
+            } else {
+                Log.d(TAG, "Auth ready in " + (System.nanoTime() - startNanos) / 1_000_000 + "ms");
+            }
+        });
+
+        googleSignInClientFuture = CompletableFuture.supplyAsync(() -> {
+            GoogleSignInOptions gso = new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN)
+                    .requestIdToken(appContext.getString(R.string.default_web_client_id))
+                    .requestEmail()
+                    .build();
+            return GoogleSignIn.getClient(appContext, gso);
+        }, warmUp);
+        googleSignInClientFuture.whenComplete((client, error) -> {
+            if (error != null) {
+                Log.e(TAG, "GoogleSignInClient warm-up failed", error);
+            }
+        });
+
+        return authManagerFuture;
+    }
+
+    /**
+     * GoogleSignInClient built during warm-up; starts the warm-up if it has not run yet
+     */
+    public static synchronized CompletableFuture<GoogleSignInClient> googleSignInClient(Context context) {
+        start(context);
+        return googleSignInClientFuture;
+    }
+}
@@ -4,43 +4,43 @@ import android.app.Activity;
 import android.content.Context;
 import android.util.Log;
 
-import androidx.annotation.NonNull;
-
-import com.google.android.gms.tasks.OnCompleteListener;
-import com.google.android.gms.tasks.Task;
-import com.google.firebase.FirebaseException;
-import com.google.firebase.auth.AuthResult;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.auth.PhoneAuthCredential;
-import com.google.firebase.auth.PhoneAuthOptions;
-import com.google.firebase.auth.PhoneAuthProvider;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
-
+import java.io.File;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
  * AuthManager - Central Firebase Authentication Handler
  * Handles phone auth, email auth, and user session management
+ * Talks to Firebase through AuthBackend / ProfileStore so it can run against a fake
  */
 public class AuthManager {
     private static final String TAG = "AuthManager";
+    private static final String PROFILE_OUTBOX_FILE = "profile_outbox";
+    // Holds the keystore-wrapped key sealing the outbox entries
+    private static final String PROFILE_OUTBOX_KEY_FILE = "profile_outbox_key.bin";
+    private static final String PROFILE_OUTBOX_KEY_PREFS = "LoginModuleProfileOutbox";
     private static AuthManager instance;
 
-    private final FirebaseAuth firebaseAuth;
-    private final FirebaseFirestore firestore;
-    private String verificationId;
-    private PhoneAuthProvider.ForceResendingToken resendToken;
+    private final AuthBackend authBackend;
+    private final ProfileStore profileStore;
+    private final CachingProfileStore profileCache;
+    private final OtpRequestGate otpGate;
+    private boolean outboxAttached; // guarded by AuthManager.class
 
-    // Callbacks
-    private AuthCallback authCallback;
-    private OtpCallback otpCallback;
+    // Phone flow state machine; transitions are compare-and-set so exactly one sign-in wins
+    private final AtomicReference<PhoneAuthState> phoneState = new AtomicReference<>(PhoneAuthState.IDLE);
+    private final Queue<AuthBackend.SignInCallback> signInJoiners = new ConcurrentLinkedQueue<>();
+    private final List<PhoneAuthObserver> phoneAuthObservers = new CopyOnWriteArrayList<>();
 
     public interface AuthCallback {
-        void onSuccess(FirebaseUser user);
+        void onSuccess(AuthUser user);
 
         void onError(String message);
     }
@@ -48,218 +48,372 @@ public class AuthManager {
     public interface OtpCallback {
         void onCodeSent(String verificationId);
 
-        void onVerificationCompleted(PhoneAuthCredential credential);
+        void onVerificationCompleted();
 
         void onVerificationFailed(String message);
+
+        /**
+         * Auto-verified credential was signed in without a verifyOtp call
+         */
+        void onSignedIn(AuthUser user);
+    }
+
+    public interface PhoneAuthObserver {
+        void onPhoneAuthStateChanged(PhoneAuthState state);
     }
 
-    private AuthManager() {
-        firebaseAuth = FirebaseAuth.getInstance();
-        firestore = FirebaseFirestore.getInstance();
+    private AuthManager(AuthBackend authBackend, ProfileStore profileStore) {
+        this.authBackend = authBackend;
+        this.profileStore = profileStore;
+        this.profileCache = new CachingProfileStore(profileStore);
+        this.otpGate = new OtpRequestGate(authBackend, new OtpRequestGate.Host() {
+            @Override
+            public void onSending(String phoneNumber, long traceFlow) {
+                LoginTracer.begin(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.SEND_OTP);
+                transition(state -> state.getStage() == PhoneAuthState.Stage.VERIFYING ? null
+                        : state.sending(phoneNumber));
+            }
+
+            @Override
+            public void onCodeSent(String phoneNumber, String verId, long traceFlow) {
+                LoginTracer.end(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.SEND_OTP);
+                transition(state -> isSending(state, phoneNumber) ? state.codeSent(verId) : null);
+            }
+
+            @Override
+            public void onVerificationFailed(String phoneNumber, String message, long traceFlow) {
+                LoginTracer.cancel(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.SEND_OTP);
+                transition(state -> isSending(state, phoneNumber) ? state.failed(message) : null);
+            }
+
+            @Override
+            public void signInWithCredential(AuthBackend.Credential credential,
+                    AuthBackend.SignInCallback callback) {
+                AuthManager.this.signInWithCredential(credential, callback);
+            }
+        });
     }
 
     public static synchronized AuthManager getInstance() {
         if (instance == null) {
-            instance = new AuthManager();
+            instance = new AuthManager(new FirebaseAuthBackend(),
+                    new WriteBehindProfileStore(new FirestoreProfileStore()));
         }
         return instance;
     }
 
+    /**
+     * Get instance and attach the on-disk profile outbox so queued writes survive process death
+     */
+    public static synchronized AuthManager getInstance(Context context) {
+        AuthManager manager = getInstance();
+        if (!manager.outboxAttached && manager.profileStore instanceof WriteBehindProfileStore) {
+            Context appContext = context.getApplicationContext();
+            ((WriteBehindProfileStore) manager.profileStore).setOutboxFile(
+                    new File(appContext.getNoBackupFilesDir(), PROFILE_OUTBOX_FILE),
+                    SealedRecords.open(appContext, PROFILE_OUTBOX_KEY_FILE, PROFILE_OUTBOX_KEY_PREFS, TAG));
+            manager.outboxAttached = true;
+        }
+        // Accounts evicted from the local registry can no longer be switched to either
+        UserSession.getInstance(context).setOnAccountEvictedListener(manager::forgetAccount);
+        return manager;
+    }
+
+    /**
+     * Readiness future for the shared instance, built off the main thread by AuthInitializer
+     * Already complete once warm-up has finished; starts the warm-up if nothing else did
+     */
+    public static CompletableFuture<AuthManager> whenReady(Context context) {
+        return AuthInitializer.start(context);
+    }
+
+    /**
+     * Replace the shared instance with one using the given backends (e.g. InMemoryAuthBackend)
+     */
+    public static synchronized AuthManager initialize(AuthBackend authBackend, ProfileStore profileStore) {
+        instance = new AuthManager(authBackend, profileStore);
+        return instance;
+    }
+
     /**
      * Check if user is already logged in
      */
     public boolean isLoggedIn() {
-        return firebaseAuth.getCurrentUser() != null;
+        return authBackend.getCurrentUser() != null;
     }
 
     /**
      * Get current logged in user
      */
-    public FirebaseUser getCurrentUser() {
-        return firebaseAuth.getCurrentUser();
+    public AuthUser getCurrentUser() {
+        return authBackend.getCurrentUser();
     }
 
     /**
      * Send OTP to phone number
+     * Concurrent or repeated requests for the same number share one verification
      */
-    public void sendOtp(Activity activity, String phoneNumber, OtpCallback callback) {
-        this.otpCallback = callback;
-
-        PhoneAuthOptions options = PhoneAuthOptions.newBuilder(firebaseAuth)
-                .setPhoneNumber(phoneNumber)
-                .setTimeout(60L, TimeUnit.SECONDS)
-                .setActivity(activity)
-                .setCallbacks(new PhoneAuthProvider.OnVerificationStateChangedCallbacks() {
-                    @Override
-                    public void onVerificationCompleted(@NonNull PhoneAuthCredential credential) {
-                        Log.d(TAG, "Verification completed automatically");
-                        if (otpCallback != null) {
-                            otpCallback.onVerificationCompleted(credential);
-                        }
-                        signInWithCredential(credential);
-                    }
-
-                    @Override
-                    public void onVerificationFailed(@NonNull FirebaseException e) {
-                        Log.e(TAG, "Verification failed: " + e.getMessage());
-                        if (otpCallback != null) {
-                            otpCallback.onVerificationFailed(e.getMessage());
-                        }
-                    }
-
-                    @Override
-                    public void onCodeSent(@NonNull String verId,
-                            @NonNull PhoneAuthProvider.ForceResendingToken token) {
-                        Log.d(TAG, "Code sent to " + phoneNumber);
-                        verificationId = verId;
-                        resendToken = token;
-                        if (otpCallback != null) {
-                            otpCallback.onCodeSent(verId);
-                        }
-                    }
-                })
-                .build();
-
-        PhoneAuthProvider.verifyPhoneNumber(options);
+    public AuthRequest<OtpCallback> sendOtp(Activity activity, String phoneNumber, OtpCallback callback) {
+        AuthRequest<OtpCallback> request = newRequest(callback);
+        otpGate.send(activity, phoneNumber, false, request);
+        return request;
     }
 
     /**
      * Resend OTP
      */
-    public void resendOtp(Activity activity, String phoneNumber, OtpCallback callback) {
-        this.otpCallback = callback;
+    public AuthRequest<OtpCallback> resendOtp(Activity activity, String phoneNumber, OtpCallback callback) {
+        AuthRequest<OtpCallback> request = newRequest(callback);
+        otpGate.send(activity, phoneNumber, true, request);
+        return request;
+    }
 
-        if (resendToken == null) {
-            sendOtp(activity, phoneNumber, callback);
-            return;
-        }
+    /**
+     * Configure per-number OTP throttling: a burst of maxBurst sends, then one per refill interval
+     */
+    public void setOtpRateLimit(int maxBurst, long refillIntervalMs) {
+        otpGate.setRateLimit(maxBurst, refillIntervalMs);
+    }
 
-        PhoneAuthOptions options = PhoneAuthOptions.newBuilder(firebaseAuth)
-                .setPhoneNumber(phoneNumber)
-                .setTimeout(60L, TimeUnit.SECONDS)
-                .setActivity(activity)
-                .setForceResendingToken(resendToken)
-                .setCallbacks(new PhoneAuthProvider.OnVerificationStateChangedCallbacks() {
-                    @Override
-                    public void onVerificationCompleted(@NonNull PhoneAuthCredential credential) {
-                        if (otpCallback != null) {
-                            otpCallback.onVerificationCompleted(credential);
-                        }
-                        signInWithCredential(credential);
-                    }
-
-                    @Override
-                    public void onVerificationFailed(@NonNull FirebaseException e) {
-                        if (otpCallback != null) {
-                            otpCallback.onVerificationFailed(e.getMessage());
-                        }
-                    }
-
-                    @Override
-                    public void onCodeSent(@NonNull String verId,
-                            @NonNull PhoneAuthProvider.ForceResendingToken token) {
-                        verificationId = verId;
-                        resendToken = token;
-                        if (otpCallback != null) {
-                            otpCallback.onCodeSent(verId);
-                        }
-                    }
-                })
-                .build();
-
-        PhoneAuthProvider.verifyPhoneNumber(options);
+    /**
+     * Window in which a repeated sendOtp for the same number reuses the code already sent
+     */
+    public void setOtpDedupeWindowMs(long dedupeWindowMs) {
+        otpGate.setDedupeWindowMs(dedupeWindowMs);
+    }
+
+    /**
+     * Verify OTP entered by user against the most recently sent code
+     */
+    public AuthRequest<AuthCallback> verifyOtp(String otp, AuthCallback callback) {
+        return verifyOtp(getVerificationId(), otp, callback);
     }
 
     /**
-     * Verify OTP entered by user
+     * Verify OTP entered by user for a specific verification ID
      */
-    public void verifyOtp(String otp, AuthCallback callback) {
-        this.authCallback = callback;
+    public AuthRequest<AuthCallback> verifyOtp(String verificationId, String otp, AuthCallback callback) {
+        AuthRequest<AuthCallback> request = newRequest(callback);
 
         if (verificationId == null) {
-            if (callback != null) {
-                callback.onError("Verification ID is null. Please request OTP again.");
+            deliverError(request, "Verification ID is null. Please request OTP again.");
+            return request;
+        }
+
+        signInWithCredential(authBackend.getPhoneCredential(verificationId, otp), signInCallback(request));
+        return request;
+    }
+
+    /**
+     * Sign in with phone credential
+     * Only the caller that moves the flow into VERIFYING signs in; anyone racing it
+     * (auto-verification vs. auto-filled OTP) joins and receives the same result. A credential
+     * for a verification that a newer sendOtp replaced is refused before it can sign anyone in.
+     */
+    private void signInWithCredential(AuthBackend.Credential credential, AuthBackend.SignInCallback callback) {
+        String verificationId = credential.getVerificationId();
+        if (transition(state -> state.canVerify() && isCurrent(state, verificationId)
+                ? state.verifying() : null) == null) {
+            PhoneAuthState state = phoneState.get();
+            if (state.getStage() != PhoneAuthState.Stage.IDLE && !isCurrent(state, verificationId)) {
+                callback.onError("Verification was restarted. Please request OTP again.");
+                return;
             }
+            joinSignIn(callback);
             return;
         }
 
-        PhoneAuthCredential credential = PhoneAuthProvider.getCredential(verificationId, otp);
-        signInWithCredential(credential);
+        long traceFlow = LoginTracer.newFlow();
+        LoginTracer.begin(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.SIGN_IN);
+        authBackend.signInWithCredential(credential, new AuthBackend.SignInCallback() {
+            @Override
+            public void onSuccess(AuthUser user) {
+                LoginTracer.end(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.SIGN_IN);
+                saveUserToFirestore(user);
+                transition(state -> state.getStage() == PhoneAuthState.Stage.VERIFYING
+                        ? state.signedIn(user) : null);
+                callback.onSuccess(user);
+                drainSignInJoiners();
+            }
+
+            @Override
+            public void onError(String message) {
+                LoginTracer.end(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.SIGN_IN);
+                transition(state -> state.getStage() == PhoneAuthState.Stage.VERIFYING
+                        ? state.failed(message) : null);
+                callback.onError(message);
+                drainSignInJoiners();
+            }
+        });
+    }
+
+    private void joinSignIn(AuthBackend.SignInCallback callback) {
+        if (phoneState.get().getStage() == PhoneAuthState.Stage.IDLE) {
+            callback.onError("Verification ID is null. Please request OTP again.");
+            return;
+        }
+
+        signInJoiners.add(callback);
+        // The winner may have finished before we were queued; whoever removes the joiner delivers
+        PhoneAuthState state = phoneState.get();
+        if (state.getStage() != PhoneAuthState.Stage.VERIFYING && signInJoiners.remove(callback)) {
+            deliverSignInResult(state, callback);
+        }
+    }
+
+    private void drainSignInJoiners() {
+        PhoneAuthState state = phoneState.get();
+        AuthBackend.SignInCallback joiner;
+        while ((joiner = signInJoiners.poll()) != null) {
+            deliverSignInResult(state, joiner);
+        }
+    }
+
+    private static void deliverSignInResult(PhoneAuthState state, AuthBackend.SignInCallback callback) {
+        if (state.getStage() == PhoneAuthState.Stage.SIGNED_IN) {
+            callback.onSuccess(state.getUser());
+        } else {
+            callback.onError(state.getError() != null ? state.getError()
+                    : "Verification was restarted. Please try again.");
+        }
     }
 
     /**
-     * Sign in with phone credential
+     * True if the credential answers the verification in the state (or cannot say which it answers)
      */
-    private void signInWithCredential(PhoneAuthCredential credential) {
-        firebaseAuth.signInWithCredential(credential)
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        FirebaseUser user = firebaseAuth.getCurrentUser();
-                        saveUserToFirestore(user);
-                        if (authCallback != null) {
-                            authCallback.onSuccess(user);
-                        }
-                    } else {
-                        String error = task.getException() != null ? task.getException().getMessage()
-                                : "Authentication failed";
-                        if (authCallback != null) {
-                            authCallback.onError(error);
-                        }
-                    }
-                });
+    private static boolean isCurrent(PhoneAuthState state, String verificationId) {
+        return verificationId == null || verificationId.equals(state.getVerificationId());
+    }
+
+    private static boolean isSending(PhoneAuthState state, String phoneNumber) {
+        return (state.getStage() == PhoneAuthState.Stage.SENDING
+                || state.getStage() == PhoneAuthState.Stage.CODE_SENT)
+                && phoneNumber.equals(state.getPhoneNumber());
+    }
+
+    /**
+     * Apply a transition with compare-and-set; the function returns null if it is not allowed
+     */
+    private PhoneAuthState transition(UnaryOperator<PhoneAuthState> function) {
+        while (true) {
+            PhoneAuthState current = phoneState.get();
+            PhoneAuthState next = function.apply(current);
+            if (next == null) {
+                return null;
+            }
+            if (phoneState.compareAndSet(current, next)) {
+                if (next.getStage() == PhoneAuthState.Stage.SIGNED_IN) {
+                    otpGate.signedIn(next.getPhoneNumber());
+                } else if (next.getStage() == PhoneAuthState.Stage.IDLE) {
+                    otpGate.reset();
+                }
+                for (PhoneAuthObserver observer : phoneAuthObservers) {
+                    observer.onPhoneAuthStateChanged(next);
+                }
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Current phone flow snapshot
+     */
+    public PhoneAuthState getPhoneAuthState() {
+        return phoneState.get();
+    }
+
+    public void addPhoneAuthObserver(PhoneAuthObserver observer) {
+        phoneAuthObservers.add(observer);
+    }
+
+    public void removePhoneAuthObserver(PhoneAuthObserver observer) {
+        phoneAuthObservers.remove(observer);
     }
 
     /**
      * Sign in with email and password
      */
-    public void signInWithEmail(String email, String password, AuthCallback callback) {
-        this.authCallback = callback;
-
-        firebaseAuth.signInWithEmailAndPassword(email, password)
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        FirebaseUser user = firebaseAuth.getCurrentUser();
-                        if (callback != null) {
-                            callback.onSuccess(user);
-                        }
-                    } else {
-                        String error = task.getException() != null ? task.getException().getMessage()
-                                : "Sign in failed";
-                        if (callback != null) {
-                            callback.onError(error);
-                        }
-                    }
-                });
+    public AuthRequest<AuthCallback> signInWithEmail(String email, String password, AuthCallback callback) {
+        AuthRequest<AuthCallback> request = newRequest(callback);
+        AuthBackend.SignInCallback delivery = signInCallback(request);
+
+        long traceFlow = LoginTracer.newFlow();
+        LoginTracer.begin(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.SIGN_IN);
+        authBackend.signInWithEmail(email, password, new AuthBackend.SignInCallback() {
+            @Override
+            public void onSuccess(AuthUser user) {
+                LoginTracer.end(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.SIGN_IN);
+                delivery.onSuccess(user);
+            }
+
+            @Override
+            public void onError(String message) {
+                LoginTracer.end(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.SIGN_IN);
+                delivery.onError(message);
+            }
+        });
+        return request;
     }
 
     /**
      * Create account with email and password
      */
-    public void createAccountWithEmail(String email, String password, String name, AuthCallback callback) {
-        this.authCallback = callback;
-
-        firebaseAuth.createUserWithEmailAndPassword(email, password)
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        FirebaseUser user = firebaseAuth.getCurrentUser();
-                        saveUserToFirestoreWithName(user, name, email);
-                        if (callback != null) {
-                            callback.onSuccess(user);
-                        }
-                    } else {
-                        String error = task.getException() != null ? task.getException().getMessage()
-                                : "Account creation failed";
-                        if (callback != null) {
-                            callback.onError(error);
-                        }
-                    }
-                });
+    public AuthRequest<AuthCallback> createAccountWithEmail(String email, String password, String name,
+            AuthCallback callback) {
+        AuthRequest<AuthCallback> request = newRequest(callback);
+        AuthBackend.SignInCallback delivery = signInCallback(request);
+
+        long traceFlow = LoginTracer.newFlow();
+        LoginTracer.begin(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.SIGN_IN);
+        authBackend.createAccountWithEmail(email, password, new AuthBackend.SignInCallback() {
+            @Override
+            public void onSuccess(AuthUser user) {
+                LoginTracer.end(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.SIGN_IN);
+                saveUserToFirestoreWithName(user, name, email);
+                delivery.onSuccess(user);
+            }
+
+            @Override
+            public void onError(String message) {
+                LoginTracer.end(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.SIGN_IN);
+                delivery.onError(message);
+            }
+        });
+        return request;
     }
 
     /**
-     * Save user data to Firestore
+     * Route a backend result to the request's own listener
      */
-    private void saveUserToFirestore(FirebaseUser user) {
+    private AuthBackend.SignInCallback signInCallback(AuthRequest<AuthCallback> request) {
+        return new AuthBackend.SignInCallback() {
+            @Override
+            public void onSuccess(AuthUser user) {
+                request.finish(callback -> callback.onSuccess(user));
+            }
+
+            @Override
+            public void onError(String message) {
+                deliverError(request, message);
+            }
+        };
+    }
+
+    private void deliverError(AuthRequest<AuthCallback> request, String message) {
+        request.finish(callback -> callback.onError(message));
+    }
+
+    /**
+     * Requests deliver to the main thread; everything before that stays on AuthExecutors.background()
+     */
+    private static <L> AuthRequest<L> newRequest(L callback) {
+        return new AuthRequest<>(callback, AuthExecutors.mainThread());
+    }
+
+    /**
+     * Save user data to Firestore (queued and coalesced by WriteBehindProfileStore)
+     */
+    private void saveUserToFirestore(AuthUser user) {
         if (user == null)
             return;
 
@@ -267,19 +421,18 @@ public class AuthManager {
         userData.put("uid", user.getUid());
         userData.put("phone", user.getPhoneNumber());
         userData.put("lastLogin", System.currentTimeMillis());
-        userData.put("createdAt", System.currentTimeMillis());
+        // Merge writes would overwrite it on every login; only the sign-in that created the account sets it
+        if (user.isNewUser()) {
+            userData.put("createdAt", System.currentTimeMillis());
+        }
 
-        firestore.collection("users")
-                .document(user.getUid())
-                .set(userData)
-                .addOnSuccessListener(aVoid -> Log.d(TAG, "User saved to Firestore"))
-                .addOnFailureListener(e -> Log.e(TAG, "Failed to save user: " + e.getMessage()));
+        profileCache.saveProfile(user.getUid(), userData);
     }
 
     /**
      * Save user data to Firestore with name and email
      */
-    private void saveUserToFirestoreWithName(FirebaseUser user, String name, String email) {
+    private void saveUserToFirestoreWithName(AuthUser user, String name, String email) {
         if (user == null)
             return;
 
@@ -290,41 +443,98 @@ public class AuthManager {
         userData.put("lastLogin", System.currentTimeMillis());
         userData.put("createdAt", System.currentTimeMillis());
 
-        firestore.collection("users")
-                .document(user.getUid())
-                .set(userData)
-                .addOnSuccessListener(aVoid -> Log.d(TAG, "User saved to Firestore"))
-                .addOnFailureListener(e -> Log.e(TAG, "Failed to save user: " + e.getMessage()));
+        profileCache.saveProfile(user.getUid(), userData);
+    }
+
+    /**
+     * Get user data from Firestore (served from the profile cache when possible)
+     */
+    public void getUserData(String uid, ProfileStore.ProfileCallback callback) {
+        profileCache.getProfile(uid, new ProfileStore.ProfileCallback() {
+            @Override
+            public void onSuccess(Map<String, Object> data) {
+                AuthExecutors.mainThread().execute(() -> callback.onSuccess(data));
+            }
+
+            @Override
+            public void onError(String message) {
+                AuthExecutors.mainThread().execute(() -> callback.onError(message));
+            }
+        });
+    }
+
+    /**
+     * Profile cache hit/miss/refresh counters
+     */
+    public CachingProfileStore.Stats getProfileCacheStats() {
+        return profileCache.getStats();
+    }
+
+    /**
+     * Switch to another account that signed in earlier on this device, without an OTP or password
+     * Pair with UserSession.switchAccount on success
+     */
+    public AuthRequest<AuthCallback> switchAccount(String uid, AuthCallback callback) {
+        AuthRequest<AuthCallback> request = newRequest(callback);
+        transition(PhoneAuthState::reset);
+        authBackend.switchUser(uid, signInCallback(request));
+        return request;
     }
 
     /**
-     * Get user data from Firestore
+     * Stop keeping an account for switching (e.g. evicted from UserSession)
      */
-    public void getUserData(String uid, OnCompleteListener<DocumentSnapshot> listener) {
-        firestore.collection("users")
-                .document(uid)
-                .get()
-                .addOnCompleteListener(listener);
+    public void forgetAccount(String uid) {
+        authBackend.forgetUser(uid);
     }
 
     /**
-     * Sign out user
+     * Sign out user; other accounts kept for switching are not affected
      */
     public void signOut() {
-        firebaseAuth.signOut();
+        AuthUser user = authBackend.getCurrentUser();
+        authBackend.signOut();
+        if (user != null) {
+            authBackend.forgetUser(user.getUid());
+        }
+        transition(PhoneAuthState::reset);
+        profileCache.clear();
     }
 
     /**
-     * Get verification ID for OTP
+     * Validate the cached session in the background
+     * onError only when the backend rejected the user, who is then signed out;
+     * when the backend is unreachable the cached session is kept and onSuccess is called
      */
-    public String getVerificationId() {
-        return verificationId;
+    public AuthRequest<AuthCallback> validateSession(AuthCallback callback) {
+        AuthRequest<AuthCallback> request = newRequest(callback);
+        authBackend.validateSession(new AuthBackend.SessionCallback() {
+            @Override
+            public void onValid(AuthUser user) {
+                request.finish(cb -> cb.onSuccess(user));
+            }
+
+            @Override
+            public void onInvalid(String message) {
+                Log.w(TAG, "Cached session is no longer valid: " + message);
+                signOut();
+                deliverError(request, message);
+            }
+
+            @Override
+            public void onUnverified(String message) {
+                Log.w(TAG, "Could not validate session, keeping it: " + message);
+                AuthUser user = authBackend.getCurrentUser();
+                request.finish(cb -> cb.onSuccess(user));
+            }
+        });
+        return request;
     }
 
     /**
-     * Set auth callback
+     * Get verification ID for OTP
      */
-    public void setAuthCallback(AuthCallback callback) {
-        this.authCallback = callback;
+    public String getVerificationId() {
+        return phoneState.get().getVerificationId();
     }
 }
@@ -0,0 +1,89 @@
+package com.example.loginmodule.loginAuth;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * AuthRequest - Handle for one in-flight AuthManager operation
+ * Carries its own listener so overlapping flows never receive each other's results.
+ * Events reach the listener through the request's dispatcher (the main thread by default).
+ * The listener is released on completion or cancel, so a finished screen is not kept reachable.
+ */
+public class AuthRequest<L> {
+    private static final int STATE_ACTIVE = 0;
+    private static final int STATE_COMPLETED = 1;
+    private static final int STATE_CANCELLED = 2;
+
+    private final AtomicReference<L> listener;
+    private final AtomicInteger state = new AtomicInteger(STATE_ACTIVE);
+    private final Executor dispatcher;
+
+    AuthRequest(L listener, Executor dispatcher) {
+        this.listener = new AtomicReference<>(listener);
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Stop delivering results for this request and drop the listener
+     */
+    public void cancel() {
+        state.compareAndSet(STATE_ACTIVE, STATE_CANCELLED);
+        // Also drops a final result that was dispatched but has not run yet
+        listener.set(null);
+    }
+
+    /**
+     * Check if the request is still waiting for a result
+     */
+    public boolean isActive() {
+        return state.get() == STATE_ACTIVE;
+    }
+
+    /**
+     * Check if cancel() was called before the request finished
+     */
+    public boolean isCancelled() {
+        return state.get() == STATE_CANCELLED;
+    }
+
+    /**
+     * Deliver an intermediate event; skipped if the request was cancelled or finished
+     */
+    void post(Consumer<L> event) {
+        if (state.get() != STATE_ACTIVE) {
+            return;
+        }
+        dispatcher.execute(() -> {
+            L current = listener.get();
+            if (current != null) {
+                event.accept(current);
+            }
+        });
+    }
+
+    /**
+     * Finish without an event (the flow ended through another request), releasing the listener
+     */
+    void complete() {
+        if (state.compareAndSet(STATE_ACTIVE, STATE_COMPLETED)) {
+            listener.set(null);
+        }
+    }
+
+    /**
+     * Deliver the final event exactly once, then release the listener
+     */
+    void finish(Consumer<L> event) {
+        if (!state.compareAndSet(STATE_ACTIVE, STATE_COMPLETED)) {
+            return;
+        }
+        dispatcher.execute(() -> {
+            L current = listener.getAndSet(null);
+            if (current != null) {
+                event.accept(current);
+            }
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.loginmodule.loginAuth;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.auth.FirebaseUser;
+
+/**
+ * AuthUser - Backend independent snapshot of a signed in user
+ * Lets the login pipeline run without a live FirebaseUser
+ */
+public class AuthUser {
+    private final String uid;
+    private final String phoneNumber;
+    private final String email;
+    private final String displayName;
+    private final boolean newUser;
+
+    public AuthUser(String uid, String phoneNumber, String email, String displayName) {
+        this(uid, phoneNumber, email, displayName, false);
+    }
+
+    /**
+     * newUser: the sign-in that produced this snapshot created the account
+     */
+    public AuthUser(String uid, String phoneNumber, String email, String displayName, boolean newUser) {
+        this.uid = uid;
+        this.phoneNumber = phoneNumber;
+        this.email = email;
+        this.displayName = displayName;
+        this.newUser = newUser;
+    }
+
+    /**
+     * Build from a Firebase user (null safe)
+     */
+    @Nullable
+    public static AuthUser from(@Nullable FirebaseUser user) {
+        return from(user, false);
+    }
+
+    /**
+     * Build from a Firebase user, marking whether its sign-in created the account (null safe)
+     */
+    @Nullable
+    public static AuthUser from(@Nullable FirebaseUser user, boolean newUser) {
+        if (user == null)
+            return null;
+        return new AuthUser(user.getUid(), user.getPhoneNumber(), user.getEmail(), user.getDisplayName(),
+                newUser);
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    @Nullable
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    @Nullable
+    public String getEmail() {
+        return email;
+    }
+
+    @Nullable
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Check if the sign-in that returned this user created the account
+     */
+    public boolean isNewUser() {
+        return newUser;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.loginmodule.loginAuth;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CachingProfileStore - Stale-while-revalidate LRU cache in front of a ProfileStore
+ * Fresh entries are served directly, stale ones are served immediately and refreshed in
+ * the background, expired ones are fetched. Concurrent fetches for one uid share a single
+ * delegate call. Writes go through and update the cached copy. Missing profiles are cached
+ * too, and clear() drops fetches still running so they cannot repopulate the cache.
+ */
+public class CachingProfileStore implements ProfileStore {
+    private static final int DEFAULT_MAX_ENTRIES = 32;
+    private static final long DEFAULT_REFRESH_AFTER_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long DEFAULT_EXPIRE_AFTER_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private final ProfileStore delegate;
+    private final long refreshAfterMs;
+    private final long expireAfterMs;
+
+    // Guarded by this
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<String, List<ProfileCallback>> inFlight = new HashMap<>();
+    private int generation; // bumped by clear(); fetches from an earlier generation are not cached
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static final class Entry {
+        final Map<String, Object> data; // null: the profile does not exist
+        final long loadedAtMs;
+
+        Entry(Map<String, Object> data, long loadedAtMs) {
+            this.data = data;
+            this.loadedAtMs = loadedAtMs;
+        }
+    }
+
+    /**
+     * Counter snapshot for monitoring
+     */
+    public static class Stats {
+        public final long hits;
+        public final long staleHits;
+        public final long misses;
+        public final long refreshes;
+        public final long evictions;
+        public final int size;
+
+        Stats(long hits, long staleHits, long misses, long refreshes, long evictions, int size) {
+            this.hits = hits;
+            this.staleHits = staleHits;
+            this.misses = misses;
+            this.refreshes = refreshes;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + " staleHits=" + staleHits + " misses=" + misses
+                    + " refreshes=" + refreshes + " evictions=" + evictions + " size=" + size;
+        }
+    }
+
+    public CachingProfileStore(ProfileStore delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_REFRESH_AFTER_MS, DEFAULT_EXPIRE_AFTER_MS);
+    }
+
+    /**
+     * @param refreshAfterMs age after which a hit also triggers a background refresh
+     * @param expireAfterMs  age after which a cached profile is no longer served
+     */
+    public CachingProfileStore(ProfileStore delegate, int maxEntries, long refreshAfterMs, long expireAfterMs) {
+        this.delegate = delegate;
+        this.refreshAfterMs = refreshAfterMs;
+        this.expireAfterMs = expireAfterMs;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void getProfile(String uid, ProfileCallback callback) {
+        Entry entry;
+        boolean startFetch;
+        List<ProfileCallback> fetchWaiters = null;
+        int fetchGeneration;
+        synchronized (this) {
+            fetchGeneration = generation;
+            entry = entries.get(uid);
+            long age = entry != null ? nowMs() - entry.loadedAtMs : Long.MAX_VALUE;
+
+            if (age < refreshAfterMs) {
+                hits.incrementAndGet();
+                startFetch = false;
+            } else if (age < expireAfterMs) {
+                staleHits.incrementAndGet();
+                startFetch = !inFlight.containsKey(uid);
+                if (startFetch) {
+                    refreshes.incrementAndGet();
+                    fetchWaiters = new ArrayList<>();
+                    inFlight.put(uid, fetchWaiters);
+                }
+            } else {
+                misses.incrementAndGet();
+                entry = null;
+                List<ProfileCallback> waiters = inFlight.get(uid);
+                startFetch = waiters == null;
+                if (startFetch) {
+                    waiters = new ArrayList<>();
+                    inFlight.put(uid, waiters);
+                    fetchWaiters = waiters;
+                }
+                waiters.add(callback);
+            }
+        }
+
+        if (entry != null) {
+            callback.onSuccess(entry.data);
+        }
+        if (startFetch) {
+            fetch(uid, fetchWaiters, fetchGeneration);
+        }
+    }
+
+    @Override
+    public void saveProfile(String uid, Map<String, Object> data) {
+        applyLocally(uid, data);
+        delegate.saveProfile(uid, data);
+    }
+
+    @Override
+    public void mergeProfiles(Map<String, Map<String, Object>> updates, WriteCallback callback) {
+        for (Map.Entry<String, Map<String, Object>> update : updates.entrySet()) {
+            applyLocally(update.getKey(), update.getValue());
+        }
+        delegate.mergeProfiles(updates, callback);
+    }
+
+    /**
+     * Drop one cached profile
+     */
+    public synchronized void invalidate(String uid) {
+        entries.remove(uid);
+    }
+
+    /**
+     * Drop every cached profile (e.g. on sign out)
+     */
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+        // Running fetches still answer their waiters, but no longer receive new ones
+        inFlight.clear();
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new Stats(hits.get(), staleHits.get(), misses.get(), refreshes.get(), evictions.get(), size);
+    }
+
+    private void fetch(String uid, List<ProfileCallback> waiters, int fetchGeneration) {
+        delegate.getProfile(uid, new ProfileCallback() {
+            @Override
+            public void onSuccess(Map<String, Object> data) {
+                Map<String, Object> snapshot = data != null
+                        ? Collections.unmodifiableMap(new HashMap<>(data)) : null;
+                synchronized (CachingProfileStore.this) {
+                    finish();
+                    // A profile read before clear() belongs to the signed-out user
+                    if (fetchGeneration == generation) {
+                        entries.put(uid, new Entry(snapshot, nowMs()));
+                    }
+                }
+                for (ProfileCallback waiter : waiters) {
+                    waiter.onSuccess(snapshot);
+                }
+            }
+
+            @Override
+            public void onError(String message) {
+                synchronized (CachingProfileStore.this) {
+                    // A failed refresh keeps serving the stale entry until it expires
+                    finish();
+                }
+                for (ProfileCallback waiter : waiters) {
+                    waiter.onError(message);
+                }
+            }
+
+            /**
+             * Stop new callers joining this fetch; called with the lock held
+             */
+            private void finish() {
+                if (inFlight.get(uid) == waiters) {
+                    inFlight.remove(uid);
+                }
+            }
+        });
+    }
+
+    /**
+     * Merge written fields into a cached profile so reads see the write immediately
+     */
+    private synchronized void applyLocally(String uid, Map<String, Object> data) {
+        Entry entry = entries.get(uid);
+        if (entry == null) {
+            return;
+        }
+        if (entry.data == null) {
+            // The write creates the document; read it back rather than guess the rest
+            entries.remove(uid);
+            return;
+        }
+        Map<String, Object> merged = new HashMap<>(entry.data);
+        merged.putAll(data);
+        entries.put(uid, new Entry(Collections.unmodifiableMap(merged), entry.loadedAtMs));
+    }
+
+    private static long nowMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
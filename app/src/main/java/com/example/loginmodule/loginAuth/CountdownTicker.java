@@ -0,0 +1,248 @@
+package com.example.loginmodule.loginAuth;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CountdownTicker - One main-thread callback driving every countdown on screen
+ * Each Countdown holds a deadline on the elapsedRealtime clock and reports whole seconds
+ * remaining, rounded up, only when that number changes. The ticker posts a single callback
+ * for the nearest second boundary of all countdowns, so a late frame never shifts later
+ * ticks. Callbacks stop while no activity is started and catch up when one is.
+ * Call from the main thread.
+ */
+public final class CountdownTicker {
+    private static final long SECOND_MS = 1000;
+    private static final long NOT_SCHEDULED = Long.MIN_VALUE;
+
+    /**
+     * Countdown events, delivered on the main thread
+     */
+    public interface Listener {
+        void onTick(long secondsRemaining);
+
+        void onFinish();
+    }
+
+    /**
+     * One running countdown; cancel() it when its screen goes away
+     */
+    public final class Countdown {
+        private final Listener listener;
+        private final long deadlineMs;
+        private long reportedSeconds = -1;
+        private boolean running = true;
+
+        private Countdown(Listener listener, long deadlineMs) {
+            this.listener = listener;
+            this.deadlineMs = deadlineMs;
+        }
+
+        /**
+         * Whole seconds left, rounded up; 0 once finished or cancelled
+         */
+        public long getSecondsRemaining() {
+            return isRunning() ? secondsUntil(deadlineMs, SystemClock.elapsedRealtime()) : 0;
+        }
+
+        public boolean isRunning() {
+            return running && deadlineMs > SystemClock.elapsedRealtime();
+        }
+
+        /**
+         * Stop without calling onFinish
+         */
+        public void cancel() {
+            if (running) {
+                running = false;
+                countdowns.remove(this);
+                schedule(SystemClock.elapsedRealtime());
+            }
+        }
+    }
+
+    private static CountdownTicker instance;
+
+    private final Handler handler;
+    private final Runnable tick = this::tick;
+    private final List<Countdown> countdowns = new ArrayList<>();
+    private Countdown[] dispatch = new Countdown[4];
+    private long scheduledAtMs = NOT_SCHEDULED;
+
+    // Visibility: until the first onActivityStarted is seen (registered late), assume visible
+    private final Set<Activity> startedActivities = new HashSet<>();
+    private boolean lifecycleSeen;
+
+    CountdownTicker(Handler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Get the shared ticker; the first call starts tracking activity visibility
+     */
+    public static synchronized CountdownTicker getInstance(Context context) {
+        if (instance == null) {
+            instance = new CountdownTicker(new Handler(Looper.getMainLooper()));
+            Context appContext = context.getApplicationContext();
+            if (appContext instanceof Application) {
+                instance.trackVisibility((Application) appContext);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Count down durationMs from now; the first onTick is delivered right away
+     */
+    public Countdown start(long durationMs, Listener listener) {
+        long now = SystemClock.elapsedRealtime();
+        Countdown countdown = new Countdown(listener, now + durationMs);
+        countdowns.add(countdown);
+        if (isVisible()) {
+            deliver(countdown, now);
+        }
+        schedule(now);
+        return countdown;
+    }
+
+    // ==================== Ticking ====================
+
+    private void tick() {
+        scheduledAtMs = NOT_SCHEDULED;
+        long now = SystemClock.elapsedRealtime();
+        deliverAll(now);
+        schedule(now);
+    }
+
+    /**
+     * Report every countdown's current second; listeners may start or cancel countdowns meanwhile
+     */
+    private void deliverAll(long nowMs) {
+        int count = countdowns.size();
+        if (dispatch.length < count) {
+            dispatch = new Countdown[Math.max(count, dispatch.length * 2)];
+        }
+        countdowns.toArray(dispatch);
+        for (int i = 0; i < count; i++) {
+            Countdown countdown = dispatch[i];
+            dispatch[i] = null;
+            if (countdown.running) {
+                deliver(countdown, nowMs);
+            }
+        }
+    }
+
+    private void deliver(Countdown countdown, long nowMs) {
+        if (countdown.deadlineMs <= nowMs) {
+            countdown.running = false;
+            countdowns.remove(countdown);
+            countdown.listener.onFinish();
+            return;
+        }
+        long seconds = secondsUntil(countdown.deadlineMs, nowMs);
+        if (seconds != countdown.reportedSeconds) {
+            countdown.reportedSeconds = seconds;
+            countdown.listener.onTick(seconds);
+        }
+    }
+
+    /**
+     * Post the callback for the nearest second boundary, or drop it if nothing is shown
+     */
+    private void schedule(long nowMs) {
+        if (countdowns.isEmpty() || !isVisible()) {
+            if (scheduledAtMs != NOT_SCHEDULED) {
+                handler.removeCallbacks(tick);
+                scheduledAtMs = NOT_SCHEDULED;
+            }
+            return;
+        }
+        long next = Long.MAX_VALUE;
+        for (int i = 0; i < countdowns.size(); i++) {
+            next = Math.min(next, nextBoundary(countdowns.get(i).deadlineMs, nowMs));
+        }
+        if (next == scheduledAtMs) {
+            return;
+        }
+        handler.removeCallbacks(tick);
+        scheduledAtMs = next;
+        handler.postAtTime(tick, SystemClock.uptimeMillis() + Math.max(0, next - nowMs));
+    }
+
+    /**
+     * Whole seconds until the deadline, rounded up: 60000 ms and 59001 ms both read 60
+     */
+    static long secondsUntil(long deadlineMs, long nowMs) {
+        long remaining = deadlineMs - nowMs;
+        return remaining <= 0 ? 0 : (remaining + SECOND_MS - 1) / SECOND_MS;
+    }
+
+    /**
+     * Time at which secondsUntil(deadlineMs) next changes (the deadline itself for the last second)
+     */
+    static long nextBoundary(long deadlineMs, long nowMs) {
+        long seconds = secondsUntil(deadlineMs, nowMs);
+        return seconds <= 1 ? deadlineMs : deadlineMs - (seconds - 1) * SECOND_MS;
+    }
+
+    // ==================== Visibility ====================
+
+    private boolean isVisible() {
+        return !lifecycleSeen || !startedActivities.isEmpty();
+    }
+
+    private void trackVisibility(Application application) {
+        application.registerActivityLifecycleCallbacks(new Application.ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityStarted(Activity activity) {
+                boolean wasVisible = isVisible();
+                lifecycleSeen = true;
+                startedActivities.add(activity);
+                if (!wasVisible) {
+                    // Back on screen: report where every countdown is now, finishing the expired ones
+                    long now = SystemClock.elapsedRealtime();
+                    deliverAll(now);
+                    schedule(now);
+                }
+            }
+
+            @Override
+            public void onActivityStopped(Activity activity) {
+                lifecycleSeen = true;
+                startedActivities.remove(activity);
+                schedule(SystemClock.elapsedRealtime());
+            }
+
+            @Override
+            public void onActivityDestroyed(Activity activity) {
+                startedActivities.remove(activity);
+            }
+
+            @Override
+            public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            }
+
+            @Override
+            public void onActivityResumed(Activity activity) {
+            }
+
+            @Override
+            public void onActivityPaused(Activity activity) {
+            }
+
+            @Override
+            public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+            }
+        });
+    }
+}
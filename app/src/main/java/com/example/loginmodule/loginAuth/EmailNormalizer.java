@@ -0,0 +1,303 @@
+package com.example.loginmodule.loginAuth;
+
+/**
+ * EmailNormalizer - Single-pass email validation and normalization (no regex)
+ * Accepts exactly what android.util.Patterns.EMAIL_ADDRESS accepts, using a character class
+ * table and a handful of counters instead of a Matcher. parse() also lower-cases the domain
+ * and recognises provider aliases (googlemail.com, dots and +tags in Gmail) so one mailbox
+ * typed several ways maps to one canonical address. Instances are not thread-safe: use forCurrentThread().
+ */
+public final class EmailNormalizer {
+    // Limits of Patterns.EMAIL_ADDRESS: local part {1,256}, first domain label 1 + {0,64}, others 1 + {0,25}
+    private static final int MAX_LOCAL_LENGTH = 256;
+    private static final int MAX_FIRST_LABEL_LENGTH = 65;
+    private static final int MAX_LABEL_LENGTH = 26;
+
+    // Character classes, ASCII only (the regex classes are ASCII)
+    private static final byte ALNUM = 1;
+    private static final byte LOCAL = 2; // allowed in the local part besides ALNUM
+    private static final byte HYPHEN = 4; // allowed inside domain labels besides ALNUM
+    private static final byte[] CLASSES = new byte[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            CLASSES[c] = ALNUM;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            CLASSES[c] = ALNUM;
+            CLASSES[c - 'a' + 'A'] = ALNUM;
+        }
+        CLASSES['+'] = LOCAL;
+        CLASSES['.'] = LOCAL;
+        CLASSES['_'] = LOCAL;
+        CLASSES['%'] = LOCAL;
+        CLASSES['-'] = LOCAL | HYPHEN;
+    }
+
+    /**
+     * How a provider folds addresses onto one mailbox
+     */
+    public static final class Provider {
+        private final String name;
+        private final String canonicalDomain;
+        private final String[] domains;
+        private final boolean ignoresDots;
+        private final char tagSeparator;
+
+        Provider(String name, String canonicalDomain, boolean ignoresDots, char tagSeparator, String... domains) {
+            this.name = name;
+            this.canonicalDomain = canonicalDomain;
+            this.ignoresDots = ignoresDots;
+            this.tagSeparator = tagSeparator;
+            this.domains = domains;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCanonicalDomain() {
+            return canonicalDomain;
+        }
+    }
+
+    private static final char NO_TAG = 0;
+
+    // Domains listed together are one mailbox; Outlook family and Yahoo / Ymail domains are separate accounts
+    private static final Provider[] PROVIDERS = {
+            new Provider("Gmail", "gmail.com", true, '+', "gmail.com", "googlemail.com"),
+            new Provider("iCloud", "icloud.com", false, '+', "icloud.com", "me.com", "mac.com"),
+            new Provider("Proton", "proton.me", false, '+', "proton.me", "protonmail.com", "pm.me"),
+            new Provider("Outlook", "outlook.com", false, '+', "outlook.com"),
+            new Provider("Hotmail", "hotmail.com", false, '+', "hotmail.com"),
+            new Provider("Live", "live.com", false, '+', "live.com"),
+            new Provider("Yahoo", "yahoo.com", false, NO_TAG, "yahoo.com"),
+            new Provider("Ymail", "ymail.com", false, NO_TAG, "ymail.com"),
+    };
+
+    // Most used mailbox domains, most popular first, for completing what follows the '@'
+    public static final String[] COMMON_DOMAINS = {
+            "gmail.com", "yahoo.com", "outlook.com", "hotmail.com", "icloud.com",
+            "rediffmail.com", "yahoo.co.in", "live.com", "proton.me",
+    };
+
+    private static final ThreadLocal<EmailNormalizer> PER_THREAD =
+            ThreadLocal.withInitial(EmailNormalizer::new);
+
+    private char[] output = new char[64];
+    private CharSequence input;
+    private int start;
+    private int at;
+    private int end;
+    private boolean valid;
+    private Provider provider;
+
+    /**
+     * Normalizer owned by the calling thread, for wrappers that may run anywhere
+     */
+    public static EmailNormalizer forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Same answer as Patterns.EMAIL_ADDRESS.matcher(email).matches(), without allocating
+     */
+    public static boolean isValidAddress(CharSequence email) {
+        return email != null && scan(email, 0, email.length()) >= 0;
+    }
+
+    /**
+     * Validate the whole input in one pass; the position of the '@', or -1 if it does not match
+     */
+    private static int scan(CharSequence s, int from, int to) {
+        int i = from;
+        // Local part: [A-Za-z0-9+._%-]{1,256}
+        while (i < to && i - from <= MAX_LOCAL_LENGTH) {
+            char c = s.charAt(i);
+            if (c >= 128 || (CLASSES[c] & (ALNUM | LOCAL)) == 0) {
+                break;
+            }
+            i++;
+        }
+        int localLength = i - from;
+        if (localLength == 0 || localLength > MAX_LOCAL_LENGTH || i == to || s.charAt(i) != '@') {
+            return -1;
+        }
+        int at = i++;
+
+        // Domain: [A-Za-z0-9][A-Za-z0-9-]{0,64} ( \. [A-Za-z0-9][A-Za-z0-9-]{0,25} )+
+        int labels = 0;
+        while (true) {
+            int labelStart = i;
+            if (i == to || !isAlnum(s.charAt(i))) {
+                return -1;
+            }
+            i++;
+            while (i < to) {
+                char c = s.charAt(i);
+                if (c >= 128 || (CLASSES[c] & (ALNUM | HYPHEN)) == 0) {
+                    break;
+                }
+                i++;
+            }
+            int max = labels == 0 ? MAX_FIRST_LABEL_LENGTH : MAX_LABEL_LENGTH;
+            if (i - labelStart > max) {
+                return -1;
+            }
+            labels++;
+            if (i == to) {
+                return labels >= 2 ? at : -1;
+            }
+            if (s.charAt(i) != '.') {
+                return -1;
+            }
+            i++;
+        }
+    }
+
+    private static boolean isAlnum(char c) {
+        return c < 128 && CLASSES[c] == ALNUM;
+    }
+
+    /**
+     * Parse an address as typed (surrounding whitespace ignored). Returns isValid(); the
+     * result stays readable until the next parse
+     */
+    public boolean parse(CharSequence email) {
+        input = email;
+        valid = false;
+        provider = null;
+        if (email == null) {
+            return false;
+        }
+        start = 0;
+        end = email.length();
+        while (start < end && email.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && email.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        at = scan(email, start, end);
+        if (at < 0) {
+            return false;
+        }
+        valid = true;
+        provider = findProvider();
+        // Slack for toCanonical(), whose provider domain may be longer than the one typed
+        if (output.length < end - start + MAX_LABEL_LENGTH) {
+            output = new char[end - start + MAX_LABEL_LENGTH];
+        }
+        return true;
+    }
+
+    private Provider findProvider() {
+        int domainLength = end - at - 1;
+        for (Provider candidate : PROVIDERS) {
+            for (String domain : candidate.domains) {
+                if (domain.length() == domainLength && domainEquals(domain)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean domainEquals(String domain) {
+        for (int i = 0; i < domain.length(); i++) {
+            if (toLowerAscii(input.charAt(at + 1 + i)) != domain.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    // ==================== Results ====================
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Known provider of the last parsed address, or null
+     */
+    public Provider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Check if the last address reaches its mailbox through an alias (other domain, dots or a tag)
+     */
+    public boolean isAlias() {
+        if (!valid || provider == null) {
+            return false;
+        }
+        if (end - at - 1 != provider.canonicalDomain.length() || !domainEquals(provider.canonicalDomain)) {
+            return true;
+        }
+        for (int i = start; i < at; i++) {
+            char c = input.charAt(i);
+            if ((provider.ignoresDots && c == '.') || (provider.tagSeparator != NO_TAG && c == provider.tagSeparator)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Address as entered with the domain lower-cased, or null if the last parse was not valid
+     */
+    public String toNormalized() {
+        if (!valid) {
+            return null;
+        }
+        int size = 0;
+        for (int i = start; i < at; i++) {
+            output[size++] = input.charAt(i);
+        }
+        output[size++] = '@';
+        for (int i = at + 1; i < end; i++) {
+            output[size++] = toLowerAscii(input.charAt(i));
+        }
+        return new String(output, 0, size);
+    }
+
+    /**
+     * Key identifying the mailbox: lower-cased, with the provider's aliases folded away; for
+     * de-duplication only, sign in with toNormalized(). Null if the last parse was not valid
+     */
+    public String toCanonical() {
+        if (!valid) {
+            return null;
+        }
+        boolean ignoresDots = provider != null && provider.ignoresDots;
+        char tagSeparator = provider != null ? provider.tagSeparator : NO_TAG;
+        int size = 0;
+        for (int i = start; i < at; i++) {
+            char c = input.charAt(i);
+            if (tagSeparator != NO_TAG && c == tagSeparator) {
+                break;
+            }
+            if (ignoresDots && c == '.') {
+                continue;
+            }
+            output[size++] = toLowerAscii(c);
+        }
+        output[size++] = '@';
+        if (provider != null) {
+            String domain = provider.canonicalDomain;
+            for (int i = 0; i < domain.length(); i++) {
+                output[size++] = domain.charAt(i);
+            }
+        } else {
+            for (int i = at + 1; i < end; i++) {
+                output[size++] = toLowerAscii(input.charAt(i));
+            }
+        }
+        return new String(output, 0, size);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.loginmodule.loginAuth;
+
+import android.app.Activity;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseException;
+import com.google.firebase.auth.AuthResult;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.auth.PhoneAuthCredential;
+import com.google.firebase.auth.PhoneAuthOptions;
+import com.google.firebase.auth.PhoneAuthProvider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FirebaseAuthBackend - AuthBackend on top of FirebaseAuth
+ * Keeps the resend token per phone number
+ * Every signed in user is also parked in a FirebaseApp of its own, which persists it
+ * independently of the default app, so switchUser is just updateCurrentUser
+ */
+public class FirebaseAuthBackend implements AuthBackend {
+    private static final String TAG = "FirebaseAuthBackend";
+    private static final long OTP_TIMEOUT_SECONDS = 60L;
+    private static final String ACCOUNT_APP_PREFIX = "login-account-";
+
+    private final FirebaseAuth firebaseAuth;
+    private final Map<String, PhoneAuthProvider.ForceResendingToken> resendTokens = new ConcurrentHashMap<>();
+
+    public FirebaseAuthBackend() {
+        this(FirebaseAuth.getInstance());
+    }
+
+    public FirebaseAuthBackend(FirebaseAuth firebaseAuth) {
+        this.firebaseAuth = firebaseAuth;
+        // Covers every way of signing in, including Google sign-in done outside this class
+        firebaseAuth.addAuthStateListener(this::parkCurrentUser);
+    }
+
+    /**
+     * Wraps a Firebase phone credential
+     */
+    private static final class FirebaseCredential implements Credential {
+        final PhoneAuthCredential credential;
+        final String verificationId; // null for an instantly verified credential
+
+        FirebaseCredential(PhoneAuthCredential credential, String verificationId) {
+            this.credential = credential;
+            this.verificationId = verificationId;
+        }
+
+        @Override
+        public String getVerificationId() {
+            return verificationId;
+        }
+    }
+
+    @Override
+    public AuthUser getCurrentUser() {
+        return AuthUser.from(firebaseAuth.getCurrentUser());
+    }
+
+    @Override
+    public void verifyPhoneNumber(Activity activity, String phoneNumber, boolean forceResend,
+            VerificationCallback callback) {
+        PhoneAuthOptions.Builder builder = PhoneAuthOptions.newBuilder(firebaseAuth)
+                .setPhoneNumber(phoneNumber)
+                .setTimeout(OTP_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .setActivity(activity)
+                .setCallbacks(new PhoneAuthProvider.OnVerificationStateChangedCallbacks() {
+                    @Override
+                    public void onVerificationCompleted(@NonNull PhoneAuthCredential credential) {
+                        Log.d(TAG, "Verification completed automatically");
+                        callback.onVerificationCompleted(new FirebaseCredential(credential, null));
+                    }
+
+                    @Override
+                    public void onVerificationFailed(@NonNull FirebaseException e) {
+                        Log.e(TAG, "Verification failed: " + e.getMessage());
+                        callback.onVerificationFailed(e.getMessage());
+                    }
+
+                    @Override
+                    public void onCodeSent(@NonNull String verId,
+                            @NonNull PhoneAuthProvider.ForceResendingToken token) {
+                        Log.d(TAG, "Code sent to " + phoneNumber);
+                        resendTokens.put(phoneNumber, token);
+                        callback.onCodeSent(verId);
+                    }
+                });
+
+        PhoneAuthProvider.ForceResendingToken token = forceResend ? resendTokens.get(phoneNumber) : null;
+        if (token != null) {
+            builder.setForceResendingToken(token);
+        }
+
+        PhoneAuthProvider.verifyPhoneNumber(builder.build());
+    }
+
+    @Override
+    public Credential getPhoneCredential(String verificationId, String code) {
+        return new FirebaseCredential(PhoneAuthProvider.getCredential(verificationId, code), verificationId);
+    }
+
+    @Override
+    public void signInWithCredential(Credential credential, SignInCallback callback) {
+        deliver(firebaseAuth.signInWithCredential(((FirebaseCredential) credential).credential),
+                "Authentication failed", callback);
+    }
+
+    @Override
+    public void signInWithEmail(String email, String password, SignInCallback callback) {
+        deliver(firebaseAuth.signInWithEmailAndPassword(email, password), "Sign in failed", callback);
+    }
+
+    @Override
+    public void createAccountWithEmail(String email, String password, SignInCallback callback) {
+        deliver(firebaseAuth.createUserWithEmailAndPassword(email, password), "Account creation failed",
+                callback);
+    }
+
+    @Override
+    public void validateSession(SessionCallback callback) {
+        FirebaseUser user = firebaseAuth.getCurrentUser();
+        if (user == null) {
+            callback.onInvalid("No signed in user");
+            return;
+        }
+
+        // Served from cache while the token is fresh; refreshed (and checked) once it has expired
+        user.getIdToken(false).addOnCompleteListener(AuthExecutors.background(), task -> {
+            if (task.isSuccessful()) {
+                callback.onValid(AuthUser.from(user));
+                return;
+            }
+            Exception e = task.getException();
+            String message = e != null ? e.getMessage() : "Session check failed";
+            // Auth errors mean the user is gone; network errors and the like prove nothing
+            if (e instanceof FirebaseAuthException) {
+                Log.w(TAG, "Session rejected: " + message);
+                callback.onInvalid(message);
+            } else {
+                callback.onUnverified(message);
+            }
+        });
+    }
+
+    @Override
+    public void switchUser(String uid, SignInCallback callback) {
+        FirebaseUser parked = accountAuth(uid).getCurrentUser();
+        if (parked == null) {
+            callback.onError("Account is no longer signed in on this device");
+            return;
+        }
+
+        firebaseAuth.updateCurrentUser(parked).addOnCompleteListener(AuthExecutors.background(), result -> {
+            if (result.isSuccessful()) {
+                callback.onSuccess(AuthUser.from(firebaseAuth.getCurrentUser()));
+            } else {
+                String error = result.getException() != null ? result.getException().getMessage()
+                        : "Account switch failed";
+                callback.onError(error);
+            }
+        });
+    }
+
+    @Override
+    public void forgetUser(String uid) {
+        // Only an account app that exists is signed out; none is created just to be deleted
+        String name = ACCOUNT_APP_PREFIX + uid;
+        for (FirebaseApp app : FirebaseApp.getApps(firebaseAuth.getApp().getApplicationContext())) {
+            if (name.equals(app.getName())) {
+                FirebaseAuth.getInstance(app).signOut();
+                app.delete();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void signOut() {
+        firebaseAuth.signOut();
+    }
+
+    /**
+     * Keep a copy of the signed in user in its account app; refreshed on every sign-in
+     */
+    private void parkCurrentUser(FirebaseAuth auth) {
+        FirebaseUser user = auth.getCurrentUser();
+        if (user == null) {
+            return;
+        }
+        accountAuth(user.getUid()).updateCurrentUser(user)
+                .addOnFailureListener(AuthExecutors.background(),
+                        e -> Log.w(TAG, "Could not keep account for switching: " + e.getMessage()));
+    }
+
+    /**
+     * FirebaseAuth of the app that holds one account, created on first use
+     */
+    private FirebaseAuth accountAuth(String uid) {
+        String name = ACCOUNT_APP_PREFIX + uid;
+        FirebaseApp app;
+        try {
+            app = FirebaseApp.getInstance(name);
+        } catch (IllegalStateException notCreated) {
+            FirebaseApp main = firebaseAuth.getApp();
+            app = FirebaseApp.initializeApp(main.getApplicationContext(), main.getOptions(), name);
+        }
+        return FirebaseAuth.getInstance(app);
+    }
+
+    private void deliver(Task<AuthResult> task, String fallbackError, SignInCallback callback) {
+        task.addOnCompleteListener(AuthExecutors.background(), result -> {
+            if (result.isSuccessful()) {
+                AuthResult authResult = result.getResult();
+                boolean newUser = authResult != null && authResult.getAdditionalUserInfo() != null
+                        && authResult.getAdditionalUserInfo().isNewUser();
+                callback.onSuccess(AuthUser.from(firebaseAuth.getCurrentUser(), newUser));
+            } else {
+                String error = result.getException() != null ? result.getException().getMessage()
+                        : fallbackError;
+                callback.onError(error);
+            }
+        });
+    }
+}
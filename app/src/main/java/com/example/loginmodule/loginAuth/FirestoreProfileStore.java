@@ -0,0 +1,76 @@
+package com.example.loginmodule.loginAuth;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.Map;
+
+/**
+ * FirestoreProfileStore - ProfileStore backed by the Firestore "users" collection
+ */
+public class FirestoreProfileStore implements ProfileStore {
+    private static final String TAG = "FirestoreProfileStore";
+    private static final String COLLECTION_USERS = "users";
+
+    private final FirebaseFirestore firestore;
+
+    public FirestoreProfileStore() {
+        this(FirebaseFirestore.getInstance());
+    }
+
+    public FirestoreProfileStore(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+    }
+
+    @Override
+    public void saveProfile(String uid, Map<String, Object> data) {
+        firestore.collection(COLLECTION_USERS)
+                .document(uid)
+                .set(data)
+                .addOnSuccessListener(AuthExecutors.background(), aVoid -> Log.d(TAG, "User saved to Firestore"))
+                .addOnFailureListener(AuthExecutors.background(),
+                        e -> Log.e(TAG, "Failed to save user: " + e.getMessage()));
+    }
+
+    @Override
+    public void mergeProfiles(Map<String, Map<String, Object>> updates, WriteCallback callback) {
+        WriteBatch batch = firestore.batch();
+        for (Map.Entry<String, Map<String, Object>> update : updates.entrySet()) {
+            batch.set(firestore.collection(COLLECTION_USERS).document(update.getKey()),
+                    update.getValue(), SetOptions.merge());
+        }
+
+        batch.commit().addOnCompleteListener(AuthExecutors.background(), task -> {
+            if (task.isSuccessful()) {
+                Log.d(TAG, "Merged " + updates.size() + " user profiles");
+                callback.onSuccess();
+            } else {
+                String error = task.getException() != null ? task.getException().getMessage()
+                        : "Failed to save users";
+                Log.e(TAG, "Failed to merge user profiles: " + error);
+                callback.onError(error);
+            }
+        });
+    }
+
+    @Override
+    public void getProfile(String uid, ProfileCallback callback) {
+        firestore.collection(COLLECTION_USERS)
+                .document(uid)
+                .get()
+                .addOnCompleteListener(AuthExecutors.background(), task -> {
+                    if (task.isSuccessful()) {
+                        DocumentSnapshot snapshot = task.getResult();
+                        callback.onSuccess(snapshot != null && snapshot.exists() ? snapshot.getData() : null);
+                    } else {
+                        String error = task.getException() != null ? task.getException().getMessage()
+                                : "Failed to load user";
+                        callback.onError(error);
+                    }
+                });
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.loginmodule.loginAuth;
+
+import android.app.Activity;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * InMemoryAuthBackend - Deterministic fake of Firebase Auth and Firestore profiles
+ * Runs on a plain JVM with configurable latency and failure injection, so the
+ * login pipeline can be load tested without a Firebase project.
+ * Implements both AuthBackend and ProfileStore so one instance can back AuthManager.
+ */
+public class InMemoryAuthBackend implements AuthBackend, ProfileStore {
+    public static final String DEFAULT_OTP_CODE = "123456";
+    public static final String SIMULATED_FAILURE = "Simulated backend failure";
+
+    private final Map<String, AuthUser> phoneUsers = new ConcurrentHashMap<>();
+    private final Map<String, EmailAccount> emailAccounts = new ConcurrentHashMap<>();
+    private final Map<String, String> pendingVerifications = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Object>> profiles = new ConcurrentHashMap<>();
+    private final AtomicReference<AuthUser> currentUser = new AtomicReference<>();
+    private final Map<String, AuthUser> signedInUsers = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+    private final Random random;
+
+    private volatile long latencyMs = 0;
+    private volatile double failureRate = 0;
+    private volatile String otpCode = DEFAULT_OTP_CODE;
+    private volatile boolean autoVerify = false;
+    private ScheduledExecutorService scheduler;
+
+    private static final class EmailAccount {
+        final String password;
+        final AuthUser user;
+
+        EmailAccount(String password, AuthUser user) {
+            this.password = password;
+            this.user = user;
+        }
+    }
+
+    private static final class PhoneCredential implements Credential {
+        final String verificationId;
+        final String code;
+
+        PhoneCredential(String verificationId, String code) {
+            this.verificationId = verificationId;
+            this.code = code;
+        }
+
+        @Override
+        public String getVerificationId() {
+            return verificationId;
+        }
+    }
+
+    public InMemoryAuthBackend() {
+        this(0L);
+    }
+
+    /**
+     * @param seed seed for failure injection, same seed gives the same failure sequence
+     */
+    public InMemoryAuthBackend(long seed) {
+        random = new Random(seed);
+    }
+
+    // ==================== Configuration ====================
+
+    /**
+     * Delay before every callback; 0 delivers synchronously on the calling thread
+     */
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    /**
+     * Probability (0..1) that an operation fails with SIMULATED_FAILURE
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * Code every simulated SMS carries
+     */
+    public void setOtpCode(String otpCode) {
+        this.otpCode = otpCode;
+    }
+
+    /**
+     * Retrieve the SMS automatically: onVerificationCompleted follows onCodeSent after one more
+     * latency period, like Play Services auto-retrieval racing a code the user types
+     */
+    public void setAutoVerify(boolean autoVerify) {
+        this.autoVerify = autoVerify;
+    }
+
+    /**
+     * Stop the latency scheduler and drop all state
+     */
+    public synchronized void reset() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        phoneUsers.clear();
+        emailAccounts.clear();
+        pendingVerifications.clear();
+        profiles.clear();
+        currentUser.set(null);
+        signedInUsers.clear();
+    }
+
+    // ==================== AuthBackend ====================
+
+    @Override
+    public AuthUser getCurrentUser() {
+        return currentUser.get();
+    }
+
+    @Override
+    public void verifyPhoneNumber(Activity activity, String phoneNumber, boolean forceResend,
+            VerificationCallback callback) {
+        deliver(() -> {
+            String verificationId = "verification-" + idSequence.incrementAndGet();
+            pendingVerifications.put(verificationId, phoneNumber);
+            callback.onCodeSent(verificationId);
+            if (autoVerify) {
+                // A missed retrieval just leaves the typed code
+                deliver(() -> callback.onVerificationCompleted(new PhoneCredential(verificationId, otpCode)),
+                        () -> {
+                        });
+            }
+        }, () -> callback.onVerificationFailed(SIMULATED_FAILURE));
+    }
+
+    @Override
+    public Credential getPhoneCredential(String verificationId, String code) {
+        return new PhoneCredential(verificationId, code);
+    }
+
+    @Override
+    public void signInWithCredential(Credential credential, SignInCallback callback) {
+        PhoneCredential phoneCredential = (PhoneCredential) credential;
+        deliver(() -> {
+            String phone = pendingVerifications.get(phoneCredential.verificationId);
+            if (phone == null) {
+                callback.onError("Invalid verification ID");
+                return;
+            }
+            if (!otpCode.equals(phoneCredential.code)) {
+                callback.onError("Invalid verification code");
+                return;
+            }
+            pendingVerifications.remove(phoneCredential.verificationId);
+            boolean[] created = new boolean[1];
+            AuthUser user = phoneUsers.computeIfAbsent(phone, p -> {
+                created[0] = true;
+                return new AuthUser(nextUid(), p, null, null);
+            });
+            signIn(user);
+            // Like Firebase's AdditionalUserInfo.isNewUser: only the sign-in that created the account
+            callback.onSuccess(created[0] ? new AuthUser(user.getUid(), phone, null, null, true) : user);
+        }, () -> callback.onError(SIMULATED_FAILURE));
+    }
+
+    @Override
+    public void signInWithEmail(String email, String password, SignInCallback callback) {
+        deliver(() -> {
+            EmailAccount account = emailAccounts.get(email);
+            if (account == null || !account.password.equals(password)) {
+                callback.onError("Invalid email or password");
+                return;
+            }
+            signIn(account.user);
+            callback.onSuccess(account.user);
+        }, () -> callback.onError(SIMULATED_FAILURE));
+    }
+
+    @Override
+    public void createAccountWithEmail(String email, String password, SignInCallback callback) {
+        deliver(() -> {
+            EmailAccount account = new EmailAccount(password, new AuthUser(nextUid(), null, email, null));
+            if (emailAccounts.putIfAbsent(email, account) != null) {
+                callback.onError("The email address is already in use by another account.");
+                return;
+            }
+            signIn(account.user);
+            callback.onSuccess(new AuthUser(account.user.getUid(), null, email, null, true));
+        }, () -> callback.onError(SIMULATED_FAILURE));
+    }
+
+    @Override
+    public void validateSession(SessionCallback callback) {
+        deliver(() -> {
+            AuthUser user = currentUser.get();
+            if (user != null) {
+                callback.onValid(user);
+            } else {
+                callback.onInvalid("No signed in user");
+            }
+        }, () -> callback.onUnverified(SIMULATED_FAILURE));
+    }
+
+    @Override
+    public void switchUser(String uid, SignInCallback callback) {
+        deliver(() -> {
+            AuthUser user = signedInUsers.get(uid);
+            if (user == null) {
+                callback.onError("Account is no longer signed in on this device");
+                return;
+            }
+            currentUser.set(user);
+            callback.onSuccess(user);
+        }, () -> callback.onError(SIMULATED_FAILURE));
+    }
+
+    @Override
+    public void forgetUser(String uid) {
+        signedInUsers.remove(uid);
+    }
+
+    @Override
+    public void signOut() {
+        currentUser.set(null);
+    }
+
+    // ==================== ProfileStore ====================
+
+    @Override
+    public void saveProfile(String uid, Map<String, Object> data) {
+        deliver(() -> profiles.put(uid, new HashMap<>(data)), () -> {
+        });
+    }
+
+    @Override
+    public void mergeProfiles(Map<String, Map<String, Object>> updates, WriteCallback callback) {
+        deliver(() -> {
+            for (Map.Entry<String, Map<String, Object>> update : updates.entrySet()) {
+                profiles.compute(update.getKey(), (uid, current) -> {
+                    Map<String, Object> merged = current != null ? new HashMap<>(current) : new HashMap<>();
+                    merged.putAll(update.getValue());
+                    return merged;
+                });
+            }
+            callback.onSuccess();
+        }, () -> callback.onError(SIMULATED_FAILURE));
+    }
+
+    @Override
+    public void getProfile(String uid, ProfileCallback callback) {
+        deliver(() -> {
+            Map<String, Object> data = profiles.get(uid);
+            callback.onSuccess(data != null ? new HashMap<>(data) : null);
+        }, () -> callback.onError(SIMULATED_FAILURE));
+    }
+
+    // ==================== Internals ====================
+
+    private void signIn(AuthUser user) {
+        currentUser.set(user);
+        signedInUsers.put(user.getUid(), user);
+    }
+
+    private String nextUid() {
+        return "uid-" + idSequence.incrementAndGet();
+    }
+
+    private void deliver(Runnable onSuccess, Runnable onFailure) {
+        Runnable outcome = failureRate > 0 && random.nextDouble() < failureRate ? onFailure : onSuccess;
+        long delay = latencyMs;
+        if (delay <= 0) {
+            outcome.run();
+        } else {
+            getScheduler().schedule(outcome, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newScheduledThreadPool(2, r -> {
+                Thread thread = new Thread(r, "InMemoryAuthBackend");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.loginmodule.loginAuth;
+
+import android.os.Build;
+import android.os.Trace;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * LoginTracer - Per-stage login latency tracing
+ * Records monotonic begin/end timestamps for each login stage, keeps a LatencyHistogram per
+ * stage and login type, and mirrors stages as android.os.Trace async sections.
+ * Begins are keyed by a flow token from newFlow(), so overlapping logins of the same type
+ * (a retry, an account switch) never end each other's stages.
+ * Disabled by default; when disabled every call is a single volatile read.
+ */
+public final class LoginTracer {
+
+    public enum LoginType {
+        PHONE,
+        EMAIL,
+        GOOGLE
+    }
+
+    public enum Stage {
+        /** sendOtp -> onCodeSent */
+        SEND_OTP("login:sendOtp"),
+        /** SMS Retriever started -> SMS received */
+        SMS_RETRIEVAL("login:smsRetrieval"),
+        /** SMS received -> OTP auto-filled and verify started */
+        AUTOFILL("login:autofill"),
+        /** credential / password submitted -> backend sign-in complete */
+        SIGN_IN("login:signIn"),
+        /** sign-in result delivered to the screen -> navigateToMain */
+        PROFILE_TO_MAIN("login:profileToMain"),
+        /** user starts the login -> navigateToMain */
+        TOTAL("login:total");
+
+        final String sectionName;
+
+        Stage(String sectionName) {
+            this.sectionName = sectionName;
+        }
+    }
+
+    /** Token handed out while tracing is disabled */
+    public static final long NO_FLOW = 0;
+
+    private static final int TYPES = LoginType.values().length;
+    private static final int STAGES = Stage.values().length;
+    // Flows that never end (screen killed mid-login) are dropped oldest first beyond this
+    private static final int MAX_IN_FLIGHT = 64;
+
+    private static volatile boolean enabled = false;
+
+    private static final AtomicLong flowIds = new AtomicLong();
+    // Begin timestamps of in-flight stages, keyed by flow * TYPES * STAGES + slot
+    private static final Map<Long, Long> beginNanos = new ConcurrentHashMap<>();
+    private static final AtomicReferenceArray<LatencyHistogram> histograms =
+            new AtomicReferenceArray<>(TYPES * STAGES);
+
+    private LoginTracer() {
+    }
+
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Token for one login attempt; pass it to every begin / end / cancel of that attempt
+     */
+    public static long newFlow() {
+        return enabled ? flowIds.incrementAndGet() : NO_FLOW;
+    }
+
+    /**
+     * Mark the start of a stage in a flow; a second begin restarts it
+     */
+    public static void begin(long flow, LoginType type, Stage stage) {
+        if (!enabled) {
+            return;
+        }
+        long key = key(flow, type, stage);
+        if (beginNanos.size() >= MAX_IN_FLIGHT) {
+            dropOldest();
+        }
+        if (beginNanos.put(key, System.nanoTime()) != null) {
+            endTraceSection(stage, key);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(stage.sectionName, cookie(key));
+        }
+    }
+
+    /**
+     * Mark the end of a flow's stage and record its duration; ignored if that flow did not begin it
+     */
+    public static void end(long flow, LoginType type, Stage stage) {
+        if (!enabled) {
+            return;
+        }
+        long key = key(flow, type, stage);
+        Long start = beginNanos.remove(key);
+        if (start == null) {
+            return;
+        }
+        endTraceSection(stage, key);
+        histogram(slot(type, stage)).recordNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Forget a flow's in-flight stage without recording it (e.g. the user went back)
+     */
+    public static void cancel(long flow, LoginType type, Stage stage) {
+        if (!enabled) {
+            return;
+        }
+        long key = key(flow, type, stage);
+        if (beginNanos.remove(key) != null) {
+            endTraceSection(stage, key);
+        }
+    }
+
+    /**
+     * Histogram for one stage and login type
+     */
+    public static LatencyHistogram getHistogram(LoginType type, Stage stage) {
+        return histogram(slot(type, stage));
+    }
+
+    /**
+     * Percentile table of every stage that has samples
+     */
+    public static String dumpPercentiles() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.US, "%-7s %-16s %7s %9s %9s %9s %9s%n",
+                "type", "stage", "count", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (LoginType type : LoginType.values()) {
+            for (Stage stage : Stage.values()) {
+                LatencyHistogram histogram = histograms.get(slot(type, stage));
+                if (histogram == null || histogram.getCount() == 0) {
+                    continue;
+                }
+                out.append(String.format(Locale.US, "%-7s %-16s %7d %9.1f %9.1f %9.1f %9.1f%n",
+                        type, stage, histogram.getCount(),
+                        histogram.getPercentileMillis(50),
+                        histogram.getPercentileMillis(90),
+                        histogram.getPercentileMillis(99),
+                        histogram.getMaxMillis()));
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Drop all samples and in-flight stages
+     */
+    public static void reset() {
+        beginNanos.clear();
+        for (int i = 0; i < TYPES * STAGES; i++) {
+            LatencyHistogram histogram = histograms.get(i);
+            if (histogram != null) {
+                histogram.reset();
+            }
+        }
+    }
+
+    private static int slot(LoginType type, Stage stage) {
+        return type.ordinal() * STAGES + stage.ordinal();
+    }
+
+    private static long key(long flow, LoginType type, Stage stage) {
+        return flow * TYPES * STAGES + slot(type, stage);
+    }
+
+    /**
+     * Async sections of one name need distinct cookies while they overlap
+     */
+    private static int cookie(long key) {
+        return (int) key;
+    }
+
+    private static void dropOldest() {
+        Map.Entry<Long, Long> oldest = null;
+        for (Map.Entry<Long, Long> entry : beginNanos.entrySet()) {
+            if (oldest == null || entry.getValue() - oldest.getValue() < 0) {
+                oldest = entry;
+            }
+        }
+        if (oldest != null && beginNanos.remove(oldest.getKey()) != null) {
+            endTraceSection(Stage.values()[(int) (oldest.getKey() % STAGES)], oldest.getKey());
+        }
+    }
+
+    private static LatencyHistogram histogram(int slot) {
+        LatencyHistogram histogram = histograms.get(slot);
+        if (histogram == null) {
+            histograms.compareAndSet(slot, null, new LatencyHistogram());
+            histogram = histograms.get(slot);
+        }
+        return histogram;
+    }
+
+    private static void endTraceSection(Stage stage, long key) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(stage.sectionName, cookie(key));
+        }
+    }
+}
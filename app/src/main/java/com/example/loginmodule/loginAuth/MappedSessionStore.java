@@ -0,0 +1,281 @@
+package com.example.loginmodule.loginAuth;
+
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MappedSessionStore - Append-only session log in a small memory-mapped file
+ * Opening replays a few hundred bytes of records into a map (no XML parse), and each
+ * apply appends only the changed keys, then bumps the committed length in the header,
+ * so a batch is all-or-nothing. When the log fills up it is compacted into a fresh file
+ * holding only live entries.
+ */
+public class MappedSessionStore implements SessionStore {
+    private static final String TAG = "MappedSessionStore";
+    private static final int MAGIC = 0x4C4D5353; // "LMSS"
+    private static final int VERSION = 1;
+    private static final int END_OFFSET = 8;
+    private static final int HEADER_SIZE = 12;   // magic, version, committed end
+    private static final int MIN_FILE_SIZE = 4096;
+
+    private static final byte OP_STRING = 1;
+    private static final byte OP_LONG = 2;
+    private static final byte OP_BOOLEAN = 3;
+    private static final byte OP_REMOVE = 4;
+    private static final byte OP_CLEAR = 5;
+    private static final byte OP_BYTES = 6;
+
+    private final File file;
+
+    // Guarded by this
+    private final Map<String, Object> values = new HashMap<>();
+    private MappedByteBuffer buffer;
+    private int end;
+
+    public MappedSessionStore(File file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    @Override
+    public synchronized String getString(String key, String defaultValue) {
+        Object value = values.get(key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    @Override
+    public synchronized long getLong(String key, long defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+
+    @Override
+    public synchronized boolean getBoolean(String key, boolean defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    @Override
+    public synchronized byte[] getBytes(String key) {
+        Object value = values.get(key);
+        return value instanceof byte[] ? ((byte[]) value).clone() : null;
+    }
+
+    @Override
+    public synchronized Map<String, Object> getAll() {
+        return new HashMap<>(values);
+    }
+
+    @Override
+    public synchronized void apply(Map<String, Object> updates, boolean clearFirst) {
+        byte[] batch = encode(updates, clearFirst);
+
+        if (clearFirst) {
+            values.clear();
+        }
+        for (Map.Entry<String, Object> entry : updates.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                values.remove(entry.getKey());
+            } else {
+                values.put(entry.getKey(), value instanceof byte[] ? ((byte[]) value).clone() : value);
+            }
+        }
+
+        try {
+            if (buffer == null || end + batch.length > buffer.capacity()) {
+                rewrite();
+            } else {
+                buffer.position(end);
+                buffer.put(batch);
+                end += batch.length;
+                // Commit point: records past the old end only count once this is written
+                buffer.putInt(END_OFFSET, end);
+            }
+        } catch (IOException e) {
+            // Keep serving the in-memory values; the next apply retries through a rewrite
+            Log.e(TAG, "Failed to persist session: " + e.getMessage());
+            buffer = null;
+        }
+    }
+
+    @Override
+    public synchronized void compact() {
+        try {
+            rewrite();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to compact session: " + e.getMessage());
+            buffer = null;
+        }
+    }
+
+    /**
+     * Size of the committed log in bytes, header included
+     */
+    public synchronized int getLogSize() {
+        return end;
+    }
+
+    // ==================== File ====================
+
+    private void open() throws IOException {
+        boolean fresh;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long length = raf.length();
+            fresh = length < HEADER_SIZE;
+            if (fresh) {
+                length = MIN_FILE_SIZE;
+                raf.setLength(length);
+            }
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+
+        int committed = fresh ? 0 : buffer.getInt(END_OFFSET);
+        if (fresh || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || committed < HEADER_SIZE || committed > buffer.capacity()) {
+            if (!fresh) {
+                Log.w(TAG, "Unreadable session file, starting empty");
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(END_OFFSET, HEADER_SIZE);
+            end = HEADER_SIZE;
+            return;
+        }
+
+        byte[] log = new byte[committed - HEADER_SIZE];
+        buffer.position(HEADER_SIZE);
+        buffer.get(log);
+        end = HEADER_SIZE + replay(log);
+        if (end != committed) {
+            buffer.putInt(END_OFFSET, end);
+        }
+    }
+
+    /**
+     * Apply every complete record to the map; returns the length of the readable prefix
+     */
+    private int replay(byte[] log) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(log));
+        int good = 0;
+        try {
+            while (good < log.length) {
+                byte op = in.readByte();
+                if (op == OP_CLEAR) {
+                    values.clear();
+                } else {
+                    String key = in.readUTF();
+                    switch (op) {
+                        case OP_STRING:
+                            values.put(key, in.readUTF());
+                            break;
+                        case OP_LONG:
+                            values.put(key, in.readLong());
+                            break;
+                        case OP_BOOLEAN:
+                            values.put(key, in.readBoolean());
+                            break;
+                        case OP_BYTES:
+                            byte[] bytes = new byte[in.readInt()];
+                            in.readFully(bytes);
+                            values.put(key, bytes);
+                            break;
+                        case OP_REMOVE:
+                            values.remove(key);
+                            break;
+                        default:
+                            throw new IOException("Unknown op " + op);
+                    }
+                }
+                good = log.length - in.available();
+            }
+        } catch (EOFException e) {
+            Log.w(TAG, "Truncated session record at " + good);
+        } catch (IOException e) {
+            Log.w(TAG, "Corrupt session record at " + good + ": " + e.getMessage());
+        }
+        return good;
+    }
+
+    /**
+     * Rewrite only the live entries into a new file and swap it in
+     */
+    private void rewrite() throws IOException {
+        byte[] live = encode(values, false);
+        int size = MIN_FILE_SIZE;
+        while (size < (HEADER_SIZE + live.length) * 2) {
+            size <<= 1;
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        MappedByteBuffer next;
+        try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw")) {
+            raf.setLength(size);
+            next = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        next.putInt(0, MAGIC);
+        next.putInt(4, VERSION);
+        next.position(HEADER_SIZE);
+        next.put(live);
+        next.putInt(END_OFFSET, HEADER_SIZE + live.length);
+        next.force();
+
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+        buffer = next;
+        end = HEADER_SIZE + live.length;
+    }
+
+    private static byte[] encode(Map<String, Object> updates, boolean clearFirst) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (clearFirst) {
+                out.writeByte(OP_CLEAR);
+            }
+            for (Map.Entry<String, Object> entry : updates.entrySet()) {
+                Object value = entry.getValue();
+                if (value == null) {
+                    out.writeByte(OP_REMOVE);
+                    out.writeUTF(entry.getKey());
+                } else if (value instanceof String) {
+                    out.writeByte(OP_STRING);
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF((String) value);
+                } else if (value instanceof Long) {
+                    out.writeByte(OP_LONG);
+                    out.writeUTF(entry.getKey());
+                    out.writeLong((Long) value);
+                } else if (value instanceof Boolean) {
+                    out.writeByte(OP_BOOLEAN);
+                    out.writeUTF(entry.getKey());
+                    out.writeBoolean((Boolean) value);
+                } else if (value instanceof byte[]) {
+                    out.writeByte(OP_BYTES);
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(((byte[]) value).length);
+                    out.write((byte[]) value);
+                } else {
+                    throw new IllegalArgumentException(
+                            "Unsupported session value for " + entry.getKey() + ": " + value);
+                }
+            }
+        } catch (IOException e) {
+            // Only a string over 64KB gets here
+            throw new IllegalArgumentException("Session value too large", e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,443 @@
+package com.example.loginmodule.loginAuth;
+
+/**
+ * OtpExtractor - Single-pass, regex-free OTP extraction from SMS text
+ * Splits the message into words and digit runs once and rates every run of the expected
+ * length against fixed templates, best first: a keyword before it ("OTP is 123456"), a keyword
+ * after it ("123456 is your code"), a bare "is" before it, then a bare run. Runs that read as
+ * amounts, times, dates, phone numbers or alphanumeric references are skipped, digits of any
+ * script are returned as ASCII, and a trailing SMS Retriever app hash is never read as a code.
+ * Instances are not thread-safe.
+ */
+public final class OtpExtractor {
+    public static final int MIN_LENGTH = 4;
+    public static final int MAX_LENGTH = 8;
+    public static final int ANY_LENGTH = 0;
+
+    // SMS Retriever messages end with the 11 character app hash
+    static final int APP_HASH_LENGTH = 11;
+    // Words allowed between a keyword and its code ("code for Acme Bank login is 123456")
+    static final int MAX_KEYWORD_GAP = 6;
+
+    // Templates, best first
+    static final int KEYWORD_BEFORE = 0;
+    static final int KEYWORD_AFTER = 1;
+    static final int CONNECTOR_BEFORE = 2;
+    static final int BARE = 3;
+
+    private static final int NONE = -1;
+
+    // Word kinds
+    private static final int OTHER = 0;
+    private static final int KEYWORD = 1;
+    private static final int CONNECTOR = 2;
+    private static final int CURRENCY = 3;
+
+    // Whole-word keywords, lower case
+    private static final String[] KEYWORDS = {
+            "otp", "code", "passcode", "password", "pin", "mpin", "verification", "token", "tac",
+            "código", "codigo", "kode", "код", "кода", "رمز", "ओटीपी", "कोड",
+    };
+    // Keywords of scripts written without spaces, matched anywhere in a word
+    private static final String[] CONTAINED_KEYWORDS = {
+            "验证码", "驗證碼", "校验码", "动态码", "認証コード", "確認コード", "인증번호",
+    };
+    private static final String[] CONNECTORS = { "is", "es", "ist", "est", "adalah" };
+    private static final String[] CURRENCIES = { "rs", "inr", "usd", "eur", "gbp", "aed", "sar", "rp", "idr", "rub" };
+
+    // Open-addressed table of the words above by their lower-case hash, so a word is one probe
+    private static final int TABLE_SIZE = 64;
+    private static final String[] TABLE_WORDS = new String[TABLE_SIZE];
+    private static final int[] TABLE_HASHES = new int[TABLE_SIZE];
+    private static final byte[] TABLE_KINDS = new byte[TABLE_SIZE];
+
+    static {
+        put(KEYWORDS, KEYWORD);
+        put(CONNECTORS, CONNECTOR);
+        put(CURRENCIES, CURRENCY);
+    }
+
+    private static void put(String[] words, int kind) {
+        for (String word : words) {
+            int hash = 0;
+            for (int i = 0; i < word.length(); i++) {
+                hash = 31 * hash + word.charAt(i);
+            }
+            int slot = hash & (TABLE_SIZE - 1);
+            while (TABLE_WORDS[slot] != null) {
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            TABLE_WORDS[slot] = word;
+            TABLE_HASHES[slot] = hash;
+            TABLE_KINDS[slot] = (byte) kind;
+        }
+    }
+
+    private final int expectedLength;
+    private final int groupLength; // digits per half of a "123 456" / "123-456" code, or NONE
+    private String appHash;
+    private final char[] digits = new char[MAX_LENGTH];
+
+    // Best candidate of the current extract()
+    private int bestStart;
+    private int bestEnd;
+    private int bestTemplate;
+    private int bestGap;
+
+    /**
+     * Extractor for codes of exactly expectedLength digits, or ANY_LENGTH for MIN_LENGTH to MAX_LENGTH
+     */
+    public OtpExtractor(int expectedLength) {
+        if (expectedLength != ANY_LENGTH && (expectedLength < MIN_LENGTH || expectedLength > MAX_LENGTH)) {
+            throw new IllegalArgumentException("OTP length out of range: " + expectedLength);
+        }
+        this.expectedLength = expectedLength;
+        if (expectedLength == ANY_LENGTH) {
+            groupLength = 3;
+        } else {
+            groupLength = expectedLength % 2 == 0 ? expectedLength / 2 : NONE;
+        }
+    }
+
+    public int getExpectedLength() {
+        return expectedLength;
+    }
+
+    /**
+     * App hash the messages end with; null recognises any hash-shaped last word
+     */
+    public void setAppHash(String appHash) {
+        this.appHash = appHash;
+    }
+
+    /**
+     * Most likely OTP in the message as ASCII digits, or null if there is none
+     */
+    public String extract(CharSequence message) {
+        if (message == null) {
+            return null;
+        }
+        int end = bodyEnd(message);
+        bestStart = NONE;
+
+        int token = 0; // index of the current word / digit run
+        int keywordToken = NONE;
+        int connectorToken = NONE;
+        int currencyToken = NONE;
+        // The last run stays pending until the next word shows whether a keyword or currency follows it
+        int pendingStart = NONE;
+        int pendingEnd = 0;
+        int pendingToken = 0;
+        int pendingTemplate = BARE;
+        int pendingGap = 0;
+
+        int i = 0;
+        while (i < end) {
+            char c = message.charAt(i);
+            if (isDigit(c)) {
+                int runStart = i;
+                while (i < end && isDigit(message.charAt(i))) {
+                    i++;
+                }
+                int count = i - runStart;
+                if (count == groupLength && isGroupedTail(message, i, end)) {
+                    i += 1 + groupLength;
+                    count += groupLength;
+                }
+                if (pendingStart != NONE) {
+                    offer(pendingStart, pendingEnd, pendingTemplate, pendingGap);
+                    pendingStart = NONE;
+                }
+                if (acceptsLength(count) && (currencyToken == NONE || currencyToken < token - 1)
+                        && isDelimited(message, runStart, i, end)) {
+                    pendingStart = runStart;
+                    pendingEnd = i;
+                    pendingToken = token;
+                    pendingGap = 0;
+                    if (keywordToken != NONE && token - keywordToken - 1 <= MAX_KEYWORD_GAP) {
+                        pendingTemplate = KEYWORD_BEFORE;
+                        pendingGap = token - keywordToken - 1;
+                    } else if (connectorToken != NONE && connectorToken == token - 1) {
+                        pendingTemplate = CONNECTOR_BEFORE;
+                    } else {
+                        pendingTemplate = BARE;
+                    }
+                }
+                token++;
+            } else if (isWordChar(c) || isCurrencySymbol(c)) {
+                int wordStart = i;
+                int kind;
+                if (isCurrencySymbol(c)) {
+                    i++;
+                    kind = CURRENCY;
+                } else {
+                    int hash = 0;
+                    while (i < end && isWordChar(message.charAt(i))) {
+                        hash = 31 * hash + toLower(message.charAt(i));
+                        i++;
+                    }
+                    kind = classify(message, wordStart, i, hash);
+                }
+                if (kind == KEYWORD) {
+                    if (pendingStart != NONE && token - pendingToken - 1 <= MAX_KEYWORD_GAP) {
+                        if (pendingTemplate > KEYWORD_AFTER) {
+                            pendingTemplate = KEYWORD_AFTER;
+                            pendingGap = token - pendingToken - 1;
+                        }
+                        offer(pendingStart, pendingEnd, pendingTemplate, pendingGap);
+                        pendingStart = NONE;
+                    }
+                    keywordToken = token;
+                } else if (kind == CONNECTOR) {
+                    connectorToken = token;
+                } else if (kind == CURRENCY) {
+                    // "1500 INR" is an amount, not a code
+                    if (pendingStart != NONE && pendingToken == token - 1) {
+                        pendingStart = NONE;
+                    }
+                    currencyToken = token;
+                }
+                token++;
+            } else {
+                if (isSentenceEnd(message, i, end)) {
+                    // Keywords do not reach across sentences
+                    if (pendingStart != NONE) {
+                        offer(pendingStart, pendingEnd, pendingTemplate, pendingGap);
+                        pendingStart = NONE;
+                    }
+                    keywordToken = NONE;
+                    connectorToken = NONE;
+                }
+                i++;
+            }
+        }
+        if (pendingStart != NONE) {
+            offer(pendingStart, pendingEnd, pendingTemplate, pendingGap);
+        }
+        return bestStart == NONE ? null : digitsOf(message, bestStart, bestEnd);
+    }
+
+    /**
+     * Template of the code extract() returned last, KEYWORD_BEFORE to BARE; NONE if there was none
+     */
+    int getLastTemplate() {
+        return bestStart == NONE ? NONE : bestTemplate;
+    }
+
+    private void offer(int start, int end, int template, int gap) {
+        // Earlier candidates win ties
+        if (bestStart == NONE || template < bestTemplate || (template == bestTemplate && gap < bestGap)) {
+            bestStart = start;
+            bestEnd = end;
+            bestTemplate = template;
+            bestGap = gap;
+        }
+    }
+
+    private boolean acceptsLength(int count) {
+        return expectedLength == ANY_LENGTH ? count >= MIN_LENGTH && count <= MAX_LENGTH : count == expectedLength;
+    }
+
+    private String digitsOf(CharSequence message, int start, int end) {
+        int size = 0;
+        for (int i = start; i < end && size < digits.length; i++) {
+            int digit = Character.digit(message.charAt(i), 10);
+            if (digit >= 0) {
+                digits[size++] = (char) ('0' + digit);
+            }
+        }
+        return new String(digits, 0, size);
+    }
+
+    // ==================== Scanning ====================
+
+    /**
+     * End of the text to scan: the message without trailing whitespace and app hash
+     */
+    private int bodyEnd(CharSequence message) {
+        int end = message.length();
+        while (end > 0 && message.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && message.charAt(start - 1) > ' ') {
+            start--;
+        }
+        if (start > 0 && end - start == APP_HASH_LENGTH && isAppHash(message, start, end)) {
+            return start;
+        }
+        return end;
+    }
+
+    private boolean isAppHash(CharSequence message, int start, int end) {
+        if (appHash != null) {
+            for (int i = start; i < end; i++) {
+                if (i - start >= appHash.length() || message.charAt(i) != appHash.charAt(i - start)) {
+                    return false;
+                }
+            }
+            return appHash.length() == end - start;
+        }
+        // Base64, and not a plain word: a digit, '+', '/' or an inner capital
+        boolean mixed = false;
+        for (int i = start; i < end; i++) {
+            char c = message.charAt(i);
+            if (c >= '0' && c <= '9' || c == '+' || c == '/' || (i > start && c >= 'A' && c <= 'Z')) {
+                mixed = true;
+            } else if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return mixed;
+    }
+
+    /**
+     * Check if a single ' ' or '-' at position joins the run to a second group of groupLength digits
+     */
+    private boolean isGroupedTail(CharSequence message, int position, int end) {
+        int tailEnd = position + 1 + groupLength;
+        if (tailEnd > end) {
+            return false;
+        }
+        char separator = message.charAt(position);
+        if (separator != ' ' && separator != '-') {
+            return false;
+        }
+        for (int i = position + 1; i < tailEnd; i++) {
+            if (!isDigit(message.charAt(i))) {
+                return false;
+            }
+        }
+        return tailEnd == end || !isDigit(message.charAt(tailEnd));
+    }
+
+    /**
+     * Check if the run stands alone: not glued to Latin letters, not part of a number such
+     * as 1,250.00 / 10:30 / 12/05/2024 / 1800-208-1234, not a percentage, reference or phone number
+     */
+    private static boolean isDelimited(CharSequence message, int start, int end, int bodyEnd) {
+        if (start > 0) {
+            char before = message.charAt(start - 1);
+            if (isLatinLetter(before) || before == '+' || before == '*' || before == '#') {
+                return false;
+            }
+            if (isNumberSeparator(before) && start > 1 && isDigit(message.charAt(start - 2))) {
+                return false;
+            }
+        }
+        if (end < bodyEnd) {
+            char after = message.charAt(end);
+            if (isLatinLetter(after) || after == '%') {
+                return false;
+            }
+            if (isNumberSeparator(after) && end + 1 < bodyEnd && isDigit(message.charAt(end + 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSentenceEnd(CharSequence message, int position, int end) {
+        char c = message.charAt(position);
+        if (c == '。' || c == '।') {
+            return true;
+        }
+        if (c != '.' && c != '!' && c != '?') {
+            return false;
+        }
+        return position + 1 == end || Character.isWhitespace(message.charAt(position + 1));
+    }
+
+    /**
+     * Kind of the word message[start, end), whose lower-case hash is given
+     */
+    private static int classify(CharSequence message, int start, int end, int hash) {
+        if (message.charAt(start) >= '⺀') {
+            for (String keyword : CONTAINED_KEYWORDS) {
+                if (contains(message, start, end, keyword)) {
+                    return KEYWORD;
+                }
+            }
+        }
+        for (int slot = hash & (TABLE_SIZE - 1); TABLE_WORDS[slot] != null; slot = (slot + 1) & (TABLE_SIZE - 1)) {
+            if (TABLE_HASHES[slot] == hash && wordEquals(message, start, end, TABLE_WORDS[slot])) {
+                return TABLE_KINDS[slot];
+            }
+        }
+        return OTHER;
+    }
+
+    private static boolean wordEquals(CharSequence message, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (toLower(message.charAt(start + i)) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(CharSequence message, int start, int end, String word) {
+        for (int from = start; from + word.length() <= end; from++) {
+            int i = 0;
+            while (i < word.length() && message.charAt(from + i) == word.charAt(i)) {
+                i++;
+            }
+            if (i == word.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==================== Characters ====================
+
+    /**
+     * Decimal digit of any script (ASCII, Arabic-Indic, Devanagari, full width, ...)
+     */
+    private static boolean isDigit(char c) {
+        if (c < 128) {
+            return c >= '0' && c <= '9';
+        }
+        return Character.digit(c, 10) >= 0;
+    }
+
+    /**
+     * Letter or combining mark, so Devanagari / Arabic words are not split at their vowel signs
+     */
+    private static boolean isWordChar(char c) {
+        if (c < 128) {
+            return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+        }
+        if (Character.isLetter(c)) {
+            return true;
+        }
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    /**
+     * Latin letters make a run part of an identifier (XX1234, ORD123456); other scripts may
+     * be written against the code ("验证码是123456")
+     */
+    private static boolean isLatinLetter(char c) {
+        return c < 0x250 && Character.isLetter(c);
+    }
+
+    private static char toLower(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static boolean isNumberSeparator(char c) {
+        return c == '.' || c == ',' || c == ':' || c == '/' || c == '-';
+    }
+
+    private static boolean isCurrencySymbol(char c) {
+        return c == '$' || (c >= 128 && Character.getType(c) == Character.CURRENCY_SYMBOL);
+    }
+}
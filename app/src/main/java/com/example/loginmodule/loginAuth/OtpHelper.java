@@ -6,7 +6,6 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.CountDownTimer;
 
 import androidx.annotation.NonNull;
 
@@ -18,9 +17,6 @@ import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.android.gms.tasks.Task;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * OtpHelper - Handles OTP auto-reading and countdown timer
  * Uses SMS Retriever API for automatic OTP detection
@@ -28,14 +24,18 @@ import java.util.regex.Pattern;
 public class OtpHelper {
     private static final String TAG = "OtpHelper";
     private static final long DEFAULT_COUNTDOWN_MS = 60000; // 60 seconds
-    private static final long COUNTDOWN_INTERVAL_MS = 1000; // 1 second
+    public static final int OTP_LENGTH = 6;
 
     private final Context context;
-    private CountDownTimer countDownTimer;
+    private final OtpExtractor otpExtractor;
+    private CountdownTicker.Countdown resendCountdown;
     private OtpListener otpListener;
-    private boolean isTimerRunning = false;
     private BroadcastReceiver smsReceiver;
+    private long traceFlow = LoginTracer.NO_FLOW;
 
+    /**
+     * OTP and resend countdown events; timer events arrive on the main thread once per second
+     */
     public interface OtpListener {
         void onOtpReceived(String otp);
 
@@ -45,7 +45,15 @@ public class OtpHelper {
     }
 
     public OtpHelper(Context context) {
+        this(context, OTP_LENGTH);
+    }
+
+    /**
+     * Helper auto-reading codes of otpLength digits (OtpExtractor.ANY_LENGTH for 4 to 8)
+     */
+    public OtpHelper(Context context, int otpLength) {
         this.context = context;
+        this.otpExtractor = new OtpExtractor(otpLength);
     }
 
     /**
@@ -59,6 +67,10 @@ public class OtpHelper {
      * Start SMS Retriever for auto OTP reading
      */
     public void startSmsRetriever() {
+        // A resend replaces the session that was still waiting
+        LoginTracer.cancel(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.SMS_RETRIEVAL);
+        traceFlow = LoginTracer.newFlow();
+        LoginTracer.begin(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.SMS_RETRIEVAL);
         SmsRetrieverClient client = SmsRetriever.getClient(context);
         Task<Void> task = client.startSmsRetriever();
 
@@ -75,10 +87,18 @@ public class OtpHelper {
             public void onFailure(@NonNull Exception e) {
                 // Failed to start SMS Retriever
                 e.printStackTrace();
+                LoginTracer.cancel(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.SMS_RETRIEVAL);
             }
         });
     }
 
+    /**
+     * LoginTracer flow of the current SMS Retriever session; the AUTOFILL stage ends on it
+     */
+    public long getTraceFlow() {
+        return traceFlow;
+    }
+
     /**
      * Register SMS broadcast receiver
      */
@@ -94,6 +114,10 @@ public class OtpHelper {
                             switch (status.getStatusCode()) {
                                 case CommonStatusCodes.SUCCESS:
                                     String message = (String) extras.get(SmsRetriever.EXTRA_SMS_MESSAGE);
+                                    LoginTracer.end(traceFlow, LoginTracer.LoginType.PHONE,
+                                            LoginTracer.Stage.SMS_RETRIEVAL);
+                                    LoginTracer.begin(traceFlow, LoginTracer.LoginType.PHONE,
+                                            LoginTracer.Stage.AUTOFILL);
                                     if (message != null) {
                                         String otp = extractOtp(message);
                                         if (otpListener != null && otp != null) {
@@ -103,6 +127,8 @@ public class OtpHelper {
                                     break;
                                 case CommonStatusCodes.TIMEOUT:
                                     // Timeout - OTP was not auto-read
+                                    LoginTracer.cancel(traceFlow, LoginTracer.LoginType.PHONE,
+                                            LoginTracer.Stage.SMS_RETRIEVAL);
                                     break;
                             }
                         }
@@ -123,15 +149,7 @@ public class OtpHelper {
      * Extract OTP from SMS message
      */
     private String extractOtp(String message) {
-        // Pattern to find 4-6 digit OTP
-        Pattern pattern = Pattern.compile("\\b(\\d{4,6})\\b");
-        Matcher matcher = pattern.matcher(message);
-
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-
-        return null;
+        return otpExtractor.extract(message);
     }
 
     /**
@@ -147,11 +165,9 @@ public class OtpHelper {
     public void startResendTimer(long durationMs) {
         stopTimer();
 
-        isTimerRunning = true;
-        countDownTimer = new CountDownTimer(durationMs, COUNTDOWN_INTERVAL_MS) {
+        resendCountdown = CountdownTicker.getInstance(context).start(durationMs, new CountdownTicker.Listener() {
             @Override
-            public void onTick(long millisUntilFinished) {
-                long secondsRemaining = millisUntilFinished / 1000;
+            public void onTick(long secondsRemaining) {
                 if (otpListener != null) {
                     otpListener.onTimerTick(secondsRemaining);
                 }
@@ -159,22 +175,21 @@ public class OtpHelper {
 
             @Override
             public void onFinish() {
-                isTimerRunning = false;
+                resendCountdown = null;
                 if (otpListener != null) {
                     otpListener.onTimerFinished();
                 }
             }
-        }.start();
+        });
     }
 
     /**
      * Stop countdown timer
      */
     public void stopTimer() {
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-            countDownTimer = null;
-            isTimerRunning = false;
+        if (resendCountdown != null) {
+            resendCountdown.cancel();
+            resendCountdown = null;
         }
     }
 
@@ -182,7 +197,7 @@ public class OtpHelper {
      * Check if timer is running
      */
     public boolean isTimerRunning() {
-        return isTimerRunning;
+        return resendCountdown != null && resendCountdown.isRunning();
     }
 
     /**
@@ -216,7 +231,7 @@ public class OtpHelper {
      * Validate 6-digit OTP
      */
     public static boolean isValidOtp(String otp) {
-        return isValidOtp(otp, 6);
+        return isValidOtp(otp, OTP_LENGTH);
     }
 
     /**
@@ -225,7 +240,16 @@ public class OtpHelper {
     public static String formatTime(long seconds) {
         long minutes = seconds / 60;
         long secs = seconds % 60;
-        return String.format("%02d:%02d", minutes, secs);
+        // Runs every tick; same output as String.format("%02d:%02d") without the formatter
+        StringBuilder time = new StringBuilder(5);
+        if (minutes < 10) {
+            time.append('0');
+        }
+        time.append(minutes).append(':');
+        if (secs < 10) {
+            time.append('0');
+        }
+        return time.append(secs).toString();
     }
 
     /**
@@ -233,6 +257,8 @@ public class OtpHelper {
      */
     public void cleanup() {
         stopTimer();
+        // Nothing is recorded if the SMS already arrived
+        LoginTracer.cancel(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.SMS_RETRIEVAL);
         if (smsReceiver != null) {
             try {
                 context.unregisterReceiver(smsReceiver);
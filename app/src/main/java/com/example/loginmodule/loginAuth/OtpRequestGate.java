@@ -0,0 +1,373 @@
+package com.example.loginmodule.loginAuth;
+
+import android.app.Activity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OtpRequestGate - Single-flight, debounce and throttling for OTP sends
+ * Concurrent requests for the same E.164 number share one backend verification, a recent
+ * code is replayed instead of sending another SMS, and each number has a token bucket.
+ * Flights end on the backend outcome or when AuthManager signs in or resets the phone flow;
+ * idle flights and refilled buckets are swept on every send.
+ */
+class OtpRequestGate {
+    static final int DEFAULT_MAX_BURST = 3;
+    static final long DEFAULT_REFILL_INTERVAL_MS = TimeUnit.SECONDS.toMillis(60);
+    static final long DEFAULT_DEDUPE_WINDOW_MS = TimeUnit.SECONDS.toMillis(30);
+    // Past Firebase's auto-retrieval timeout no more events arrive for a flight
+    static final long FLIGHT_TTL_MS = TimeUnit.MINUTES.toMillis(2);
+    static final int MAX_TRACKED_NUMBERS = 32;
+    static final String FLIGHT_EXPIRED = "Verification timed out. Please request OTP again.";
+
+    /**
+     * AuthManager side of the gate
+     */
+    interface Host {
+        void onSending(String phoneNumber, long traceFlow);
+
+        void onCodeSent(String phoneNumber, String verificationId, long traceFlow);
+
+        void onVerificationFailed(String phoneNumber, String message, long traceFlow);
+
+        void signInWithCredential(AuthBackend.Credential credential, AuthBackend.SignInCallback callback);
+    }
+
+    private final AuthBackend authBackend;
+    private final Host host;
+
+    // Guarded by this
+    private final Map<String, Flight> flights = new HashMap<>();
+    private final Map<String, TokenBucket> buckets = new HashMap<>();
+    private int maxBurst = DEFAULT_MAX_BURST;
+    private long refillIntervalMs = DEFAULT_REFILL_INTERVAL_MS;
+    private long dedupeWindowMs = DEFAULT_DEDUPE_WINDOW_MS;
+
+    /**
+     * One backend verification for one number, shared by every subscriber
+     */
+    private static final class Flight {
+        final List<AuthRequest<AuthManager.OtpCallback>> subscribers = new ArrayList<>();
+        int generation;
+        boolean awaitingCode = true;
+        String verificationId;
+        long startedAtMs;
+        long codeSentAtMs;
+
+        boolean isExpired(long nowMs) {
+            return nowMs - (awaitingCode ? startedAtMs : codeSentAtMs) >= FLIGHT_TTL_MS;
+        }
+    }
+
+    /**
+     * Token bucket refilled lazily on access
+     */
+    private static final class TokenBucket {
+        double tokens;
+        long updatedAtMs;
+
+        TokenBucket(int capacity, long nowMs) {
+            tokens = capacity;
+            updatedAtMs = nowMs;
+        }
+
+        boolean tryAcquire(int capacity, long refillIntervalMs, long nowMs) {
+            refill(capacity, refillIntervalMs, nowMs);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Back at capacity, so dropping the bucket changes nothing
+         */
+        boolean isFull(int capacity, long refillIntervalMs, long nowMs) {
+            return refillIntervalMs <= 0
+                    || tokens + (double) (nowMs - updatedAtMs) / refillIntervalMs >= capacity;
+        }
+
+        long millisUntilToken(long refillIntervalMs) {
+            return (long) Math.ceil((1 - tokens) * refillIntervalMs);
+        }
+
+        private void refill(int capacity, long refillIntervalMs, long nowMs) {
+            if (refillIntervalMs > 0) {
+                tokens = Math.min(capacity, tokens + (double) (nowMs - updatedAtMs) / refillIntervalMs);
+            } else {
+                tokens = capacity;
+            }
+            updatedAtMs = nowMs;
+        }
+    }
+
+    OtpRequestGate(AuthBackend authBackend, Host host) {
+        this.authBackend = authBackend;
+        this.host = host;
+    }
+
+    synchronized void setRateLimit(int maxBurst, long refillIntervalMs) {
+        this.maxBurst = maxBurst;
+        this.refillIntervalMs = refillIntervalMs;
+        buckets.clear();
+    }
+
+    synchronized void setDedupeWindowMs(long dedupeWindowMs) {
+        this.dedupeWindowMs = dedupeWindowMs;
+    }
+
+    /**
+     * Attach the request to a verification for the number, starting one only if needed
+     */
+    void send(Activity activity, String phoneNumber, boolean forceResend,
+            AuthRequest<AuthManager.OtpCallback> request) {
+        String replayVerificationId = null;
+        String throttledMessage = null;
+        int startGeneration = -1;
+        long traceFlow = LoginTracer.NO_FLOW;
+        List<AuthRequest<AuthManager.OtpCallback>> timedOut = new ArrayList<>();
+        List<AuthRequest<AuthManager.OtpCallback>> released = new ArrayList<>();
+
+        synchronized (this) {
+            long now = nowMs();
+            sweep(now, timedOut, released);
+            Flight flight = flights.get(phoneNumber);
+            if (flight != null) {
+                pruneInactive(flight);
+            }
+
+            if (flight != null && flight.awaitingCode) {
+                // Someone is already waiting on this number: share their result
+                flight.subscribers.add(request);
+            } else if (flight != null && !forceResend && now - flight.codeSentAtMs < dedupeWindowMs) {
+                // Code was just sent: hand it out again instead of another SMS
+                flight.subscribers.add(request);
+                replayVerificationId = flight.verificationId;
+            } else {
+                TokenBucket bucket = buckets.get(phoneNumber);
+                if (bucket == null) {
+                    evictOldestBucket();
+                    bucket = new TokenBucket(maxBurst, now);
+                    buckets.put(phoneNumber, bucket);
+                }
+
+                if (!bucket.tryAcquire(maxBurst, refillIntervalMs, now)) {
+                    long waitSeconds = TimeUnit.MILLISECONDS.toSeconds(
+                            bucket.millisUntilToken(refillIntervalMs)) + 1;
+                    throttledMessage = "Too many OTP requests. Please try again in " + waitSeconds + "s.";
+                } else {
+                    if (flight == null) {
+                        flight = new Flight();
+                        flights.put(phoneNumber, flight);
+                    }
+                    flight.generation++;
+                    flight.awaitingCode = true;
+                    flight.startedAtMs = now;
+                    flight.subscribers.add(request);
+                    startGeneration = flight.generation;
+                    traceFlow = LoginTracer.newFlow();
+                }
+            }
+        }
+
+        failAll(timedOut, FLIGHT_EXPIRED);
+        completeAll(released);
+        if (throttledMessage != null) {
+            String message = throttledMessage;
+            request.finish(callback -> callback.onVerificationFailed(message));
+        } else if (replayVerificationId != null) {
+            String verificationId = replayVerificationId;
+            request.post(callback -> callback.onCodeSent(verificationId));
+        } else if (startGeneration >= 0) {
+            host.onSending(phoneNumber, traceFlow);
+            authBackend.verifyPhoneNumber(activity, phoneNumber, forceResend,
+                    new FlightCallback(phoneNumber, startGeneration, traceFlow));
+        }
+    }
+
+    /**
+     * The phone flow signed in: the number's verification is used up, so drop the flight
+     * Its subscribers are released without an event; the sign-in caller already has the result.
+     */
+    void signedIn(String phoneNumber) {
+        Flight flight;
+        synchronized (this) {
+            flight = phoneNumber != null ? flights.remove(phoneNumber) : null;
+        }
+        if (flight != null) {
+            completeAll(flight.subscribers);
+        }
+    }
+
+    /**
+     * The phone flow was reset (sign-out, account switch): drop every flight and release its subscribers
+     * Late backend events for them are ignored, and the next send starts a fresh verification.
+     */
+    void reset() {
+        List<AuthRequest<AuthManager.OtpCallback>> subscribers = new ArrayList<>();
+        synchronized (this) {
+            for (Flight flight : flights.values()) {
+                subscribers.addAll(flight.subscribers);
+            }
+            flights.clear();
+        }
+        completeAll(subscribers);
+    }
+
+    /**
+     * Routes backend events of one generation to every subscriber of the flight
+     */
+    private final class FlightCallback implements AuthBackend.VerificationCallback {
+        private final String phoneNumber;
+        private final int generation;
+        private final long traceFlow;
+
+        FlightCallback(String phoneNumber, int generation, long traceFlow) {
+            this.phoneNumber = phoneNumber;
+            this.generation = generation;
+            this.traceFlow = traceFlow;
+        }
+
+        @Override
+        public void onCodeSent(String verificationId) {
+            List<AuthRequest<AuthManager.OtpCallback>> subscribers;
+            synchronized (OtpRequestGate.this) {
+                Flight flight = currentFlight();
+                if (flight == null) {
+                    return;
+                }
+                flight.awaitingCode = false;
+                flight.verificationId = verificationId;
+                flight.codeSentAtMs = nowMs();
+                subscribers = new ArrayList<>(flight.subscribers);
+            }
+
+            host.onCodeSent(phoneNumber, verificationId, traceFlow);
+            for (AuthRequest<AuthManager.OtpCallback> request : subscribers) {
+                request.post(callback -> callback.onCodeSent(verificationId));
+            }
+        }
+
+        @Override
+        public void onVerificationCompleted(AuthBackend.Credential credential) {
+            List<AuthRequest<AuthManager.OtpCallback>> subscribers = finish();
+            if (subscribers == null) {
+                return;
+            }
+
+            for (AuthRequest<AuthManager.OtpCallback> request : subscribers) {
+                request.post(AuthManager.OtpCallback::onVerificationCompleted);
+            }
+
+            // One sign-in for the whole flight, result fanned out
+            host.signInWithCredential(credential, new AuthBackend.SignInCallback() {
+                @Override
+                public void onSuccess(AuthUser user) {
+                    for (AuthRequest<AuthManager.OtpCallback> request : subscribers) {
+                        request.finish(callback -> callback.onSignedIn(user));
+                    }
+                }
+
+                @Override
+                public void onError(String message) {
+                    failAll(subscribers, message);
+                }
+            });
+        }
+
+        @Override
+        public void onVerificationFailed(String message) {
+            List<AuthRequest<AuthManager.OtpCallback>> subscribers = finish();
+            if (subscribers != null) {
+                host.onVerificationFailed(phoneNumber, message, traceFlow);
+                failAll(subscribers, message);
+            }
+        }
+
+        private Flight currentFlight() {
+            Flight flight = flights.get(phoneNumber);
+            return flight != null && flight.generation == generation ? flight : null;
+        }
+
+        private List<AuthRequest<AuthManager.OtpCallback>> finish() {
+            synchronized (OtpRequestGate.this) {
+                Flight flight = currentFlight();
+                if (flight == null) {
+                    return null;
+                }
+                flights.remove(phoneNumber);
+                return new ArrayList<>(flight.subscribers);
+            }
+        }
+    }
+
+    private static void failAll(List<AuthRequest<AuthManager.OtpCallback>> subscribers, String message) {
+        for (AuthRequest<AuthManager.OtpCallback> request : subscribers) {
+            request.finish(callback -> callback.onVerificationFailed(message));
+        }
+    }
+
+    private static void completeAll(List<AuthRequest<AuthManager.OtpCallback>> subscribers) {
+        for (AuthRequest<AuthManager.OtpCallback> request : subscribers) {
+            request.complete();
+        }
+    }
+
+    /**
+     * Drop flights past FLIGHT_TTL_MS and buckets back at capacity
+     * Subscribers still waiting for a code time out; those that got one are just released.
+     */
+    private void sweep(long nowMs, List<AuthRequest<AuthManager.OtpCallback>> timedOut,
+            List<AuthRequest<AuthManager.OtpCallback>> released) {
+        Iterator<Flight> flightIterator = flights.values().iterator();
+        while (flightIterator.hasNext()) {
+            Flight flight = flightIterator.next();
+            if (flight.isExpired(nowMs)) {
+                (flight.awaitingCode ? timedOut : released).addAll(flight.subscribers);
+                flightIterator.remove();
+            }
+        }
+        Iterator<TokenBucket> bucketIterator = buckets.values().iterator();
+        while (bucketIterator.hasNext()) {
+            if (bucketIterator.next().isFull(maxBurst, refillIntervalMs, nowMs)) {
+                bucketIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Keep at most MAX_TRACKED_NUMBERS buckets by dropping the least recently used one
+     */
+    private void evictOldestBucket() {
+        if (buckets.size() < MAX_TRACKED_NUMBERS) {
+            return;
+        }
+        String oldest = null;
+        long oldestAtMs = Long.MAX_VALUE;
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            if (entry.getValue().updatedAtMs < oldestAtMs) {
+                oldest = entry.getKey();
+                oldestAtMs = entry.getValue().updatedAtMs;
+            }
+        }
+        buckets.remove(oldest);
+    }
+
+    private static void pruneInactive(Flight flight) {
+        for (int i = flight.subscribers.size() - 1; i >= 0; i--) {
+            if (!flight.subscribers.get(i).isActive()) {
+                flight.subscribers.remove(i);
+            }
+        }
+    }
+
+    private static long nowMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.loginmodule.loginAuth;
+
+import androidx.annotation.Nullable;
+
+/**
+ * PhoneAuthState - Immutable snapshot of the phone sign-in flow
+ * IDLE -> SENDING -> CODE_SENT -> VERIFYING -> SIGNED_IN / FAILED.
+ * AuthManager publishes these through an AtomicReference, so readers never need a lock.
+ */
+public final class PhoneAuthState {
+
+    public enum Stage {
+        IDLE,
+        SENDING,
+        CODE_SENT,
+        VERIFYING,
+        SIGNED_IN,
+        FAILED
+    }
+
+    public static final PhoneAuthState IDLE = new PhoneAuthState(Stage.IDLE, null, null, null, null, 0);
+
+    private final Stage stage;
+    private final String phoneNumber;
+    private final String verificationId;
+    private final AuthUser user;
+    private final String error;
+    private final long version;
+
+    private PhoneAuthState(Stage stage, String phoneNumber, String verificationId, AuthUser user,
+            String error, long version) {
+        this.stage = stage;
+        this.phoneNumber = phoneNumber;
+        this.verificationId = verificationId;
+        this.user = user;
+        this.error = error;
+        this.version = version;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    @Nullable
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    @Nullable
+    public String getVerificationId() {
+        return verificationId;
+    }
+
+    /**
+     * Signed in user, only set in SIGNED_IN
+     */
+    @Nullable
+    public AuthUser getUser() {
+        return user;
+    }
+
+    /**
+     * Failure message, only set in FAILED
+     */
+    @Nullable
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Increases by one on every transition
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * A sign-in may start from here (verifyOtp or an auto-verified credential)
+     */
+    public boolean canVerify() {
+        return stage == Stage.SENDING || stage == Stage.CODE_SENT
+                || (stage == Stage.FAILED && verificationId != null);
+    }
+
+    public boolean isTerminal() {
+        return stage == Stage.SIGNED_IN || stage == Stage.FAILED;
+    }
+
+    PhoneAuthState sending(String phoneNumber) {
+        return new PhoneAuthState(Stage.SENDING, phoneNumber, null, null, null, version + 1);
+    }
+
+    PhoneAuthState codeSent(String verificationId) {
+        return new PhoneAuthState(Stage.CODE_SENT, phoneNumber, verificationId, null, null, version + 1);
+    }
+
+    PhoneAuthState verifying() {
+        return new PhoneAuthState(Stage.VERIFYING, phoneNumber, verificationId, null, null, version + 1);
+    }
+
+    PhoneAuthState signedIn(AuthUser user) {
+        return new PhoneAuthState(Stage.SIGNED_IN, phoneNumber, verificationId, user, null, version + 1);
+    }
+
+    PhoneAuthState failed(String error) {
+        return new PhoneAuthState(Stage.FAILED, phoneNumber, verificationId, null, error, version + 1);
+    }
+
+    PhoneAuthState reset() {
+        return new PhoneAuthState(Stage.IDLE, null, null, null, null, version + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "PhoneAuthState{" + stage + " v" + version + "}";
+    }
+}
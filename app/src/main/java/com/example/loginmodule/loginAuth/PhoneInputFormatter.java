@@ -0,0 +1,262 @@
+package com.example.loginmodule.loginAuth;
+
+import android.text.Editable;
+import android.text.Selection;
+import android.text.TextWatcher;
+
+import java.util.Arrays;
+
+/**
+ * PhoneInputFormatter - As-you-type grouping of the national number in a phone field
+ * Keeps the digits and the country's grouping tables between keystrokes, so an edit only
+ * rewrites the text from the first changed digit on: typing at the end costs one digit and
+ * maybe one separator, a paste is run through PhoneNumberNormalizer ("+91 98765 43210"
+ * lands as the national digits) and backspace over a separator removes the digit before it.
+ */
+public class PhoneInputFormatter implements TextWatcher {
+
+    /**
+     * Called after every edit, with the number already regrouped
+     */
+    public interface Listener {
+        void onNumberChanged(int digitCount, boolean valid);
+    }
+
+    // Room for a trunk prefix typed in front of a full national number
+    private static final int EXTRA_DIGITS = 1;
+
+    private final Listener listener;
+    private final StringBuilder rewrite = new StringBuilder();
+
+    private PhoneNumberNormalizer.Country country;
+    private char[] pattern;
+    private int[] slotPositions;    // digit index -> its position in the pattern
+    private int[] digitsBefore;     // pattern position -> digits in front of it
+    private int patternEnd;         // position after the last pattern slot
+
+    private char[] digits;
+    private int count;
+
+    // Edit in progress, from beforeTextChanged to afterTextChanged
+    private boolean selfChange;
+    private int removedFrom;
+    private int removedTo;
+    private int removedChars;
+    private int insertStart;
+    private int insertChars;
+
+    public PhoneInputFormatter(PhoneNumberNormalizer.Country country, Listener listener) {
+        this.listener = listener;
+        setCountry(country);
+    }
+
+    /**
+     * Switch the grouping; the caller re-sets the field text afterwards
+     */
+    public void setCountry(PhoneNumberNormalizer.Country country) {
+        this.country = country;
+        pattern = country.getGroupingPattern().toCharArray();
+
+        int slots = 0;
+        for (char c : pattern) {
+            if (c == '#') {
+                slots++;
+            }
+        }
+        slotPositions = new int[slots];
+        digitsBefore = new int[pattern.length + 1];
+        int slot = 0;
+        for (int i = 0; i < pattern.length; i++) {
+            digitsBefore[i] = slot;
+            if (pattern[i] == '#') {
+                slotPositions[slot++] = i;
+            }
+        }
+        digitsBefore[pattern.length] = slot;
+        patternEnd = slots == 0 ? 0 : slotPositions[slots - 1] + 1;
+
+        digits = new char[country.getMaxNationalLength() + EXTRA_DIGITS];
+        count = 0;
+    }
+
+    public PhoneNumberNormalizer.Country getCountry() {
+        return country;
+    }
+
+    /**
+     * National digits currently in the field
+     */
+    public String getNationalNumber() {
+        return new String(digits, 0, count);
+    }
+
+    public int getDigitCount() {
+        return count;
+    }
+
+    /**
+     * Valid national length, optionally behind the country's trunk prefix
+     */
+    public boolean isValid() {
+        if (country.isValidNationalLength(count)) {
+            return true;
+        }
+        return count > 1 && country.isTrunkPrefix(digits[0] - '0') && country.isValidNationalLength(count - 1);
+    }
+
+    /**
+     * Group a number for display without a field, e.g. hints and suggestion chips
+     */
+    public static String format(PhoneNumberNormalizer.Country country, CharSequence number) {
+        if (number == null) {
+            return "";
+        }
+        String pattern = country.getGroupingPattern();
+        StringBuilder out = new StringBuilder(pattern.length());
+        int position = 0;
+        for (int i = 0; i < number.length(); i++) {
+            int digit = Character.digit(number.charAt(i), 10);
+            if (digit < 0) {
+                continue;
+            }
+            while (position < pattern.length() && pattern.charAt(position) != '#') {
+                out.append(pattern.charAt(position++));
+            }
+            out.append((char) ('0' + digit));
+            position++;
+        }
+        return out.toString();
+    }
+
+    // ==================== TextWatcher ====================
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        if (selfChange) {
+            return;
+        }
+        removedFrom = digitIndexAt(start);
+        removedTo = digitIndexAt(start + count);
+        removedChars = count;
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+        if (selfChange) {
+            return;
+        }
+        insertStart = start;
+        insertChars = count;
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        if (selfChange) {
+            return;
+        }
+        int from = removedFrom;
+        int to = removedTo;
+        // Backspace over a separator alone: take the digit in front of it too
+        if (from == to && removedChars > 0 && insertChars == 0 && from > 0) {
+            from--;
+        }
+
+        char[] inserted = insertedDigits(s);
+        int insertedCount = Math.min(inserted.length, digits.length - from);
+
+        // Splice the digit buffer: [from, to) is replaced, the tail moves and is capped
+        int tail = Math.min(count - to, digits.length - from - insertedCount);
+        System.arraycopy(digits, to, digits, from + insertedCount, Math.max(tail, 0));
+        System.arraycopy(inserted, 0, digits, from, insertedCount);
+        count = from + insertedCount + Math.max(tail, 0);
+
+        int position = positionAfter(from);
+        rewrite.setLength(0);
+        appendFormatted(rewrite, from);
+        if (!regionMatches(s, position, rewrite)) {
+            selfChange = true;
+            try {
+                s.replace(position, s.length(), rewrite);
+            } finally {
+                selfChange = false;
+            }
+        }
+        Selection.setSelection(s, Math.min(positionAfter(Math.min(from + insertedCount, count)), s.length()));
+
+        if (listener != null) {
+            listener.onNumberChanged(count, isValid());
+        }
+    }
+
+    // ==================== Position mapping ====================
+
+    /**
+     * Digits in front of a position of the formatted text
+     */
+    private int digitIndexAt(int position) {
+        int index = position <= patternEnd ? digitsBefore[Math.min(position, pattern.length)]
+                : slotPositions.length + position - patternEnd;
+        return Math.min(index, count);
+    }
+
+    /**
+     * Position just after the first n digits, which is also where digit n's group starts
+     */
+    private int positionAfter(int n) {
+        if (n == 0) {
+            return 0;
+        }
+        return n <= slotPositions.length ? slotPositions[n - 1] + 1 : patternEnd + n - slotPositions.length;
+    }
+
+    private void appendFormatted(StringBuilder out, int from) {
+        int position = positionAfter(from);
+        for (int i = from; i < count; i++) {
+            if (i < slotPositions.length) {
+                while (position < slotPositions[i]) {
+                    out.append(pattern[position++]);
+                }
+                position++;
+            }
+            out.append(digits[i]);
+        }
+    }
+
+    private char[] insertedDigits(Editable s) {
+        int end = Math.min(insertStart + insertChars, s.length());
+        if (insertChars <= 0 || insertStart >= end) {
+            return new char[0];
+        }
+        CharSequence span = s.subSequence(insertStart, end);
+
+        // A pasted full number: drop the country code / trunk prefix the normalizer recognises
+        if (span.length() > 1 && (span.charAt(0) == '+' || span.length() > digits.length)) {
+            PhoneNumberNormalizer normalizer = PhoneNumberNormalizer.forCurrentThread();
+            if (normalizer.parse(span, country)) {
+                return normalizer.toNational().toCharArray();
+            }
+        }
+
+        char[] out = new char[span.length()];
+        int n = 0;
+        for (int i = 0; i < span.length(); i++) {
+            int digit = Character.digit(span.charAt(i), 10);
+            if (digit >= 0) {
+                out[n++] = (char) ('0' + digit);
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static boolean regionMatches(CharSequence s, int start, CharSequence expected) {
+        if (s.length() - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (s.charAt(start + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
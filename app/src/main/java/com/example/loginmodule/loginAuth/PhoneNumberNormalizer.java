@@ -0,0 +1,409 @@
+package com.example.loginmodule.loginAuth;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * PhoneNumberNormalizer - Table-driven E.164 / national phone number normalization
+ * One scan over the input collects digits into a reusable buffer; the country is resolved
+ * from compact metadata (calling code, trunk prefix, international prefix, national lengths)
+ * and only the final String is allocated. Instances are not thread-safe: use forCurrentThread().
+ */
+public final class PhoneNumberNormalizer {
+    // E.164 allows 15 digits; a little slack for international / trunk prefixes typed in front
+    private static final int MAX_DIGITS = 20;
+    private static final int MAX_E164_DIGITS = 15;
+    private static final int NO_TRUNK = -1;
+
+    /**
+     * Dialing metadata of one country
+     */
+    public static final class Country {
+        private final String region;
+        private final int callingCode;
+        private final int callingCodeDigits;
+        private final int trunkPrefix;
+        private final byte[] internationalPrefix;
+        private final String groupingPattern;
+        private final int nationalLengths; // bit n set = n national digits is valid
+
+        Country(String region, int callingCode, int trunkPrefix, String internationalPrefix,
+                String groupingPattern, int... nationalLengths) {
+            this.region = region;
+            this.callingCode = callingCode;
+            this.callingCodeDigits = callingCode >= 100 ? 3 : callingCode >= 10 ? 2 : 1;
+            this.trunkPrefix = trunkPrefix;
+            this.internationalPrefix = new byte[internationalPrefix.length()];
+            for (int i = 0; i < internationalPrefix.length(); i++) {
+                this.internationalPrefix[i] = (byte) (internationalPrefix.charAt(i) - '0');
+            }
+            this.groupingPattern = groupingPattern;
+            int mask = 0;
+            for (int length : nationalLengths) {
+                mask |= 1 << length;
+            }
+            this.nationalLengths = mask;
+        }
+
+        /**
+         * ISO 3166 region code, e.g. "IN"
+         */
+        public String getRegion() {
+            return region;
+        }
+
+        public int getCallingCode() {
+            return callingCode;
+        }
+
+        /**
+         * "+91" style prefix for display
+         */
+        public String getCallingCodePrefix() {
+            return "+" + callingCode;
+        }
+
+        public boolean isValidNationalLength(int length) {
+            return length > 0 && length < 32 && (nationalLengths & (1 << length)) != 0;
+        }
+
+        /**
+         * Display grouping of the national number: '#' is a digit, anything else is inserted as is
+         */
+        public String getGroupingPattern() {
+            return groupingPattern;
+        }
+
+        boolean isTrunkPrefix(int digit) {
+            return digit == trunkPrefix;
+        }
+
+        /**
+         * Longest valid national number
+         */
+        public int getMaxNationalLength() {
+            return 31 - Integer.numberOfLeadingZeros(nationalLengths);
+        }
+    }
+
+    // Mobile national lengths and usual grouping; the first country listed owns a shared calling code
+    private static final Country[] COUNTRIES = {
+            new Country("IN", 91, 0, "00", "##### #####", 10),
+            new Country("US", 1, 1, "011", "(###) ###-####", 10),
+            new Country("CA", 1, 1, "011", "(###) ###-####", 10),
+            new Country("GB", 44, 0, "00", "#### ######", 9, 10),
+            new Country("AE", 971, 0, "00", "## ### ####", 8, 9),
+            new Country("SA", 966, 0, "00", "## ### ####", 9),
+            new Country("QA", 974, NO_TRUNK, "00", "#### ####", 8),
+            new Country("KW", 965, NO_TRUNK, "00", "#### ####", 8),
+            new Country("OM", 968, NO_TRUNK, "00", "#### ####", 8),
+            new Country("BH", 973, NO_TRUNK, "00", "#### ####", 8),
+            new Country("PK", 92, 0, "00", "### #######", 10),
+            new Country("BD", 880, 0, "00", "####-######", 10),
+            new Country("LK", 94, 0, "00", "## ### ####", 9),
+            new Country("NP", 977, 0, "00", "###-#######", 8, 10),
+            new Country("SG", 65, NO_TRUNK, "000", "#### ####", 8),
+            new Country("MY", 60, 0, "00", "##-### ####", 9, 10),
+            new Country("ID", 62, 0, "001", "###-####-#####", 9, 10, 11, 12),
+            new Country("PH", 63, 0, "00", "### ### ####", 10),
+            new Country("TH", 66, 0, "001", "## ### ####", 8, 9),
+            new Country("VN", 84, 0, "00", "### ### ####", 9, 10),
+            new Country("CN", 86, 0, "00", "### #### ####", 11),
+            new Country("HK", 852, NO_TRUNK, "001", "#### ####", 8),
+            new Country("JP", 81, 0, "010", "##-####-####", 9, 10),
+            new Country("KR", 82, 0, "001", "##-####-####", 9, 10),
+            new Country("AU", 61, 0, "0011", "### ### ###", 9),
+            new Country("NZ", 64, 0, "00", "## ### ####", 8, 9, 10),
+            new Country("DE", 49, 0, "00", "#### #######", 10, 11),
+            new Country("FR", 33, 0, "00", "# ## ## ## ##", 9),
+            new Country("IT", 39, NO_TRUNK, "00", "### ### ####", 9, 10),
+            new Country("ES", 34, NO_TRUNK, "00", "### ## ## ##", 9),
+            new Country("NL", 31, 0, "00", "# ########", 9),
+            new Country("RU", 7, 8, "810", "### ###-##-##", 10),
+            new Country("TR", 90, 0, "00", "### ### ## ##", 10),
+            new Country("BR", 55, 0, "0014", "## #####-####", 10, 11),
+            new Country("MX", 52, NO_TRUNK, "00", "## #### ####", 10),
+            new Country("NG", 234, 0, "009", "### ### ####", 10),
+            new Country("KE", 254, 0, "000", "### ######", 9),
+            new Country("ZA", 27, 0, "00", "## ### ####", 9),
+            new Country("EG", 20, 0, "00", "### ### ####", 10),
+    };
+
+    /**
+     * Fallback when the device gives no usable region; the module's primary market
+     */
+    public static final Country DEFAULT_COUNTRY = COUNTRIES[0];
+
+    // Calling code (1..999) -> index + 1 into COUNTRIES, 0 = unassigned
+    private static final byte[] BY_CALLING_CODE = new byte[1000];
+    private static final Map<String, Country> BY_REGION = new HashMap<>();
+
+    static {
+        for (int i = COUNTRIES.length - 1; i >= 0; i--) {
+            BY_CALLING_CODE[COUNTRIES[i].callingCode] = (byte) (i + 1);
+            BY_REGION.put(COUNTRIES[i].region, COUNTRIES[i]);
+        }
+    }
+
+    private static final ThreadLocal<PhoneNumberNormalizer> PER_THREAD =
+            ThreadLocal.withInitial(PhoneNumberNormalizer::new);
+
+    private final byte[] digits = new byte[MAX_DIGITS];
+    private final char[] output = new char[MAX_DIGITS + 1];
+    private int length;
+    private boolean plus;
+    // Input with more than MAX_DIGITS digits, rescanned by toDigits(); null otherwise
+    private CharSequence overflowInput;
+    private Country country;
+    private int nationalStart;
+    private boolean valid;
+
+    /**
+     * Normalizer owned by the calling thread, for wrappers that may run anywhere
+     */
+    public static PhoneNumberNormalizer forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Country for an ISO region code (any case), or null if it is not in the table
+     */
+    public static Country forRegion(String region) {
+        if (region == null || region.length() != 2) {
+            return null;
+        }
+        return BY_REGION.get(region.toUpperCase(Locale.US));
+    }
+
+    /**
+     * Country owning a calling code, or null
+     */
+    public static Country forCallingCode(int callingCode) {
+        if (callingCode <= 0 || callingCode >= BY_CALLING_CODE.length) {
+            return null;
+        }
+        int index = BY_CALLING_CODE[callingCode];
+        return index > 0 ? COUNTRIES[index - 1] : null;
+    }
+
+    /**
+     * Parse a number as typed or reported by the system; numbers without a country code are
+     * read in defaultCountry. Returns isValid(); the result stays readable until the next parse
+     */
+    public boolean parse(CharSequence input, Country defaultCountry) {
+        length = 0;
+        plus = false;
+        overflowInput = null;
+        country = null;
+        nationalStart = 0;
+        valid = false;
+        if (input == null) {
+            return false;
+        }
+
+        int end = input.length();
+        for (int i = 0; i < end; i++) {
+            char c = input.charAt(i);
+            int digit = digitValue(c);
+            if (digit >= 0) {
+                if (length == MAX_DIGITS) {
+                    overflowInput = input;
+                    return false;
+                }
+                digits[length++] = (byte) digit;
+            } else if (c == '+' && length == 0) {
+                plus = true;
+            } else if (isExtensionMark(c)) {
+                // Extension or dial pause: not part of the number
+                break;
+            }
+            // Anything else (spaces, dashes, dots, brackets) is formatting
+        }
+
+        resolve(defaultCountry);
+        return valid;
+    }
+
+    private static int digitValue(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : c < 128 ? -1 : Character.digit(c, 10);
+    }
+
+    private static boolean isExtensionMark(char c) {
+        return c == 'x' || c == 'X' || c == '#' || c == ';' || c == ',';
+    }
+
+    private void resolve(Country defaultCountry) {
+        if (plus) {
+            resolveInternational(0, defaultCountry);
+        } else if (defaultCountry != null && startsWith(defaultCountry.internationalPrefix)) {
+            resolveInternational(defaultCountry.internationalPrefix.length, defaultCountry);
+        } else if (defaultCountry != null) {
+            country = defaultCountry;
+            if (!defaultCountry.isValidNationalLength(length)) {
+                if (length > 0 && digits[0] == defaultCountry.trunkPrefix
+                        && defaultCountry.isValidNationalLength(length - 1)) {
+                    nationalStart = 1;
+                } else if (startsWithCallingCode(0, defaultCountry)
+                        && defaultCountry.isValidNationalLength(length - defaultCountry.callingCodeDigits)) {
+                    // Country code without the '+', as some SIMs report it
+                    nationalStart = defaultCountry.callingCodeDigits;
+                }
+            }
+            valid = defaultCountry.isValidNationalLength(length - nationalStart);
+        }
+    }
+
+    private void resolveInternational(int start, Country defaultCountry) {
+        // No calling code starts with 0: "+0..." is not a number in any country
+        if (start < length && digits[start] == 0) {
+            return;
+        }
+        int code = 0;
+        for (int n = 1; n <= 3 && start + n <= length; n++) {
+            code = code * 10 + digits[start + n - 1];
+            Country match = forCallingCode(code);
+            if (match != null) {
+                // Shared calling codes (+1, +7) keep the user's own region when it matches
+                country = defaultCountry != null && defaultCountry.callingCode == code ? defaultCountry : match;
+                nationalStart = start + n;
+                break;
+            }
+        }
+        if (country == null) {
+            return;
+        }
+
+        // "+44 (0)20 ..." style: a trunk prefix after the calling code is dropped
+        int national = length - nationalStart;
+        if (!country.isValidNationalLength(national) && national > 0
+                && digits[nationalStart] == country.trunkPrefix
+                && country.isValidNationalLength(national - 1)) {
+            nationalStart++;
+        }
+        valid = country.isValidNationalLength(length - nationalStart)
+                && country.callingCodeDigits + length - nationalStart <= MAX_E164_DIGITS;
+    }
+
+    private boolean startsWith(byte[] prefix) {
+        if (prefix.length == 0 || length <= prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (digits[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean startsWithCallingCode(int start, Country target) {
+        int code = 0;
+        for (int i = 0; i < target.callingCodeDigits; i++) {
+            if (start + i >= length) {
+                return false;
+            }
+            code = code * 10 + digits[start + i];
+        }
+        return code == target.callingCode;
+    }
+
+    // ==================== Results ====================
+
+    /**
+     * Check if the last parse produced a dialable number for a known country
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Country of the last parse (the default one for national input), or null
+     */
+    public Country getCountry() {
+        return country;
+    }
+
+    /**
+     * National significant number digits of the last parse
+     */
+    public int getNationalLength() {
+        return country != null ? length - nationalStart : length;
+    }
+
+    /**
+     * "+<calling code><national number>", or null if the last parse was not valid
+     */
+    public String toE164() {
+        if (!valid) {
+            return null;
+        }
+        int size = 0;
+        output[size++] = '+';
+        int code = country.callingCode;
+        for (int divisor = pow10(country.callingCodeDigits - 1); divisor > 0; divisor /= 10) {
+            output[size++] = (char) ('0' + code / divisor % 10);
+        }
+        for (int i = nationalStart; i < length; i++) {
+            output[size++] = (char) ('0' + digits[i]);
+        }
+        return new String(output, 0, size);
+    }
+
+    /**
+     * National significant number (no trunk prefix); all digits if no country was resolved
+     */
+    public String toNational() {
+        int start = country != null ? nationalStart : 0;
+        return toDigits(start, false);
+    }
+
+    /**
+     * The digits as scanned, with the '+' if there was one, for numbers that did not resolve
+     */
+    public String toDigits() {
+        return toDigits(0, plus);
+    }
+
+    private String toDigits(int start, boolean withPlus) {
+        if (overflowInput != null) {
+            return overflowDigits(withPlus);
+        }
+        int size = 0;
+        if (withPlus) {
+            output[size++] = '+';
+        }
+        for (int i = start; i < length; i++) {
+            output[size++] = (char) ('0' + digits[i]);
+        }
+        return new String(output, 0, size);
+    }
+
+    /**
+     * Too long for the digit buffer: scan the input again the way parse() does
+     */
+    private String overflowDigits(boolean withPlus) {
+        StringBuilder out = new StringBuilder(overflowInput.length() + 1);
+        if (withPlus) {
+            out.append('+');
+        }
+        for (int i = 0; i < overflowInput.length(); i++) {
+            char c = overflowInput.charAt(i);
+            int digit = digitValue(c);
+            if (digit >= 0) {
+                out.append((char) ('0' + digit));
+            } else if (isExtensionMark(c)) {
+                break;
+            }
+        }
+        return out.toString();
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.loginmodule.loginAuth;
+
+import java.util.Arrays;
+
+/**
+ * PrefixTrie - Compact autocomplete index over phone numbers / emails / domains
+ * Nodes live in parallel arrays (label, first child, next sibling) and every node keeps the
+ * indices of its top-k items, so completing a prefix is a walk of the prefix plus a copy of
+ * k references. A Cursor follows a text field between keystrokes: typing one character is a
+ * single child step, deleting pops the path, and queries never allocate.
+ */
+public final class PrefixTrie {
+
+    /**
+     * Which characters of the input form the key
+     */
+    public enum KeyMode {
+        /** Decimal digits only (any script); separators of a formatted number are skipped */
+        DIGITS,
+        /** Every character, ASCII letters folded to lower case */
+        TEXT
+    }
+
+    private static final int NONE = -1;
+    private static final int ROOT = 0;
+
+    private final KeyMode mode;
+    private final int topK;
+
+    private char[] labels = new char[32];
+    private int[] firstChild = new int[32];
+    private int[] nextSibling = new int[32];
+    private int[] terminal = new int[32];   // item whose key ends here, or NONE
+    private int[] top;                       // node * topK -> item, best first, NONE padded
+    private int nodeCount;
+    private int generation;                  // bumped on every change, cursors re-walk after it
+
+    private String[] values = new String[8];
+    private double[] weights = new double[8];
+    private int itemCount;
+
+    public PrefixTrie(KeyMode mode, int topK) {
+        this.mode = mode;
+        this.topK = topK;
+        top = new int[labels.length * topK];
+        clear();
+    }
+
+    /**
+     * Drop every item, keeping the arrays for the next fill
+     */
+    public void clear() {
+        Arrays.fill(values, 0, itemCount, null);
+        itemCount = 0;
+        nodeCount = 0;
+        generation++;
+        newNode('\0');
+    }
+
+    public int size() {
+        return itemCount;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Index value under key; false if the key (after KeyMode filtering) is empty or already present
+     */
+    public boolean add(CharSequence key, String value, double weight) {
+        int node = ROOT;
+        int length = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char c = keyChar(key.charAt(i));
+            if (c == 0) {
+                continue;
+            }
+            int child = child(node, c);
+            if (child == NONE) {
+                child = newNode(c);
+                nextSibling[child] = firstChild[node];
+                firstChild[node] = child;
+            }
+            node = child;
+            length++;
+        }
+        if (length == 0 || terminal[node] != NONE) {
+            return false;
+        }
+
+        generation++;
+        int item = newItem(value, weight);
+        terminal[node] = item;
+        // Every node on the path may now rank this item in its top-k
+        node = ROOT;
+        offerTop(node, item);
+        for (int i = 0; i < key.length(); i++) {
+            char c = keyChar(key.charAt(i));
+            if (c != 0) {
+                node = child(node, c);
+                offerTop(node, item);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cursor for one input field
+     */
+    public Cursor newCursor() {
+        return new Cursor();
+    }
+
+    // ==================== Nodes ====================
+
+    /**
+     * Key character for an input character, or 0 if the KeyMode skips it
+     */
+    private char keyChar(char c) {
+        if (mode == KeyMode.DIGITS) {
+            int digit = Character.digit(c, 10);
+            return digit < 0 ? 0 : (char) ('0' + digit);
+        }
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private int child(int node, char c) {
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (labels[child] == c) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    private int newNode(char label) {
+        if (nodeCount == labels.length) {
+            int capacity = labels.length * 2;
+            labels = Arrays.copyOf(labels, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            terminal = Arrays.copyOf(terminal, capacity);
+            top = Arrays.copyOf(top, capacity * topK);
+        }
+        int node = nodeCount++;
+        labels[node] = label;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        terminal[node] = NONE;
+        Arrays.fill(top, node * topK, (node + 1) * topK, NONE);
+        return node;
+    }
+
+    private int newItem(String value, double weight) {
+        if (itemCount == values.length) {
+            values = Arrays.copyOf(values, itemCount * 2);
+            weights = Arrays.copyOf(weights, itemCount * 2);
+        }
+        values[itemCount] = value;
+        weights[itemCount] = weight;
+        return itemCount++;
+    }
+
+    /**
+     * Insert item into the node's top-k list; earlier items win ties
+     */
+    private void offerTop(int node, int item) {
+        int base = node * topK;
+        int position = topK;
+        while (position > 0) {
+            int current = top[base + position - 1];
+            if (current != NONE && weights[current] >= weights[item]) {
+                break;
+            }
+            position--;
+        }
+        if (position == topK) {
+            return;
+        }
+        System.arraycopy(top, base + position, top, base + position + 1, topK - position - 1);
+        top[base + position] = item;
+    }
+
+    // ==================== Cursor ====================
+
+    /**
+     * Position of an input field's text in the trie, kept between keystrokes
+     */
+    public final class Cursor {
+        private int[] path = new int[33];    // path[i] = node after i key characters
+        private char[] keys = new char[32];  // key characters matched so far
+        private int depth;                   // key characters matched
+        private int length;                  // key characters in the text, matched or not
+        private int walkedGeneration;
+
+        Cursor() {
+            path[0] = ROOT;
+        }
+
+        /**
+         * Follow text[start, end): the common prefix with the last text is kept, the rest is
+         * re-walked. Returns the number of completions
+         */
+        public int update(CharSequence text, int start, int end) {
+            if (walkedGeneration != generation) {
+                walkedGeneration = generation;
+                depth = 0;
+            }
+            int index = 0;
+            for (int i = start; i < end; i++) {
+                char c = keyChar(text.charAt(i));
+                if (c == 0) {
+                    continue;
+                }
+                if (index < depth && keys[index] == c) {
+                    index++;
+                    continue;
+                }
+                if (index < depth) {
+                    depth = index;
+                }
+                if (depth == index) {
+                    int next = child(path[depth], c);
+                    if (next != NONE) {
+                        push(c, next);
+                    }
+                }
+                index++;
+            }
+            if (index < depth) {
+                depth = index;
+            }
+            length = index;
+            return count();
+        }
+
+        public int update(CharSequence text) {
+            return update(text, 0, text.length());
+        }
+
+        /**
+         * Completions of the current text, at most getTopK()
+         */
+        public int count() {
+            if (length > depth) {
+                return 0;
+            }
+            int base = path[depth] * topK;
+            int count = 0;
+            while (count < topK && top[base + count] != NONE) {
+                count++;
+            }
+            return count;
+        }
+
+        /**
+         * Copy the completions, best first, into out[offset...]; returns how many were copied
+         */
+        public int completions(String[] out, int offset) {
+            int count = Math.min(count(), out.length - offset);
+            int base = path[depth] * topK;
+            for (int i = 0; i < count; i++) {
+                out[offset + i] = values[top[base + i]];
+            }
+            return count;
+        }
+
+        /**
+         * Check if the text is exactly the key of an item, i.e. there is nothing left to complete
+         */
+        public boolean isWholeKey() {
+            return length == depth && terminal[path[depth]] != NONE && count() == 1;
+        }
+
+        private void push(char c, int node) {
+            if (depth == keys.length) {
+                keys = Arrays.copyOf(keys, depth * 2);
+                path = Arrays.copyOf(path, depth * 2 + 1);
+            }
+            keys[depth++] = c;
+            path[depth] = node;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.loginmodule.loginAuth;
+
+import android.content.SharedPreferences;
+import android.util.Base64;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PrefsSessionStore - SessionStore on SharedPreferences
+ * The original UserSession storage; used when the mapped file cannot be opened.
+ * byte[] values are kept as Base64 strings.
+ */
+public class PrefsSessionStore implements SessionStore {
+    private final SharedPreferences preferences;
+
+    public PrefsSessionStore(SharedPreferences preferences) {
+        this.preferences = preferences;
+    }
+
+    @Override
+    public String getString(String key, String defaultValue) {
+        return preferences.getString(key, defaultValue);
+    }
+
+    @Override
+    public long getLong(String key, long defaultValue) {
+        return preferences.getLong(key, defaultValue);
+    }
+
+    @Override
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return preferences.getBoolean(key, defaultValue);
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        String encoded = preferences.getString(key, null);
+        if (encoded == null) {
+            return null;
+        }
+        try {
+            return Base64.decode(encoded, Base64.NO_WRAP);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Map<String, Object> getAll() {
+        return new HashMap<>(preferences.getAll());
+    }
+
+    @Override
+    public void apply(Map<String, Object> updates, boolean clearFirst) {
+        SharedPreferences.Editor editor = preferences.edit();
+        if (clearFirst) {
+            editor.clear();
+        }
+        for (Map.Entry<String, Object> entry : updates.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            if (value == null) {
+                editor.remove(key);
+            } else if (value instanceof String) {
+                editor.putString(key, (String) value);
+            } else if (value instanceof Long) {
+                editor.putLong(key, (Long) value);
+            } else if (value instanceof Boolean) {
+                editor.putBoolean(key, (Boolean) value);
+            } else if (value instanceof byte[]) {
+                editor.putString(key, Base64.encodeToString((byte[]) value, Base64.NO_WRAP));
+            } else {
+                throw new IllegalArgumentException("Unsupported session value for " + key + ": " + value);
+            }
+        }
+        editor.apply();
+    }
+
+    @Override
+    public void compact() {
+        // SharedPreferences rewrites the whole file on every apply; nothing is left behind
+    }
+}
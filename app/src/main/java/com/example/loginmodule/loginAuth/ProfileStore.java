@@ -0,0 +1,42 @@
+package com.example.loginmodule.loginAuth;
+
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+
+/**
+ * ProfileStore - Persistence for users/{uid} profile documents
+ * FirestoreProfileStore in production, InMemoryAuthBackend for load testing
+ */
+public interface ProfileStore {
+
+    interface ProfileCallback {
+        /**
+         * @param data document fields, or null if the profile does not exist
+         */
+        void onSuccess(@Nullable Map<String, Object> data);
+
+        void onError(String message);
+    }
+
+    interface WriteCallback {
+        void onSuccess();
+
+        void onError(String message);
+    }
+
+    /**
+     * Write the profile document for a user
+     */
+    void saveProfile(String uid, Map<String, Object> data);
+
+    /**
+     * Merge fields into several profile documents as one batch (uid -> changed fields)
+     */
+    void mergeProfiles(Map<String, Map<String, Object>> updates, WriteCallback callback);
+
+    /**
+     * Read the profile document for a user
+     */
+    void getProfile(String uid, ProfileCallback callback);
+}
@@ -0,0 +1,253 @@
+package com.example.loginmodule.loginAuth;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * RecordCodec - Compact, versioned binary encoding of flat records (session, profile fields)
+ * Each field is a varint tag (field id << 3 | wire type) followed by its value. Known field
+ * names are interned to small ids through a Schema; other names are written inline under id 0.
+ * Fields with ids a reader does not know are skipped, so a newer writer can add fields
+ * without breaking older readers. Values: String, Long/Integer, Boolean, Double, byte[], null.
+ * Records start with FORMAT_VERSION; a reader rejects versions newer than its own.
+ */
+public final class RecordCodec {
+    static final int FORMAT_VERSION = 1;
+
+    private static final int WIRE_VARINT = 0;   // zig-zag long
+    private static final int WIRE_FIXED64 = 1;  // double
+    private static final int WIRE_STRING = 2;   // length + UTF-8
+    private static final int WIRE_TRUE = 3;
+    private static final int WIRE_FALSE = 4;
+    private static final int WIRE_NULL = 5;
+    private static final int WIRE_BYTES = 6;    // length + raw bytes
+
+    private static final int NAMED_FIELD = 0;
+
+    /**
+     * Interned field names; ids are positions + 1, so fields may only ever be appended
+     */
+    public static final class Schema {
+        private final String[] names;
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        public Schema(String... names) {
+            this.names = names.clone();
+            for (int i = 0; i < names.length; i++) {
+                ids.put(names[i], i + 1);
+            }
+        }
+
+        int idOf(String name) {
+            Integer id = ids.get(name);
+            return id != null ? id : NAMED_FIELD;
+        }
+
+        String nameOf(int id) {
+            return id >= 1 && id <= names.length ? names[id - 1] : null;
+        }
+    }
+
+    private RecordCodec() {
+    }
+
+    public static byte[] encode(Map<String, ?> fields, Schema schema) {
+        Writer out = new Writer(16 + fields.size() * 16);
+        out.writeVarint(FORMAT_VERSION);
+        for (Map.Entry<String, ?> field : fields.entrySet()) {
+            Object value = field.getValue();
+            int wireType = wireTypeOf(field.getKey(), value);
+            int id = schema.idOf(field.getKey());
+            out.writeVarint(((long) id << 3) | wireType);
+            if (id == NAMED_FIELD) {
+                out.writeLengthDelimited(field.getKey().getBytes(StandardCharsets.UTF_8));
+            }
+            switch (wireType) {
+                case WIRE_VARINT:
+                    long number = ((Number) value).longValue();
+                    out.writeVarint((number << 1) ^ (number >> 63));
+                    break;
+                case WIRE_FIXED64:
+                    out.writeFixed64(Double.doubleToRawLongBits((Double) value));
+                    break;
+                case WIRE_STRING:
+                    out.writeLengthDelimited(((String) value).getBytes(StandardCharsets.UTF_8));
+                    break;
+                case WIRE_BYTES:
+                    out.writeLengthDelimited((byte[]) value);
+                    break;
+                default:
+                    // TRUE / FALSE / NULL carry no payload
+                    break;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a record; throws IllegalArgumentException if it is malformed or from a newer format
+     */
+    public static Map<String, Object> decode(byte[] record, Schema schema) {
+        Reader in = new Reader(record);
+        Map<String, Object> fields = new HashMap<>();
+        // Compatible changes only add fields; a new version means this reader cannot parse it
+        long version = in.readVarint();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported record version " + version);
+        }
+        while (in.hasRemaining()) {
+            long tag = in.readVarint();
+            int wireType = (int) (tag & 7);
+            long id = tag >>> 3;
+            String name;
+            if (id == NAMED_FIELD) {
+                name = new String(in.readLengthDelimited(), StandardCharsets.UTF_8);
+            } else {
+                name = id <= Integer.MAX_VALUE ? schema.nameOf((int) id) : null;
+            }
+
+            Object value;
+            switch (wireType) {
+                case WIRE_VARINT:
+                    long zigzag = in.readVarint();
+                    value = (zigzag >>> 1) ^ -(zigzag & 1);
+                    break;
+                case WIRE_FIXED64:
+                    value = Double.longBitsToDouble(in.readFixed64());
+                    break;
+                case WIRE_STRING:
+                    value = new String(in.readLengthDelimited(), StandardCharsets.UTF_8);
+                    break;
+                case WIRE_TRUE:
+                    value = Boolean.TRUE;
+                    break;
+                case WIRE_FALSE:
+                    value = Boolean.FALSE;
+                    break;
+                case WIRE_NULL:
+                    value = null;
+                    break;
+                case WIRE_BYTES:
+                    value = in.readLengthDelimited();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown wire type " + wireType);
+            }
+            if (name != null) {
+                fields.put(name, value);
+            }
+        }
+        return fields;
+    }
+
+    private static int wireTypeOf(String name, Object value) {
+        if (value == null) {
+            return WIRE_NULL;
+        } else if (value instanceof String) {
+            return WIRE_STRING;
+        } else if (value instanceof Long || value instanceof Integer) {
+            return WIRE_VARINT;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? WIRE_TRUE : WIRE_FALSE;
+        } else if (value instanceof Double) {
+            return WIRE_FIXED64;
+        } else if (value instanceof byte[]) {
+            return WIRE_BYTES;
+        }
+        throw new IllegalArgumentException("Unsupported value for " + name + ": " + value.getClass());
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int size;
+
+        Writer(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeFixed64(long value) {
+            ensure(8);
+            for (int i = 0; i < 8; i++) {
+                buffer[size++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        void writeLengthDelimited(byte[] bytes) {
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        boolean hasRemaining() {
+            return position < buffer.length;
+        }
+
+        long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = next();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Varint too long");
+        }
+
+        long readFixed64() {
+            long result = 0;
+            for (int i = 0; i < 8; i++) {
+                result |= (long) (next() & 0xFF) << (i * 8);
+            }
+            return result;
+        }
+
+        byte[] readLengthDelimited() {
+            long length = readVarint();
+            if (length < 0 || length > buffer.length - position) {
+                throw new IllegalArgumentException("Truncated record");
+            }
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + (int) length);
+            position += (int) length;
+            return bytes;
+        }
+
+        private byte next() {
+            if (position >= buffer.length) {
+                throw new IllegalArgumentException("Truncated record");
+            }
+            return buffer[position++];
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.loginmodule.loginAuth;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * SealedRecords - RecordCodec records kept in a SessionStore, sealed by SessionCipher
+ * Used for every file holding phones, emails or names (session, login history, detected
+ * accounts, profile outbox). Records that cannot be opened or decoded read as null, so the
+ * caller can erase them; without a cipher records are kept in plaintext (JVM tests).
+ */
+final class SealedRecords {
+    private final String tag;
+    private final SessionStore store;
+    private final SessionCipher cipher; // null stores the records in plaintext
+
+    SealedRecords(String tag, SessionStore store, SessionCipher cipher) {
+        this.tag = tag;
+        this.store = store;
+        this.cipher = cipher;
+    }
+
+    /**
+     * Records in a mapped file in noBackupFilesDir, sealed with a keystore-wrapped key kept in the same file
+     */
+    static SealedRecords open(Context context, String fileName, String prefsName, String tag) {
+        SessionStore store = openStore(context, fileName, prefsName, tag);
+        return new SealedRecords(tag, store, SessionCipher.keystoreBacked(store));
+    }
+
+    /**
+     * Mapped store in noBackupFilesDir, or the named SharedPreferences if the file cannot be mapped
+     */
+    static SessionStore openStore(Context context, String fileName, String prefsName, String tag) {
+        try {
+            return new MappedSessionStore(new File(context.getNoBackupFilesDir(), fileName));
+        } catch (IOException e) {
+            Log.e(tag, fileName + " unavailable, using SharedPreferences: " + e.getMessage());
+            SharedPreferences prefs = context.getSharedPreferences(prefsName, Context.MODE_PRIVATE);
+            return new PrefsSessionStore(prefs);
+        }
+    }
+
+    SessionStore getStore() {
+        return store;
+    }
+
+    boolean isSealed() {
+        return cipher != null;
+    }
+
+    /**
+     * Decoded record under the key, or null if it is absent, cannot be opened or does not decode
+     */
+    Map<String, Object> read(String key, RecordCodec.Schema schema) {
+        byte[] stored = store.getBytes(key);
+        byte[] record = stored != null ? open(stored) : null;
+        if (record == null) {
+            return null;
+        }
+        try {
+            return RecordCodec.decode(record, schema);
+        } catch (IllegalArgumentException e) {
+            Log.e(tag, "Unreadable record " + key + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Encode, seal and store the fields; false (nothing written) if sealing failed
+     */
+    boolean write(String key, Map<String, Object> fields, RecordCodec.Schema schema) {
+        byte[] sealed = seal(RecordCodec.encode(fields, schema));
+        if (sealed == null) {
+            return false;
+        }
+        store.apply(Collections.singletonMap(key, sealed), false);
+        return true;
+    }
+
+    /**
+     * Sealed form of an encoded record, or null if sealing failed; never falls back to plaintext
+     */
+    byte[] seal(byte[] record) {
+        if (cipher == null) {
+            return record;
+        }
+        try {
+            return cipher.seal(record);
+        } catch (GeneralSecurityException e) {
+            Log.e(tag, "Record kept in memory only, sealing failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Encoded record inside a sealed one, or null if it does not open (other key, plaintext, tampered)
+     */
+    byte[] open(byte[] stored) {
+        if (cipher == null) {
+            return stored;
+        }
+        try {
+            return cipher.open(stored);
+        } catch (GeneralSecurityException e) {
+            Log.e(tag, "Cannot open record: " + e.getMessage());
+            return null;
+        }
+    }
+}
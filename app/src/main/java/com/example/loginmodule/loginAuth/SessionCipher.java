@@ -0,0 +1,171 @@
+package com.example.loginmodule.loginAuth;
+
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.Log;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.Collections;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * SessionCipher - AES-GCM sealing of the session record
+ * A random 256-bit data key is wrapped by a non-exportable AndroidKeyStore key and kept next
+ * to the session. It is unwrapped once per process and cached, so sealing or opening the
+ * record is one software AES-GCM pass with no keystore IPC.
+ */
+public class SessionCipher {
+    private static final String TAG = "SessionCipher";
+    private static final String KEYSTORE = "AndroidKeyStore";
+    private static final String WRAPPING_KEY_ALIAS = "login_module_session_kek";
+    private static final String KEY_WRAPPED_DATA_KEY = "sessionDataKey";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int DATA_KEY_BYTES = 32;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final byte SEALED_VERSION = 1;
+    private static final byte[] AAD = "LoginModuleSession".getBytes(StandardCharsets.UTF_8);
+
+    private static final SecureRandom random = new SecureRandom();
+
+    /**
+     * Supplies the data key the first time it is needed
+     */
+    public interface KeySource {
+        SecretKey obtainKey() throws GeneralSecurityException;
+    }
+
+    private final KeySource keySource;
+    private volatile SecretKey dataKey;
+
+    public SessionCipher(KeySource keySource) {
+        this.keySource = keySource;
+    }
+
+    /**
+     * Cipher on a fixed key (tests, benchmarks)
+     */
+    public SessionCipher(SecretKey key) {
+        this(() -> key);
+    }
+
+    /**
+     * Cipher whose data key is wrapped by the AndroidKeyStore and stored in the given store
+     */
+    public static SessionCipher keystoreBacked(SessionStore store) {
+        return new SessionCipher(() -> loadOrCreateDataKey(store));
+    }
+
+    /**
+     * Encrypt into version | IV | ciphertext + tag
+     */
+    public byte[] seal(byte[] plaintext) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, key(), new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(AAD);
+
+        byte[] sealed = new byte[1 + IV_BYTES + cipher.getOutputSize(plaintext.length)];
+        sealed[0] = SEALED_VERSION;
+        System.arraycopy(iv, 0, sealed, 1, IV_BYTES);
+        cipher.doFinal(plaintext, 0, plaintext.length, sealed, 1 + IV_BYTES);
+        return sealed;
+    }
+
+    /**
+     * Decrypt and authenticate a sealed record
+     */
+    public byte[] open(byte[] sealed) throws GeneralSecurityException {
+        if (sealed.length < 1 + IV_BYTES || sealed[0] != SEALED_VERSION) {
+            throw new GeneralSecurityException("Unknown sealed record format");
+        }
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key(), new GCMParameterSpec(TAG_BITS, sealed, 1, IV_BYTES));
+        cipher.updateAAD(AAD);
+        return cipher.doFinal(sealed, 1 + IV_BYTES, sealed.length - 1 - IV_BYTES);
+    }
+
+    private SecretKey key() throws GeneralSecurityException {
+        SecretKey key = dataKey;
+        if (key == null) {
+            synchronized (this) {
+                if (dataKey == null) {
+                    dataKey = keySource.obtainKey();
+                }
+                key = dataKey;
+            }
+        }
+        return key;
+    }
+
+    // ==================== Keystore ====================
+
+    private static SecretKey loadOrCreateDataKey(SessionStore store) throws GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+        try {
+            keyStore.load(null);
+        } catch (IOException e) {
+            throw new GeneralSecurityException("AndroidKeyStore unavailable", e);
+        }
+
+        SecretKey wrappingKey = (SecretKey) keyStore.getKey(WRAPPING_KEY_ALIAS, null);
+        byte[] wrapped = store.getBytes(KEY_WRAPPED_DATA_KEY);
+        if (wrappingKey != null && wrapped != null) {
+            try {
+                return new SecretKeySpec(unwrap(wrappingKey, wrapped), "AES");
+            } catch (GeneralSecurityException e) {
+                // Keystore was reset (e.g. restored backup): the old record is unreadable anyway
+                Log.e(TAG, "Could not unwrap session key, creating a new one: " + e.getMessage());
+            }
+        }
+
+        if (wrappingKey == null) {
+            KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEYSTORE);
+            generator.init(new KeyGenParameterSpec.Builder(WRAPPING_KEY_ALIAS,
+                    KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                    .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                    .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                    .setKeySize(256)
+                    .build());
+            wrappingKey = generator.generateKey();
+        }
+
+        byte[] raw = new byte[DATA_KEY_BYTES];
+        random.nextBytes(raw);
+        store.apply(Collections.singletonMap(KEY_WRAPPED_DATA_KEY, wrap(wrappingKey, raw)), false);
+        return new SecretKeySpec(raw, "AES");
+    }
+
+    private static byte[] wrap(SecretKey wrappingKey, byte[] raw) throws GeneralSecurityException {
+        // Keystore keys pick their own IV
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, wrappingKey);
+        byte[] iv = cipher.getIV();
+        byte[] body = cipher.doFinal(raw);
+        byte[] wrapped = new byte[1 + iv.length + body.length];
+        wrapped[0] = (byte) iv.length;
+        System.arraycopy(iv, 0, wrapped, 1, iv.length);
+        System.arraycopy(body, 0, wrapped, 1 + iv.length, body.length);
+        return wrapped;
+    }
+
+    private static byte[] unwrap(SecretKey wrappingKey, byte[] wrapped) throws GeneralSecurityException {
+        int ivLength = wrapped.length > 0 ? wrapped[0] : 0;
+        if (ivLength <= 0 || wrapped.length <= 1 + ivLength) {
+            throw new GeneralSecurityException("Malformed wrapped key");
+        }
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, wrappingKey, new GCMParameterSpec(TAG_BITS, wrapped, 1, ivLength));
+        return cipher.doFinal(wrapped, 1 + ivLength, wrapped.length - 1 - ivLength);
+    }
+}
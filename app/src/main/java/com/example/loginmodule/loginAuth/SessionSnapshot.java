@@ -0,0 +1,70 @@
+package com.example.loginmodule.loginAuth;
+
+/**
+ * SessionSnapshot - Immutable view of the local session
+ * UserSession publishes a new snapshot on every commit; readers never take a lock
+ */
+public final class SessionSnapshot {
+    public static final SessionSnapshot EMPTY = new SessionSnapshot(false, "", "", "", "", "", 0);
+
+    private final boolean loggedIn;
+    private final String userId;
+    private final String userName;
+    private final String userPhone;
+    private final String userEmail;
+    private final String loginType;
+    private final long lastLogin;
+
+    SessionSnapshot(boolean loggedIn, String userId, String userName, String userPhone,
+            String userEmail, String loginType, long lastLogin) {
+        this.loggedIn = loggedIn;
+        this.userId = userId;
+        this.userName = userName;
+        this.userPhone = userPhone;
+        this.userEmail = userEmail;
+        this.loginType = loginType;
+        this.lastLogin = lastLogin;
+    }
+
+    public boolean isLoggedIn() {
+        return loggedIn;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getUserPhone() {
+        return userPhone;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public String getLoginType() {
+        return loginType;
+    }
+
+    public long getLastLogin() {
+        return lastLogin;
+    }
+
+    /**
+     * Phone or email, depending on how the user logged in
+     */
+    public String getDisplayIdentifier() {
+        return UserSession.LOGIN_TYPE_PHONE.equals(loginType) ? userPhone : userEmail;
+    }
+
+    /**
+     * Check if session is valid (has user ID)
+     */
+    public boolean isValid() {
+        return loggedIn && !userId.isEmpty();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.loginmodule.loginAuth;
+
+import java.util.Map;
+
+/**
+ * SessionStore - Key/value persistence behind UserSession
+ * Values are String, Long, Boolean or byte[]. MappedSessionStore by default, PrefsSessionStore as fallback.
+ */
+public interface SessionStore {
+
+    String getString(String key, String defaultValue);
+
+    long getLong(String key, long defaultValue);
+
+    boolean getBoolean(String key, boolean defaultValue);
+
+    /**
+     * Binary value for the key, or null
+     */
+    byte[] getBytes(String key);
+
+    /**
+     * Snapshot of every stored entry
+     */
+    Map<String, Object> getAll();
+
+    /**
+     * Apply a batch atomically: optionally clear first, then put each entry (null value removes the key)
+     */
+    void apply(Map<String, Object> updates, boolean clearFirst);
+
+    /**
+     * Physically drop overwritten and removed values (e.g. plaintext left behind by a migration)
+     */
+    void compact();
+}
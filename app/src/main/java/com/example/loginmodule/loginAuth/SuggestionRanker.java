@@ -0,0 +1,353 @@
+package com.example.loginmodule.loginAuth;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SuggestionRanker - Orders detected phones / emails by how likely the user is to pick them
+ * Each candidate is scored from a small history of successful logins (a login count that
+ * halves every HALF_LIFE_MS) plus static hints: the default line and lower SIM slots for
+ * phones, Google accounts for emails. The history keeps at most MAX_HISTORY identifiers,
+ * one slot each on disk, and a lookup per candidate makes ranking O(k) plus a sort of k.
+ * Slots are SealedRecords in login_history.bin; phone keys are E.164 in the device's detected country.
+ */
+public class SuggestionRanker {
+    private static final String TAG = "SuggestionRanker";
+    private static final String HISTORY_FILE = "login_history.bin";
+    private static final String PREF_NAME = "LoginModuleLoginHistory";
+    private static final String KEY_PREFIX = "slot.";
+    private static final String KEY_PREFIX_PHONE = "p:";
+    private static final String KEY_PREFIX_EMAIL = "e:";
+
+    static final int MAX_HISTORY = 32;
+    static final long HALF_LIFE_MS = TimeUnit.DAYS.toMillis(30);
+
+    // One recent login outweighs every static hint together
+    static final double WEIGHT_DEFAULT_LINE = 0.4;
+    static final double WEIGHT_SIM_SLOT = 0.2;
+    static final double WEIGHT_GOOGLE_ACCOUNT = 0.4;
+    static final String GOOGLE_ACCOUNT_TYPE = "com.google";
+
+    private static final String FIELD_KEY = "key";
+    private static final String FIELD_SCORE = "score";
+    private static final String FIELD_UPDATED_AT = "updatedAt";
+    private static final String FIELD_VALUE = "value";
+    // Append only: a field's id is its position
+    private static final RecordCodec.Schema ENTRY_SCHEMA =
+            new RecordCodec.Schema(FIELD_KEY, FIELD_SCORE, FIELD_UPDATED_AT, FIELD_VALUE);
+
+    public enum Kind {
+        PHONE,
+        EMAIL
+    }
+
+    /**
+     * A detected phone or email with the hints its source gave about it
+     */
+    public static final class Candidate {
+        final String value;
+        final Kind kind;
+        final boolean defaultLine;
+        final int simSlot;
+        final String accountType;
+
+        private Candidate(String value, Kind kind, boolean defaultLine, int simSlot, String accountType) {
+            this.value = value;
+            this.kind = kind;
+            this.defaultLine = defaultLine;
+            this.simSlot = simSlot;
+            this.accountType = accountType;
+        }
+
+        /**
+         * Phone number; simSlot is -1 when unknown
+         */
+        public static Candidate phone(String number, boolean defaultLine, int simSlot) {
+            return new Candidate(number, Kind.PHONE, defaultLine, simSlot, null);
+        }
+
+        /**
+         * Email of a device account; accountType may be null
+         */
+        public static Candidate email(String email, String accountType) {
+            return new Candidate(email, Kind.EMAIL, false, -1, accountType);
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Decayed login count of one identifier, stored in a fixed slot
+     */
+    private static final class Entry {
+        final int slot;
+        double score;
+        long updatedAtMs;
+        String value; // as last entered, for autocomplete; null in records written before it was kept
+
+        Entry(int slot, double score, long updatedAtMs, String value) {
+            this.slot = slot;
+            this.score = score;
+            this.updatedAtMs = updatedAtMs;
+            this.value = value;
+        }
+
+        double scoreAt(long nowMs) {
+            long age = Math.max(0, nowMs - updatedAtMs);
+            return score * Math.pow(0.5, (double) age / HALF_LIFE_MS);
+        }
+    }
+
+    private static SuggestionRanker instance;
+
+    private final SealedRecords records;
+    private final PhoneNumberNormalizer.Country country;
+
+    // Guarded by this; keyed by identity key (E.164 / canonical email)
+    private final Map<String, Entry> history = new HashMap<>();
+    private final String[] slots = new String[MAX_HISTORY];
+
+    SuggestionRanker(SessionStore store, SessionCipher cipher, PhoneNumberNormalizer.Country country) {
+        this(new SealedRecords(TAG, store, cipher), country);
+    }
+
+    private SuggestionRanker(SealedRecords records, PhoneNumberNormalizer.Country country) {
+        this.records = records;
+        this.country = country;
+        load();
+    }
+
+    /**
+     * Get the shared ranker; the first call reads the history from disk
+     */
+    public static synchronized SuggestionRanker getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            instance = new SuggestionRanker(SealedRecords.open(appContext, HISTORY_FILE, PREF_NAME, TAG),
+                    new AccountDetector(appContext).getDefaultCountry());
+        }
+        return instance;
+    }
+
+    /**
+     * Record a successful login off the main thread
+     */
+    public static void recordLoginInBackground(Context context, Kind kind, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        AuthExecutors.io().execute(() -> getInstance(appContext).recordLogin(kind, value));
+    }
+
+    /**
+     * Forget the history off the main thread, e.g. after the last account signed out
+     */
+    public static void clearInBackground(Context context) {
+        Context appContext = context.getApplicationContext();
+        AuthExecutors.io().execute(() -> getInstance(appContext).clear());
+    }
+
+    /**
+     * Candidates' values, most likely first; ties keep the detection order
+     */
+    public List<String> rank(List<Candidate> candidates) {
+        int count = candidates.size();
+        double[] scores = new double[count];
+        Integer[] order = new Integer[count];
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (int i = 0; i < count; i++) {
+                scores[i] = score(candidates.get(i), now);
+                order[i] = i;
+            }
+        }
+        // Stable, so equal scores stay in detection order
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+
+        List<String> ranked = new ArrayList<>(count);
+        for (Integer index : order) {
+            ranked.add(candidates.get(index).value);
+        }
+        return ranked;
+    }
+
+    private double score(Candidate candidate, long nowMs) {
+        double score = 0;
+        Entry entry = history.get(keyOf(candidate.kind, candidate.value));
+        if (entry != null) {
+            score += entry.scoreAt(nowMs);
+        }
+        if (candidate.defaultLine) {
+            score += WEIGHT_DEFAULT_LINE;
+        }
+        if (candidate.simSlot >= 0) {
+            score += WEIGHT_SIM_SLOT / (1 + candidate.simSlot);
+        }
+        if (GOOGLE_ACCOUNT_TYPE.equals(candidate.accountType)) {
+            score += WEIGHT_GOOGLE_ACCOUNT;
+        }
+        return score;
+    }
+
+    /**
+     * Count one successful login with this phone / email; evicts the weakest identifier when full
+     */
+    public synchronized void recordLogin(Kind kind, String value) {
+        String key = keyOf(kind, value);
+        if (key == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = history.get(key);
+        if (entry == null) {
+            entry = new Entry(freeSlot(now), 0, now, value);
+            history.put(key, entry);
+            slots[entry.slot] = key;
+        }
+        entry.score = entry.scoreAt(now) + 1;
+        entry.updatedAtMs = now;
+        entry.value = value;
+
+        Map<String, Object> record = new HashMap<>();
+        record.put(FIELD_KEY, key);
+        record.put(FIELD_SCORE, entry.score);
+        record.put(FIELD_UPDATED_AT, entry.updatedAtMs);
+        record.put(FIELD_VALUE, value);
+        records.write(KEY_PREFIX + entry.slot, record, ENTRY_SCHEMA);
+    }
+
+    /**
+     * Phones / emails logged in with before, as entered, most likely first
+     */
+    public List<String> getHistory(Kind kind) {
+        String prefix = kind == Kind.EMAIL ? KEY_PREFIX_EMAIL : KEY_PREFIX_PHONE;
+        long now = System.currentTimeMillis();
+        List<Entry> entries = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<String, Entry> entry : history.entrySet()) {
+                if (entry.getKey().startsWith(prefix) && entry.getValue().value != null) {
+                    entries.add(entry.getValue());
+                }
+            }
+            entries.sort((a, b) -> Double.compare(b.scoreAt(now), a.scoreAt(now)));
+            List<String> values = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                values.add(entry.value);
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Forget the whole history, e.g. when every account is removed
+     */
+    public synchronized void clear() {
+        Map<String, Object> removals = new HashMap<>();
+        for (int slot = 0; slot < MAX_HISTORY; slot++) {
+            if (slots[slot] != null) {
+                removals.put(KEY_PREFIX + slot, null);
+                slots[slot] = null;
+            }
+        }
+        history.clear();
+        records.getStore().apply(removals, false);
+    }
+
+    private int freeSlot(long nowMs) {
+        int weakest = -1;
+        double weakestScore = Double.MAX_VALUE;
+        for (int slot = 0; slot < MAX_HISTORY; slot++) {
+            if (slots[slot] == null) {
+                return slot;
+            }
+            double score = history.get(slots[slot]).scoreAt(nowMs);
+            if (score < weakestScore) {
+                weakestScore = score;
+                weakest = slot;
+            }
+        }
+        history.remove(slots[weakest]);
+        return weakest;
+    }
+
+    /**
+     * Identity of a phone / email, phones read in this device's country
+     */
+    String keyOf(Kind kind, String value) {
+        return keyOf(kind, value, country);
+    }
+
+    /**
+     * Identity of a phone / email regardless of how it was written, or null if unparseable
+     */
+    static String keyOf(Kind kind, String value, PhoneNumberNormalizer.Country country) {
+        if (value == null) {
+            return null;
+        }
+        if (kind == Kind.EMAIL) {
+            EmailNormalizer normalizer = EmailNormalizer.forCurrentThread();
+            return normalizer.parse(value) ? KEY_PREFIX_EMAIL + normalizer.toCanonical() : null;
+        }
+        PhoneNumberNormalizer normalizer = PhoneNumberNormalizer.forCurrentThread();
+        if (normalizer.parse(value, country)) {
+            return KEY_PREFIX_PHONE + normalizer.toE164();
+        }
+        String digits = normalizer.toDigits();
+        return digits.isEmpty() ? null : KEY_PREFIX_PHONE + digits;
+    }
+
+    /**
+     * Read every slot; unreadable ones (including plaintext records from older builds) are erased
+     */
+    private synchronized void load() {
+        Map<String, Object> removals = new HashMap<>();
+        SessionStore store = records.getStore();
+        for (int slot = 0; slot < MAX_HISTORY; slot++) {
+            String key = KEY_PREFIX + slot;
+            if (store.getBytes(key) != null && !restore(slot, records.read(key, ENTRY_SCHEMA))) {
+                removals.put(key, null);
+            }
+        }
+        if (!removals.isEmpty()) {
+            store.apply(removals, false);
+        }
+    }
+
+    private boolean restore(int slot, Map<String, Object> fields) {
+        if (fields == null) {
+            return false;
+        }
+        Object key = fields.get(FIELD_KEY);
+        Object score = fields.get(FIELD_SCORE);
+        Object updatedAt = fields.get(FIELD_UPDATED_AT);
+        Object value = fields.get(FIELD_VALUE);
+        if (!(key instanceof String) || !(score instanceof Double) || !(updatedAt instanceof Long)) {
+            return false;
+        }
+        // Re-derive the key from the value, so the detected country applies to older records
+        String identity = (String) key;
+        if (value instanceof String) {
+            Kind kind = identity.startsWith(KEY_PREFIX_EMAIL) ? Kind.EMAIL : Kind.PHONE;
+            String rekeyed = keyOf(kind, (String) value);
+            if (rekeyed != null) {
+                identity = rekeyed;
+            }
+        }
+        if (history.containsKey(identity)) {
+            return false;
+        }
+        history.put(identity, new Entry(slot, (Double) score, (Long) updatedAt,
+                value instanceof String ? (String) value : null));
+        slots[slot] = identity;
+        return true;
+    }
+}
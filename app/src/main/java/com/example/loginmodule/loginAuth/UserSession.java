@@ -2,15 +2,32 @@ package com.example.loginmodule.loginAuth;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.util.Log;
 
 import com.google.firebase.auth.FirebaseUser;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * UserSession - Manages local user session and preferences
  * Stores login state, user info for quick access
+ * Backed by a memory-mapped SessionStore holding one RecordCodec-encoded record, sealed
+ * with AES-GCM by SessionCipher; the old LoginModuleSession prefs keys are migrated once
+ * Keeps a bounded registry of accounts signed in on this device, keyed by uid, with one
+ * active account; switching is a pointer swap and the least recently used account is evicted
  */
 public class UserSession {
+    private static final String TAG = "UserSession";
     private static final String PREF_NAME = "LoginModuleSession";
+    private static final String SESSION_FILE = "login_session.bin";
     private static final String KEY_IS_LOGGED_IN = "isLoggedIn";
     private static final String KEY_USER_ID = "userId";
     private static final String KEY_USER_NAME = "userName";
@@ -18,142 +35,566 @@ public class UserSession {
     private static final String KEY_USER_EMAIL = "userEmail";
     private static final String KEY_LOGIN_TYPE = "loginType";
     private static final String KEY_LAST_LOGIN = "lastLogin";
+    private static final String KEY_RECORD = "sessionRecord";
+    private static final String KEY_SEALED_RECORD = "sessionRecordSealed";
+    private static final String KEY_REGISTRY = "sessionRegistry";
+    private static final String KEY_SEALED_REGISTRY = "sessionRegistrySealed";
+    private static final String KEY_ACTIVE_USER_ID = "activeUserId";
+    private static final String KEY_ACCOUNT_COUNT = "accountCount";
+    private static final String ACCOUNT_FIELD_PREFIX = "account";
+    public static final int DEFAULT_MAX_ACCOUNTS = 5;
+
+    // Field ids are the positions here: append new fields, never reorder
+    private static final String[] FIELD_KEYS = { KEY_IS_LOGGED_IN, KEY_USER_ID, KEY_USER_NAME,
+            KEY_USER_PHONE, KEY_USER_EMAIL, KEY_LOGIN_TYPE, KEY_LAST_LOGIN };
+    private static final RecordCodec.Schema SESSION_SCHEMA = new RecordCodec.Schema(FIELD_KEYS);
+    // Accounts are written as named fields account0..accountN-1, least recently used first
+    private static final RecordCodec.Schema REGISTRY_SCHEMA =
+            new RecordCodec.Schema(KEY_ACTIVE_USER_ID, KEY_ACCOUNT_COUNT);
 
     public static final String LOGIN_TYPE_PHONE = "phone";
     public static final String LOGIN_TYPE_EMAIL = "email";
     public static final String LOGIN_TYPE_GOOGLE = "google";
 
     private static UserSession instance;
-    private final SharedPreferences preferences;
-    private final SharedPreferences.Editor editor;
+    private final SessionStore store;
+    private final SealedRecords records;
+
+    // Replaced wholesale on commit; getters read it without locking
+    private volatile SessionSnapshot snapshot = SessionSnapshot.EMPTY;
+
+    // Guarded by this; access order, so iteration runs from least to most recently used
+    private final LinkedHashMap<String, SessionSnapshot> accounts = new LinkedHashMap<>(8, 0.75f, true);
+    private int maxAccounts = DEFAULT_MAX_ACCOUNTS;
+    private volatile OnAccountEvictedListener evictedListener;
+
+    /**
+     * Told about accounts dropped from the registry to make room (e.g. to forget the backend user)
+     */
+    public interface OnAccountEvictedListener {
+        void onAccountEvicted(String userId);
+    }
 
-    private UserSession(Context context) {
-        preferences = context.getApplicationContext()
-                .getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        editor = preferences.edit();
+    private UserSession(SessionStore store, SessionCipher cipher) {
+        this.store = store;
+        this.records = new SealedRecords(TAG, store, cipher);
+        load();
     }
 
     public static synchronized UserSession getInstance(Context context) {
         if (instance == null) {
-            instance = new UserSession(context);
+            SessionStore store = openDefaultStore(context.getApplicationContext());
+            instance = new UserSession(store, SessionCipher.keystoreBacked(store));
         }
         return instance;
     }
 
+    /**
+     * Replace the shared instance with one on the given store, unencrypted (e.g. JVM load tests)
+     */
+    public static synchronized UserSession initialize(SessionStore store) {
+        return initialize(store, null);
+    }
+
+    /**
+     * Replace the shared instance with one on the given store, sealing the record with the cipher
+     */
+    public static synchronized UserSession initialize(SessionStore store, SessionCipher cipher) {
+        instance = new UserSession(store, cipher);
+        return instance;
+    }
+
+    /**
+     * Mapped store in filesDir, seeded from the legacy prefs the first time it is created
+     */
+    private static SessionStore openDefaultStore(Context context) {
+        SharedPreferences legacy = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        File file = new File(context.getFilesDir(), SESSION_FILE);
+        boolean migrate = !file.exists();
+        try {
+            SessionStore store = new MappedSessionStore(file);
+            if (migrate) {
+                migrateFrom(legacy, store);
+            }
+            return store;
+        } catch (IOException e) {
+            Log.e(TAG, "Session file unavailable, using SharedPreferences: " + e.getMessage());
+            return new PrefsSessionStore(legacy);
+        }
+    }
+
+    /**
+     * Decrypt and decode the registry once; older single-session layouts (separate keys,
+     * plaintext or sealed record) become its only account and the leftovers are compacted away
+     */
+    private synchronized void load() {
+        byte[] stored = store.getBytes(records.isSealed() ? KEY_SEALED_REGISTRY : KEY_REGISTRY);
+        if (stored != null) {
+            byte[] registry = records.open(stored);
+            if (registry != null) {
+                restore(registry);
+            }
+            return;
+        }
+
+        SessionSnapshot legacy = loadSingleSession();
+        if (legacy == null) {
+            return;
+        }
+        register(legacy);
+        snapshot = legacy;
+
+        Map<String, Object> updates = registryUpdate();
+        for (String key : FIELD_KEYS) {
+            updates.put(key, null);
+        }
+        updates.put(KEY_RECORD, null);
+        updates.put(KEY_SEALED_RECORD, null);
+        store.apply(updates, false);
+        store.compact();
+    }
+
+    /**
+     * Session written before the registry existed, or null if there is none
+     */
+    private SessionSnapshot loadSingleSession() {
+        if (records.isSealed()) {
+            byte[] sealed = store.getBytes(KEY_SEALED_RECORD);
+            if (sealed != null) {
+                byte[] record = records.open(sealed);
+                return record != null ? decode(record) : null;
+            }
+        }
+
+        byte[] record = store.getBytes(KEY_RECORD);
+        if (record != null) {
+            return decode(record);
+        }
+
+        Map<String, Object> legacy = store.getAll();
+        if (!legacy.containsKey(KEY_USER_ID) && !legacy.containsKey(KEY_IS_LOGGED_IN)) {
+            return null;
+        }
+        return fromMap(legacy);
+    }
+
+    private void restore(byte[] record) {
+        Map<String, Object> registry;
+        try {
+            registry = RecordCodec.decode(record, REGISTRY_SCHEMA);
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, "Unreadable session registry: " + e.getMessage());
+            return;
+        }
+
+        Object count = registry.get(KEY_ACCOUNT_COUNT);
+        long accountCount = count instanceof Long ? (Long) count : 0;
+        for (int i = 0; i < accountCount; i++) {
+            Object account = registry.get(ACCOUNT_FIELD_PREFIX + i);
+            if (account instanceof byte[]) {
+                SessionSnapshot restored = decode((byte[]) account);
+                if (!restored.getUserId().isEmpty()) {
+                    accounts.put(restored.getUserId(), restored);
+                }
+            }
+        }
+
+        SessionSnapshot active = accounts.get(stringOrEmpty(registry.get(KEY_ACTIVE_USER_ID)));
+        snapshot = active != null ? active : SessionSnapshot.EMPTY;
+    }
+
+    /**
+     * Add or refresh an account as the most recently used one; returns the uids evicted for it
+     */
+    private List<String> register(SessionSnapshot account) {
+        if (account.getUserId().isEmpty()) {
+            return Collections.emptyList();
+        }
+        accounts.put(account.getUserId(), account);
+        return evictOverflow(account.getUserId());
+    }
+
+    private List<String> evictOverflow(String keepUserId) {
+        List<String> evicted = new ArrayList<>();
+        Iterator<String> eldest = accounts.keySet().iterator();
+        while (accounts.size() > maxAccounts && eldest.hasNext()) {
+            String userId = eldest.next();
+            if (!userId.equals(keepUserId)) {
+                eldest.remove();
+                evicted.add(userId);
+            }
+        }
+        return evicted;
+    }
+
+    private void notifyEvicted(List<String> evicted) {
+        OnAccountEvictedListener listener = evictedListener;
+        if (listener == null) {
+            return;
+        }
+        for (String userId : evicted) {
+            listener.onAccountEvicted(userId);
+        }
+    }
+
+    private void persist() {
+        store.apply(registryUpdate(), false);
+    }
+
+    /**
+     * Store update holding the encoded (and sealed) registry; never falls back to plaintext
+     */
+    private Map<String, Object> registryUpdate() {
+        Map<String, Object> updates = new HashMap<>();
+        byte[] record = null;
+        if (!accounts.isEmpty()) {
+            Map<String, Object> registry = new HashMap<>();
+            int index = 0;
+            for (SessionSnapshot account : accounts.values()) {
+                registry.put(ACCOUNT_FIELD_PREFIX + index++, RecordCodec.encode(toMap(account), SESSION_SCHEMA));
+            }
+            registry.put(KEY_ACCOUNT_COUNT, index);
+            registry.put(KEY_ACTIVE_USER_ID, snapshot.getUserId());
+            record = RecordCodec.encode(registry, REGISTRY_SCHEMA);
+        }
+
+        if (!records.isSealed()) {
+            updates.put(KEY_REGISTRY, record);
+            return updates;
+        }
+        updates.put(KEY_SEALED_REGISTRY, record != null ? records.seal(record) : null);
+        return updates;
+    }
+
+    private static SessionSnapshot decode(byte[] record) {
+        try {
+            return fromMap(RecordCodec.decode(record, SESSION_SCHEMA));
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, "Unreadable session record: " + e.getMessage());
+            return SessionSnapshot.EMPTY;
+        }
+    }
+
+    private static void migrateFrom(SharedPreferences legacy, SessionStore store) {
+        Map<String, ?> old = legacy.getAll();
+        if (old.isEmpty()) {
+            return;
+        }
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<String, ?> entry : old.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof String || value instanceof Long || value instanceof Boolean) {
+                values.put(entry.getKey(), value);
+            }
+        }
+        store.apply(values, false);
+        legacy.edit().clear().apply();
+    }
+
     /**
      * Create session after successful login
      */
     public void createSession(FirebaseUser user, String loginType) {
-        if (user == null)
-            return;
+        createSession(AuthUser.from(user), loginType);
+    }
 
-        editor.putBoolean(KEY_IS_LOGGED_IN, true);
-        editor.putString(KEY_USER_ID, user.getUid());
-        editor.putString(KEY_USER_PHONE, user.getPhoneNumber() != null ? user.getPhoneNumber() : "");
-        editor.putString(KEY_USER_EMAIL, user.getEmail() != null ? user.getEmail() : "");
-        editor.putString(KEY_USER_NAME, user.getDisplayName() != null ? user.getDisplayName() : "");
-        editor.putString(KEY_LOGIN_TYPE, loginType);
-        editor.putLong(KEY_LAST_LOGIN, System.currentTimeMillis());
-        editor.apply();
+    /**
+     * Create session after successful login
+     */
+    public void createSession(AuthUser user, String loginType) {
+        edit().createSession(user, loginType).commit();
     }
 
     /**
      * Update user name in session
      */
     public void setUserName(String name) {
-        editor.putString(KEY_USER_NAME, name);
-        editor.apply();
+        edit().setUserName(name).commit();
     }
 
     /**
      * Update user email in session
      */
     public void setUserEmail(String email) {
-        editor.putString(KEY_USER_EMAIL, email);
-        editor.apply();
+        edit().setUserEmail(email).commit();
     }
 
     /**
      * Update user phone in session
      */
     public void setUserPhone(String phone) {
-        editor.putString(KEY_USER_PHONE, phone);
-        editor.apply();
+        edit().setUserPhone(phone).commit();
+    }
+
+    /**
+     * Start a transaction; chain the changes and commit() once to publish and persist them together
+     */
+    public Editor edit() {
+        return new Editor();
+    }
+
+    /**
+     * Current immutable session state
+     */
+    public SessionSnapshot getSnapshot() {
+        return snapshot;
     }
 
     /**
      * Check if user is logged in
      */
     public boolean isLoggedIn() {
-        return preferences.getBoolean(KEY_IS_LOGGED_IN, false);
+        return snapshot.isLoggedIn();
     }
 
     /**
      * Get user ID
      */
     public String getUserId() {
-        return preferences.getString(KEY_USER_ID, "");
+        return snapshot.getUserId();
     }
 
     /**
      * Get user name
      */
     public String getUserName() {
-        return preferences.getString(KEY_USER_NAME, "");
+        return snapshot.getUserName();
     }
 
     /**
      * Get user phone
      */
     public String getUserPhone() {
-        return preferences.getString(KEY_USER_PHONE, "");
+        return snapshot.getUserPhone();
     }
 
     /**
      * Get user email
      */
     public String getUserEmail() {
-        return preferences.getString(KEY_USER_EMAIL, "");
+        return snapshot.getUserEmail();
     }
 
     /**
      * Get login type
      */
     public String getLoginType() {
-        return preferences.getString(KEY_LOGIN_TYPE, "");
+        return snapshot.getLoginType();
     }
 
     /**
      * Get last login timestamp
      */
     public long getLastLogin() {
-        return preferences.getLong(KEY_LAST_LOGIN, 0);
+        return snapshot.getLastLogin();
     }
 
     /**
      * Get display identifier (phone or email based on login type)
      */
     public String getDisplayIdentifier() {
-        String loginType = getLoginType();
-        if (LOGIN_TYPE_PHONE.equals(loginType)) {
-            return getUserPhone();
-        } else {
-            return getUserEmail();
-        }
+        return snapshot.getDisplayIdentifier();
     }
 
     /**
-     * Clear session on logout
+     * Clear the active account's session on logout; other accounts on the device stay cached
      */
     public void clearSession() {
-        editor.clear();
-        editor.apply();
+        edit().clear().commit();
     }
 
     /**
      * Check if session is valid (has user ID)
      */
     public boolean isValidSession() {
-        return isLoggedIn() && !getUserId().isEmpty();
+        return snapshot.isValid();
+    }
+
+    // ==================== Accounts ====================
+
+    /**
+     * Cached accounts, most recently used first
+     */
+    public synchronized List<SessionSnapshot> getAccounts() {
+        List<SessionSnapshot> list = new ArrayList<>(accounts.values());
+        Collections.reverse(list);
+        return list;
+    }
+
+    /**
+     * Make a cached account the active one; false if the account is not cached
+     */
+    public synchronized boolean switchAccount(String userId) {
+        SessionSnapshot account = accounts.get(userId);
+        if (account == null) {
+            return false;
+        }
+        if (account != snapshot) {
+            snapshot = account;
+            persist();
+        }
+        return true;
+    }
+
+    /**
+     * Drop one cached account; removing the active one leaves no account active
+     */
+    public synchronized void removeAccount(String userId) {
+        if (accounts.remove(userId) == null) {
+            return;
+        }
+        if (userId.equals(snapshot.getUserId())) {
+            snapshot = SessionSnapshot.EMPTY;
+        }
+        persist();
+    }
+
+    /**
+     * Drop every cached account
+     */
+    public synchronized void clearAllSessions() {
+        accounts.clear();
+        snapshot = SessionSnapshot.EMPTY;
+        persist();
+    }
+
+    /**
+     * Bound the number of cached accounts; least recently used ones beyond it are evicted
+     */
+    public void setMaxAccounts(int maxAccounts) {
+        List<String> evicted;
+        synchronized (this) {
+            this.maxAccounts = Math.max(1, maxAccounts);
+            evicted = evictOverflow(snapshot.getUserId());
+            if (!evicted.isEmpty()) {
+                persist();
+            }
+        }
+        notifyEvicted(evicted);
+    }
+
+    public void setOnAccountEvictedListener(OnAccountEvictedListener listener) {
+        evictedListener = listener;
+    }
+
+    // ==================== Transactions ====================
+
+    /**
+     * Batched session changes; nothing is visible or written until commit()
+     */
+    public final class Editor {
+        private final Map<String, Object> changes = new HashMap<>();
+        private boolean clear;
+
+        private Editor() {
+        }
+
+        public Editor createSession(AuthUser user, String loginType) {
+            if (user == null)
+                return this;
+
+            changes.put(KEY_IS_LOGGED_IN, true);
+            changes.put(KEY_USER_ID, user.getUid());
+            changes.put(KEY_USER_PHONE, user.getPhoneNumber() != null ? user.getPhoneNumber() : "");
+            changes.put(KEY_USER_EMAIL, user.getEmail() != null ? user.getEmail() : "");
+            changes.put(KEY_USER_NAME, user.getDisplayName() != null ? user.getDisplayName() : "");
+            changes.put(KEY_LOGIN_TYPE, loginType);
+            changes.put(KEY_LAST_LOGIN, System.currentTimeMillis());
+            return this;
+        }
+
+        public Editor setUserName(String name) {
+            changes.put(KEY_USER_NAME, name);
+            return this;
+        }
+
+        public Editor setUserEmail(String email) {
+            changes.put(KEY_USER_EMAIL, email);
+            return this;
+        }
+
+        public Editor setUserPhone(String phone) {
+            changes.put(KEY_USER_PHONE, phone);
+            return this;
+        }
+
+        /**
+         * Drop the active account's session; changes chained after this call still apply
+         */
+        public Editor clear() {
+            clear = true;
+            changes.clear();
+            return this;
+        }
+
+        /**
+         * Publish the new snapshot atomically and persist it with a single store write
+         * Creating a session for another uid makes it the active account and keeps the previous one cached
+         */
+        public void commit() {
+            if (changes.isEmpty() && !clear) {
+                return;
+            }
+            List<String> evicted;
+            synchronized (UserSession.this) {
+                SessionSnapshot base = snapshot;
+                if (clear) {
+                    accounts.remove(base.getUserId());
+                    base = SessionSnapshot.EMPTY;
+                }
+                Object userId = changes.get(KEY_USER_ID);
+                if (userId != null && !userId.equals(base.getUserId())) {
+                    SessionSnapshot cached = accounts.get(userId);
+                    base = cached != null ? cached : SessionSnapshot.EMPTY;
+                }
+
+                Map<String, Object> values = toMap(base);
+                for (Map.Entry<String, Object> change : changes.entrySet()) {
+                    if (change.getValue() == null) {
+                        values.remove(change.getKey());
+                    } else {
+                        values.put(change.getKey(), change.getValue());
+                    }
+                }
+                SessionSnapshot next = fromMap(values);
+                evicted = register(next);
+                snapshot = next;
+                persist();
+            }
+            notifyEvicted(evicted);
+        }
+    }
+
+    private static Map<String, Object> toMap(SessionSnapshot snapshot) {
+        Map<String, Object> values = new HashMap<>();
+        if (snapshot == SessionSnapshot.EMPTY) {
+            return values;
+        }
+        values.put(KEY_IS_LOGGED_IN, snapshot.isLoggedIn());
+        values.put(KEY_USER_ID, snapshot.getUserId());
+        values.put(KEY_USER_NAME, snapshot.getUserName());
+        values.put(KEY_USER_PHONE, snapshot.getUserPhone());
+        values.put(KEY_USER_EMAIL, snapshot.getUserEmail());
+        values.put(KEY_LOGIN_TYPE, snapshot.getLoginType());
+        values.put(KEY_LAST_LOGIN, snapshot.getLastLogin());
+        return values;
+    }
+
+    private static SessionSnapshot fromMap(Map<String, Object> values) {
+        if (values.isEmpty()) {
+            return SessionSnapshot.EMPTY;
+        }
+        return new SessionSnapshot(
+                Boolean.TRUE.equals(values.get(KEY_IS_LOGGED_IN)),
+                stringOrEmpty(values.get(KEY_USER_ID)),
+                stringOrEmpty(values.get(KEY_USER_NAME)),
+                stringOrEmpty(values.get(KEY_USER_PHONE)),
+                stringOrEmpty(values.get(KEY_USER_EMAIL)),
+                stringOrEmpty(values.get(KEY_LOGIN_TYPE)),
+                values.get(KEY_LAST_LOGIN) instanceof Long ? (Long) values.get(KEY_LAST_LOGIN) : 0);
+    }
+
+    private static String stringOrEmpty(Object value) {
+        return value instanceof String ? (String) value : "";
     }
 }
@@ -0,0 +1,412 @@
+package com.example.loginmodule.loginAuth;
+
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WriteBehindProfileStore - Coalescing write-behind queue in front of a ProfileStore
+ * Repeated saves for the same uid within the window collapse into one merge write that
+ * carries only changed fields, flushed through ProfileStore.mergeProfiles (a WriteBatch
+ * on Firestore). Pending writes are mirrored to a small outbox file so they survive
+ * process death; each outbox entry (uid and fields) is sealed with SealedRecords.
+ */
+public class WriteBehindProfileStore implements ProfileStore {
+    private static final String TAG = "WriteBehindProfileStore";
+    private static final long DEFAULT_WINDOW_MS = 2000;
+    private static final long MAX_RETRY_DELAY_MS = 60000;
+    private static final int MAX_BATCH_SIZE = 500; // Firestore WriteBatch limit
+    private static final int OUTBOX_VERSION = 4;
+
+    // Interned ids for the fields AuthManager writes; append only
+    private static final RecordCodec.Schema PROFILE_SCHEMA = new RecordCodec.Schema(
+            "uid", "phone", "name", "email", "lastLogin", "createdAt");
+
+    private final ProfileStore delegate;
+    private final long windowMs;
+    private final ScheduledExecutorService executor;
+
+    // Guarded by this
+    private final Map<String, Map<String, Object>> pending = new LinkedHashMap<>();
+    private final Map<String, Map<String, Object>> inFlight = new LinkedHashMap<>();
+    private final Map<String, Map<String, Object>> lastWritten = new HashMap<>();
+    private File outboxFile;
+    private SealedRecords outboxRecords;
+    private boolean flushScheduled = false;
+    private long retryDelayMs;
+
+    public WriteBehindProfileStore(ProfileStore delegate) {
+        this(delegate, DEFAULT_WINDOW_MS);
+    }
+
+    public WriteBehindProfileStore(ProfileStore delegate, long windowMs) {
+        this.delegate = delegate;
+        this.windowMs = windowMs;
+        this.retryDelayMs = windowMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, TAG);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Persist the queue to this file, sealing each entry, and replay whatever a previous process left there
+     */
+    void setOutboxFile(File file, SealedRecords records) {
+        executor.execute(() -> {
+            synchronized (this) {
+                if (outboxFile != null) {
+                    return;
+                }
+                outboxFile = file;
+                outboxRecords = records;
+                readOutbox();
+                if (!pending.isEmpty()) {
+                    scheduleFlush(0);
+                }
+            }
+        });
+    }
+
+    /**
+     * Queue the fields for a merge write; has merge semantics, not a full overwrite
+     */
+    @Override
+    public void saveProfile(String uid, Map<String, Object> data) {
+        synchronized (this) {
+            Map<String, Object> fields = pending.get(uid);
+            if (fields == null) {
+                fields = new HashMap<>();
+                pending.put(uid, fields);
+            }
+            fields.putAll(data);
+            scheduleFlush(windowMs);
+        }
+        executor.execute(this::persistOutbox);
+    }
+
+    /**
+     * Queue every update; the callback reports that they were queued, not written
+     */
+    @Override
+    public void mergeProfiles(Map<String, Map<String, Object>> updates, WriteCallback callback) {
+        for (Map.Entry<String, Map<String, Object>> update : updates.entrySet()) {
+            saveProfile(update.getKey(), update.getValue());
+        }
+        callback.onSuccess();
+    }
+
+    /**
+     * Read from the delegate with queued (not yet flushed) fields applied on top
+     */
+    @Override
+    public void getProfile(String uid, ProfileCallback callback) {
+        delegate.getProfile(uid, new ProfileCallback() {
+            @Override
+            public void onSuccess(Map<String, Object> data) {
+                Map<String, Object> overlay = queuedFields(uid);
+                if (overlay == null) {
+                    callback.onSuccess(data);
+                    return;
+                }
+                Map<String, Object> merged = data != null ? new HashMap<>(data) : new HashMap<>();
+                merged.putAll(overlay);
+                callback.onSuccess(merged);
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    /**
+     * Flush immediately instead of waiting for the window
+     */
+    public synchronized void flush() {
+        scheduleFlush(0);
+    }
+
+    /**
+     * Number of uids waiting to be written
+     */
+    public synchronized int getPendingCount() {
+        return pending.size() + inFlight.size();
+    }
+
+    private synchronized Map<String, Object> queuedFields(String uid) {
+        Map<String, Object> sent = inFlight.get(uid);
+        Map<String, Object> queued = pending.get(uid);
+        if (sent == null && queued == null) {
+            return null;
+        }
+        Map<String, Object> overlay = new HashMap<>();
+        if (sent != null) {
+            overlay.putAll(sent);
+        }
+        if (queued != null) {
+            overlay.putAll(queued);
+        }
+        return overlay;
+    }
+
+    private synchronized void scheduleFlush(long delayMs) {
+        if (flushScheduled && delayMs > 0) {
+            return;
+        }
+        flushScheduled = true;
+        executor.schedule(this::doFlush, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void doFlush() {
+        Map<String, Map<String, Object>> batch = new LinkedHashMap<>();
+        synchronized (this) {
+            flushScheduled = false;
+            if (!inFlight.isEmpty() || pending.isEmpty()) {
+                // Previous batch still running; its completion reschedules
+                return;
+            }
+
+            List<String> uids = new ArrayList<>(pending.keySet());
+            for (String uid : uids) {
+                if (batch.size() >= MAX_BATCH_SIZE) {
+                    break;
+                }
+                Map<String, Object> changed = changedFields(uid, pending.remove(uid));
+                if (!changed.isEmpty()) {
+                    inFlight.put(uid, changed);
+                    batch.put(uid, changed);
+                }
+            }
+        }
+
+        if (batch.isEmpty()) {
+            persistOutbox();
+            return;
+        }
+
+        Log.d(TAG, "Flushing " + batch.size() + " profile writes");
+        delegate.mergeProfiles(batch, new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                executor.execute(() -> onFlushed(batch));
+            }
+
+            @Override
+            public void onError(String message) {
+                Log.e(TAG, "Profile flush failed: " + message);
+                executor.execute(() -> onFlushFailed(batch));
+            }
+        });
+    }
+
+    /**
+     * Drop fields whose value equals what was last written
+     */
+    private Map<String, Object> changedFields(String uid, Map<String, Object> fields) {
+        Map<String, Object> previous = lastWritten.get(uid);
+        Map<String, Object> changed = new HashMap<>();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            if (previous != null && previous.containsKey(field.getKey())
+                    && Objects.equals(previous.get(field.getKey()), field.getValue())) {
+                continue;
+            }
+            changed.put(field.getKey(), field.getValue());
+        }
+        return changed;
+    }
+
+    private void onFlushed(Map<String, Map<String, Object>> batch) {
+        synchronized (this) {
+            for (Map.Entry<String, Map<String, Object>> written : batch.entrySet()) {
+                inFlight.remove(written.getKey());
+                Map<String, Object> previous = lastWritten.get(written.getKey());
+                if (previous == null) {
+                    previous = new HashMap<>();
+                    lastWritten.put(written.getKey(), previous);
+                }
+                previous.putAll(written.getValue());
+            }
+            retryDelayMs = windowMs;
+            if (!pending.isEmpty()) {
+                scheduleFlush(windowMs);
+            }
+        }
+        persistOutbox();
+    }
+
+    private void onFlushFailed(Map<String, Map<String, Object>> batch) {
+        synchronized (this) {
+            for (Map.Entry<String, Map<String, Object>> failed : batch.entrySet()) {
+                inFlight.remove(failed.getKey());
+                // Newer queued values win over the failed ones
+                Map<String, Object> retry = new HashMap<>(failed.getValue());
+                Map<String, Object> newer = pending.get(failed.getKey());
+                if (newer != null) {
+                    retry.putAll(newer);
+                }
+                pending.put(failed.getKey(), retry);
+            }
+            retryDelayMs = Math.min(Math.max(retryDelayMs, 1) * 2, MAX_RETRY_DELAY_MS);
+            flushScheduled = true;
+            executor.schedule(this::doFlush, retryDelayMs, TimeUnit.MILLISECONDS);
+        }
+        persistOutbox();
+    }
+
+    // ==================== Outbox ====================
+
+    /**
+     * Snapshot the queue under the lock, write it outside; only runs on the executor thread
+     */
+    private void persistOutbox() {
+        File file;
+        SealedRecords records;
+        Map<String, Map<String, Object>> queued = new LinkedHashMap<>();
+        synchronized (this) {
+            if (outboxFile == null) {
+                return;
+            }
+            file = outboxFile;
+            records = outboxRecords;
+            for (Map.Entry<String, Map<String, Object>> entry : inFlight.entrySet()) {
+                queued.put(entry.getKey(), new HashMap<>(entry.getValue()));
+            }
+            for (Map.Entry<String, Map<String, Object>> entry : pending.entrySet()) {
+                Map<String, Object> fields = queued.get(entry.getKey());
+                if (fields == null) {
+                    fields = new HashMap<>();
+                    queued.put(entry.getKey(), fields);
+                }
+                fields.putAll(entry.getValue());
+            }
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp))) {
+            out.writeInt(OUTBOX_VERSION);
+            out.writeInt(queued.size());
+            for (Map.Entry<String, Map<String, Object>> entry : queued.entrySet()) {
+                byte[] sealed = records.seal(encodeEntry(entry.getKey(), entry.getValue()));
+                if (sealed == null) {
+                    throw new IOException("Sealing failed");
+                }
+                out.writeInt(sealed.length);
+                out.write(sealed);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write outbox: " + e.getMessage());
+            return;
+        }
+
+        if (!tmp.renameTo(file)) {
+            Log.e(TAG, "Failed to replace outbox");
+        }
+    }
+
+    /**
+     * Replay the outbox; one that does not open (older plaintext format, lost key) is dropped whole
+     */
+    private void readOutbox() {
+        if (!outboxFile.exists()) {
+            return;
+        }
+
+        Map<String, Map<String, Object>> queued = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new FileInputStream(outboxFile))) {
+            int version = in.readInt();
+            if (version != OUTBOX_VERSION) {
+                throw new IOException("Unsupported outbox version " + version);
+            }
+            int queuedCount = in.readInt();
+            for (int i = 0; i < queuedCount; i++) {
+                byte[] sealed = new byte[in.readInt()];
+                in.readFully(sealed);
+                byte[] entry = outboxRecords.open(sealed);
+                if (entry == null) {
+                    throw new IOException("Cannot open outbox entry");
+                }
+                decodeEntry(entry, queued);
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Dropping unreadable outbox: " + e.getMessage());
+            if (!outboxFile.delete()) {
+                Log.e(TAG, "Failed to delete outbox");
+            }
+            return;
+        }
+
+        for (Map.Entry<String, Map<String, Object>> entry : queued.entrySet()) {
+            Map<String, Object> fields = entry.getValue();
+            Map<String, Object> newer = pending.get(entry.getKey());
+            if (newer != null) {
+                fields.putAll(newer);
+            }
+            pending.put(entry.getKey(), fields);
+        }
+    }
+
+    /**
+     * uid followed by the fields' record, sealed as one so neither is stored in the clear
+     */
+    private static byte[] encodeEntry(String uid, Map<String, Object> fields) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(uid);
+            writeFields(out, fields);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void decodeEntry(byte[] entry, Map<String, Map<String, Object>> into) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry))) {
+            String uid = in.readUTF();
+            into.put(uid, readFields(in));
+        }
+    }
+
+    private static void writeFields(DataOutputStream out, Map<String, Object> fields) throws IOException {
+        Map<String, Object> supported = new HashMap<>();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            Object value = field.getValue();
+            if (value == null || value instanceof String || value instanceof Long || value instanceof Integer
+                    || value instanceof Boolean || value instanceof Double) {
+                supported.put(field.getKey(), value);
+            } else {
+                Log.w(TAG, "Not persisting field " + field.getKey() + " of type " + value.getClass());
+            }
+        }
+
+        byte[] record = RecordCodec.encode(supported, PROFILE_SCHEMA);
+        out.writeInt(record.length);
+        out.write(record);
+    }
+
+    private static Map<String, Object> readFields(DataInputStream in) throws IOException {
+        byte[] record = new byte[in.readInt()];
+        in.readFully(record);
+        try {
+            return RecordCodec.decode(record, PROFILE_SCHEMA);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt outbox record", e);
+        }
+    }
+}
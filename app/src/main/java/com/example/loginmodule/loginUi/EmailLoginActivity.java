@@ -5,7 +5,6 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextWatcher;
-import android.util.Patterns;
 import android.view.View;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.OvershootInterpolator;
@@ -21,17 +20,27 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.airbnb.lottie.LottieAnimationView;
 import com.example.loginmodule.MainActivity;
 import com.example.loginmodule.R;
+import com.example.loginmodule.loginAuth.AuthExecutors;
 import com.example.loginmodule.loginAuth.AuthManager;
+import com.example.loginmodule.loginAuth.AuthRequest;
+import com.example.loginmodule.loginAuth.AuthUser;
+import com.example.loginmodule.loginAuth.EmailNormalizer;
+import com.example.loginmodule.loginAuth.LoginTracer;
+import com.example.loginmodule.loginAuth.PrefixTrie;
+import com.example.loginmodule.loginAuth.SessionSnapshot;
+import com.example.loginmodule.loginAuth.SuggestionRanker;
 import com.example.loginmodule.loginAuth.UserSession;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
-import com.google.firebase.auth.FirebaseUser;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class EmailLoginActivity extends AppCompatActivity {
 
+    private static final int MAX_SUGGESTIONS = 3;
+
     private LottieAnimationView lottieEmail;
     private ImageView btnBack;
     private TextView tvTitle;
@@ -46,6 +55,19 @@ public class EmailLoginActivity extends AppCompatActivity {
     private ArrayList<String> detectedEmails;
     private AuthManager authManager;
     private UserSession userSession;
+    private AuthRequest<AuthManager.AuthCallback> authRequest;
+    private long traceFlow = LoginTracer.NO_FLOW;
+
+    // Live completions: whole addresses (detected, then used before), then domains after the '@'
+    private final PrefixTrie emailCompletions = new PrefixTrie(PrefixTrie.KeyMode.TEXT, MAX_SUGGESTIONS);
+    private final PrefixTrie.Cursor emailCursor = emailCompletions.newCursor();
+    private final PrefixTrie domainCompletions = new PrefixTrie(PrefixTrie.KeyMode.TEXT, MAX_SUGGESTIONS);
+    private final PrefixTrie.Cursor domainCursor = domainCompletions.newCursor();
+    private final String[] completionBuffer = new String[MAX_SUGGESTIONS];
+    private final String[] shownCompletions = new String[MAX_SUGGESTIONS];
+    private int shownCompletionCount;
+    private int shownDomainStart;
+    private List<String> emailHistory = new ArrayList<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -55,11 +77,13 @@ public class EmailLoginActivity extends AppCompatActivity {
         detectedEmails = getIntent().getStringArrayListExtra("detected_emails");
         initViews();
         setupListeners();
+        rebuildEmailCompletions();
+        loadEmailHistory();
         startEntranceAnimations();
     }
 
     private void initViews() {
-        authManager = AuthManager.getInstance();
+        authManager = AuthManager.getInstance(this);
         userSession = UserSession.getInstance(this);
 
         lottieEmail = findViewById(R.id.lottieEmail);
@@ -87,8 +111,7 @@ public class EmailLoginActivity extends AppCompatActivity {
         btnBack.setOnClickListener(v -> onBackPressed());
 
         etEmail.setOnFocusChangeListener((v, hasFocus) -> {
-            if (hasFocus && detectedEmails != null && !detectedEmails.isEmpty() &&
-                    (etEmail.getText() == null || etEmail.getText().toString().isEmpty())) {
+            if (hasFocus) {
                 showEmailSuggestions();
             } else {
                 hideSuggestions();
@@ -106,7 +129,6 @@ public class EmailLoginActivity extends AppCompatActivity {
                 tilPassword.setError(null);
                 tilName.setError(null);
                 tilConfirmPassword.setError(null);
-                hideSuggestions();
                 updateSubmitButtonState();
             }
 
@@ -115,7 +137,28 @@ public class EmailLoginActivity extends AppCompatActivity {
             }
         };
 
+        // Only the email field drives the suggestions
+        TextWatcher emailSuggestionWatcher = new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int a, int b, int c) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int a, int b, int c) {
+                if (etEmail.hasFocus()) {
+                    showEmailSuggestions();
+                } else {
+                    hideSuggestions();
+                }
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+            }
+        };
+
         etEmail.addTextChangedListener(clearErrorWatcher);
+        etEmail.addTextChangedListener(emailSuggestionWatcher);
         etPassword.addTextChangedListener(clearErrorWatcher);
         etName.addTextChangedListener(clearErrorWatcher);
         etConfirmPassword.addTextChangedListener(clearErrorWatcher);
@@ -144,13 +187,94 @@ public class EmailLoginActivity extends AppCompatActivity {
         updateSubmitButtonState();
     }
 
+    /**
+     * History is read off the main thread; completions are rebuilt once it is in
+     */
+    private void loadEmailHistory() {
+        SuggestionRanker.Kind kind = SuggestionRanker.Kind.EMAIL;
+        AuthExecutors.io().execute(() -> {
+            List<String> history = SuggestionRanker.getInstance(this).getHistory(kind);
+            AuthExecutors.mainThread().execute(() -> {
+                if (isDestroyed()) {
+                    return;
+                }
+                emailHistory = history;
+                rebuildEmailCompletions();
+                if (etEmail.hasFocus()) {
+                    showEmailSuggestions();
+                }
+            });
+        });
+    }
+
+    /**
+     * Refill the tries in priority order; an address already added keeps its first, higher weight
+     */
+    private void rebuildEmailCompletions() {
+        emailCompletions.clear();
+        double weight = 0;
+        if (detectedEmails != null) {
+            for (String email : detectedEmails) {
+                emailCompletions.add(email, email, weight--);
+            }
+        }
+        for (String email : emailHistory) {
+            emailCompletions.add(email, email, weight--);
+        }
+        for (SessionSnapshot account : userSession.getAccounts()) {
+            String email = account.getUserEmail();
+            if (!email.isEmpty()) {
+                emailCompletions.add(email, email, weight--);
+            }
+        }
+
+        if (domainCompletions.size() == 0) {
+            weight = 0;
+            for (String domain : EmailNormalizer.COMMON_DOMAINS) {
+                domainCompletions.add(domain, domain, weight--);
+            }
+        }
+    }
+
+    /**
+     * Completions of what is typed so far; views are only rebuilt when the completions change
+     */
     private void showEmailSuggestions() {
-        if (detectedEmails == null || detectedEmails.isEmpty())
+        Editable text = etEmail.getText();
+        if (text == null) {
             return;
+        }
+        emailCursor.update(text);
+        int count = emailCursor.isWholeKey() ? 0 : emailCursor.completions(completionBuffer, 0);
+
+        // "name" or "name@gm": offer common domains after the addresses
+        int at = indexOf(text, '@');
+        int domainStart = count;
+        if (count < MAX_SUGGESTIONS && text.length() > 0 && at != 0) {
+            int from = at > 0 ? at + 1 : text.length();
+            domainCursor.update(text, from, text.length());
+            if (!domainCursor.isWholeKey()) {
+                count += domainCursor.completions(completionBuffer, count);
+            }
+        }
+
+        if (count == 0) {
+            hideSuggestions();
+            return;
+        }
+        if (suggestionsContainer.getVisibility() == View.VISIBLE && sameAsShown(count, domainStart)) {
+            return;
+        }
+        System.arraycopy(completionBuffer, 0, shownCompletions, 0, count);
+        shownCompletionCount = count;
+        shownDomainStart = domainStart;
+
         suggestionsContainer.removeAllViews();
         suggestionsContainer.setVisibility(View.VISIBLE);
 
-        for (String email : detectedEmails) {
+        CharSequence local = at > 0 ? text.subSequence(0, at) : text;
+        for (int i = 0; i < count; i++) {
+            String email = i < domainStart ? completionBuffer[i] : local + "@" + completionBuffer[i];
             TextView tv = new TextView(this);
             tv.setText("✉️ " + email);
             tv.setPadding(32, 20, 32, 20);
@@ -162,11 +286,36 @@ public class EmailLoginActivity extends AppCompatActivity {
             });
             suggestionsContainer.addView(tv);
         }
+        suggestionsContainer.animate().cancel();
+        suggestionsContainer.setAlpha(0f);
         suggestionsContainer.animate().alpha(1f).setDuration(200).start();
     }
 
+    private boolean sameAsShown(int count, int domainStart) {
+        // Domain completions are shown behind the typed name, so a new name means new text
+        if (count != shownCompletionCount || domainStart != shownDomainStart || domainStart < count) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!completionBuffer[i].equals(shownCompletions[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence text, char c) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private void hideSuggestions() {
-        if (suggestionsContainer != null) {
+        shownCompletionCount = 0;
+        if (suggestionsContainer != null && suggestionsContainer.getVisibility() == View.VISIBLE) {
             suggestionsContainer.animate().alpha(0f).setDuration(150)
                     .withEndAction(() -> suggestionsContainer.setVisibility(View.GONE)).start();
         }
@@ -176,24 +325,28 @@ public class EmailLoginActivity extends AppCompatActivity {
         String email = getText(etEmail), password = getText(etPassword);
         if (!validateEmail(email) || !validatePassword(password))
             return;
+        String normalizedEmail = normalizeEmail(email);
+        traceFlow = LoginTracer.newFlow();
+        LoginTracer.begin(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.TOTAL);
         showLoading(true);
 
-        authManager.signInWithEmail(email, password, new AuthManager.AuthCallback() {
+        cancelPendingRequest();
+        authRequest = authManager.signInWithEmail(normalizedEmail, password, new AuthManager.AuthCallback() {
             @Override
-            public void onSuccess(FirebaseUser user) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    userSession.createSession(user, UserSession.LOGIN_TYPE_EMAIL);
-                    navigateToMain();
-                });
+            public void onSuccess(AuthUser user) {
+                LoginTracer.begin(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.PROFILE_TO_MAIN);
+                showLoading(false);
+                userSession.createSession(user, UserSession.LOGIN_TYPE_EMAIL);
+                SuggestionRanker.recordLoginInBackground(EmailLoginActivity.this,
+                        SuggestionRanker.Kind.EMAIL, normalizedEmail);
+                navigateToMain();
             }
 
             @Override
             public void onError(String msg) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    showError(msg);
-                });
+                LoginTracer.cancel(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.TOTAL);
+                showLoading(false);
+                showError(msg);
             }
         });
     }
@@ -203,33 +356,46 @@ public class EmailLoginActivity extends AppCompatActivity {
         String password = getText(etPassword), confirm = getText(etConfirmPassword);
         if (!validateName(name) || !validateEmail(email) || !validatePassword(password))
             return;
+        String normalizedEmail = normalizeEmail(email);
         if (!password.equals(confirm)) {
             tilConfirmPassword.setError("Passwords don't match");
             return;
         }
+        traceFlow = LoginTracer.newFlow();
+        LoginTracer.begin(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.TOTAL);
         showLoading(true);
 
-        authManager.createAccountWithEmail(email, password, name, new AuthManager.AuthCallback() {
+        cancelPendingRequest();
+        authRequest = authManager.createAccountWithEmail(normalizedEmail, password, name, new AuthManager.AuthCallback() {
             @Override
-            public void onSuccess(FirebaseUser user) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    userSession.createSession(user, UserSession.LOGIN_TYPE_EMAIL);
-                    userSession.setUserName(name);
-                    navigateToMain();
-                });
+            public void onSuccess(AuthUser user) {
+                LoginTracer.begin(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.PROFILE_TO_MAIN);
+                showLoading(false);
+                userSession.edit()
+                        .createSession(user, UserSession.LOGIN_TYPE_EMAIL)
+                        .setUserName(name)
+                        .commit();
+                SuggestionRanker.recordLoginInBackground(EmailLoginActivity.this,
+                        SuggestionRanker.Kind.EMAIL, normalizedEmail);
+                navigateToMain();
             }
 
             @Override
             public void onError(String msg) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    showError(msg);
-                });
+                LoginTracer.cancel(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.TOTAL);
+                showLoading(false);
+                showError(msg);
             }
         });
     }
 
+    private void cancelPendingRequest() {
+        if (authRequest != null) {
+            authRequest.cancel();
+            authRequest = null;
+        }
+    }
+
     private boolean validateName(String n) {
         if (n.isEmpty()) {
             tilName.setError("Required");
@@ -239,13 +405,21 @@ public class EmailLoginActivity extends AppCompatActivity {
     }
 
     private boolean validateEmail(String e) {
-        if (e.isEmpty() || !Patterns.EMAIL_ADDRESS.matcher(e).matches()) {
+        if (!EmailNormalizer.isValidAddress(e)) {
             tilEmail.setError("Valid email required");
             return false;
         }
         return true;
     }
 
+    /**
+     * Lower-case the domain so "User@Gmail.COM" and "User@gmail.com" reach the same account
+     */
+    private String normalizeEmail(String e) {
+        EmailNormalizer normalizer = EmailNormalizer.forCurrentThread();
+        return normalizer.parse(e) ? normalizer.toNormalized() : e;
+    }
+
     private boolean validatePassword(String p) {
         if (p.length() < 6) {
             tilPassword.setError("Min 6 characters");
@@ -272,6 +446,8 @@ public class EmailLoginActivity extends AppCompatActivity {
     }
 
     private void navigateToMain() {
+        LoginTracer.end(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.PROFILE_TO_MAIN);
+        LoginTracer.end(traceFlow, LoginTracer.LoginType.EMAIL, LoginTracer.Stage.TOTAL);
         startActivity(new Intent(this, MainActivity.class)
                 .setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK));
         finish();
@@ -299,4 +475,10 @@ public class EmailLoginActivity extends AppCompatActivity {
         if (lottieEmail != null)
             lottieEmail.pauseAnimation();
     }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        cancelPendingRequest();
+    }
 }
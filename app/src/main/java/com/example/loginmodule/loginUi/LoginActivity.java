@@ -6,8 +6,6 @@ import android.animation.ObjectAnimator;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
-import android.text.Editable;
-import android.text.TextWatcher;
 import android.util.Log;
 import android.view.View;
 import android.view.animation.AccelerateDecelerateInterpolator;
@@ -27,12 +25,20 @@ import com.airbnb.lottie.LottieAnimationView;
 import com.example.loginmodule.MainActivity;
 import com.example.loginmodule.R;
 import com.example.loginmodule.loginAuth.AccountDetector;
+import com.example.loginmodule.loginAuth.AuthExecutors;
+import com.example.loginmodule.loginAuth.AuthInitializer;
 import com.example.loginmodule.loginAuth.AuthManager;
+import com.example.loginmodule.loginAuth.AuthRequest;
+import com.example.loginmodule.loginAuth.AuthUser;
+import com.example.loginmodule.loginAuth.LoginTracer;
+import com.example.loginmodule.loginAuth.PhoneInputFormatter;
+import com.example.loginmodule.loginAuth.PhoneNumberNormalizer;
+import com.example.loginmodule.loginAuth.PrefixTrie;
+import com.example.loginmodule.loginAuth.SessionSnapshot;
+import com.example.loginmodule.loginAuth.SuggestionRanker;
 import com.example.loginmodule.loginAuth.UserSession;
 import com.google.android.gms.auth.api.signin.GoogleSignIn;
 import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
-import com.google.android.gms.auth.api.signin.GoogleSignInClient;
-import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
 import com.google.android.gms.common.api.ApiException;
 import com.google.android.gms.tasks.Task;
 import com.google.android.material.button.MaterialButton;
@@ -52,6 +58,11 @@ public class LoginActivity extends AppCompatActivity {
 
     private static final String TAG = "LoginActivity";
 
+    // Opened from MainActivity to pick or add another account; skips the returning-user redirect
+    public static final String EXTRA_SWITCH_ACCOUNT = "switch_account";
+
+    private static final int MAX_SUGGESTIONS = 3;
+
     // UI Components
     private LottieAnimationView lottieAnimationView;
     private EditText etPhone;
@@ -62,42 +73,62 @@ public class LoginActivity extends AppCompatActivity {
     private TextView tvTitle;
     private LinearLayout suggestionsContainer;
     private ProgressBar progressBar;
+    private TextView tvCountryCode;
 
     // Auth & Detection
-    private AuthManager authManager;
     private AccountDetector accountDetector;
     private UserSession userSession;
     private AccountDetector.AccountInfo detectedAccounts;
+    private AuthRequest<AccountDetector.DetectionListener> detectionRequest;
+
+    // Live completions of the phone field: detected numbers, then numbers used to log in before
+    private final PrefixTrie phoneCompletions = new PrefixTrie(PrefixTrie.KeyMode.DIGITS, MAX_SUGGESTIONS);
+    private final PrefixTrie.Cursor phoneCursor = phoneCompletions.newCursor();
+    private final String[] completionBuffer = new String[MAX_SUGGESTIONS];
+    private final String[] shownCompletions = new String[MAX_SUGGESTIONS];
+    private int shownCompletionCount;
+    private List<String> phoneHistory = new ArrayList<>();
 
-    // Google Sign-In
-    private GoogleSignInClient googleSignInClient;
+    // Google Sign-In (client is built in the background by AuthInitializer)
     private ActivityResultLauncher<Intent> googleSignInLauncher;
+    private long googleTraceFlow = LoginTracer.NO_FLOW;
 
     // Permission launcher
     private ActivityResultLauncher<String[]> permissionLauncher;
 
-    // Selected country code
-    private String selectedCountryCode = "+91";
+    // Country for the number typed in etPhone: locale region until the SIM / network country is read
+    private PhoneNumberNormalizer.Country selectedCountry;
+    private PhoneInputFormatter phoneFormatter;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+
+        // Returning user: skip the login UI entirely, MainActivity validates the token in the background
+        userSession = UserSession.getInstance(this);
+        if (userSession.isValidSession() && !getIntent().getBooleanExtra(EXTRA_SWITCH_ACCOUNT, false)) {
+            navigateToMain();
+            overridePendingTransition(0, 0);
+            return;
+        }
+
         setContentView(R.layout.activity_login);
 
         initializeComponents();
         setupGoogleSignIn();
         setupPermissionLauncher();
-        checkExistingSession();
         setupUI();
         setupListeners();
+        resolveDefaultCountry();
         requestPermissionsIfNeeded();
+        showCachedAccounts();
+        loadPhoneHistory();
         startEntranceAnimations();
     }
 
     private void initializeComponents() {
-        authManager = AuthManager.getInstance();
         accountDetector = new AccountDetector(this);
-        userSession = UserSession.getInstance(this);
+        selectedCountry = AccountDetector.getLocaleCountry();
 
         // Find views
         lottieAnimationView = findViewById(R.id.lottieAnimationView);
@@ -109,17 +140,40 @@ public class LoginActivity extends AppCompatActivity {
         tvTitle = findViewById(R.id.tvTitle);
         suggestionsContainer = findViewById(R.id.suggestionsContainer);
         progressBar = findViewById(R.id.progressBar);
-    }
 
-    private void setupGoogleSignIn() {
-        // Configure Google Sign-In
-        GoogleSignInOptions gso = new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN)
-                .requestIdToken(getString(R.string.default_web_client_id))
-                .requestEmail()
-                .build();
+        tvCountryCode = findViewById(R.id.tvCountryCode);
+        tvCountryCode.setText(selectedCountry.getCallingCodePrefix());
+    }
 
-        googleSignInClient = GoogleSignIn.getClient(this, gso);
+    /**
+     * SIM / network country is read off the main thread (TelephonyManager binder calls) and replaces the locale guess
+     */
+    private void resolveDefaultCountry() {
+        AuthExecutors.io().execute(() -> {
+            PhoneNumberNormalizer.Country country = accountDetector.getDefaultCountry();
+            AuthExecutors.mainThread().execute(() -> {
+                if (isDestroyed() || country == selectedCountry) {
+                    return;
+                }
+                selectedCountry = country;
+                tvCountryCode.setText(country.getCallingCodePrefix());
+
+                // Regroup whatever was typed under the new country
+                String typed = phoneFormatter.getNationalNumber();
+                phoneFormatter.setCountry(country);
+                etPhone.setText(typed);
+                etPhone.setSelection(etPhone.length());
+
+                if (detectedAccounts != null) {
+                    showDetectedAccounts(detectedAccounts);
+                } else {
+                    rebuildPhoneCompletions();
+                }
+            });
+        });
+    }
 
+    private void setupGoogleSignIn() {
         // Setup Google Sign-In launcher
         googleSignInLauncher = registerForActivityResult(
                 new ActivityResultContracts.StartActivityForResult(),
@@ -128,6 +182,7 @@ public class LoginActivity extends AppCompatActivity {
                         Task<GoogleSignInAccount> task = GoogleSignIn.getSignedInAccountFromIntent(result.getData());
                         handleGoogleSignInResult(task);
                     } else {
+                        LoginTracer.cancel(googleTraceFlow, LoginTracer.LoginType.GOOGLE, LoginTracer.Stage.TOTAL);
                         showLoading(false);
                         showError("Google Sign-In cancelled");
                     }
@@ -142,6 +197,7 @@ public class LoginActivity extends AppCompatActivity {
             }
         } catch (ApiException e) {
             Log.e(TAG, "Google sign-in failed: " + e.getStatusCode());
+            LoginTracer.cancel(googleTraceFlow, LoginTracer.LoginType.GOOGLE, LoginTracer.Stage.TOTAL);
             showLoading(false);
             showError("Google Sign-In failed. Please try again.");
         }
@@ -149,23 +205,35 @@ public class LoginActivity extends AppCompatActivity {
 
     private void firebaseAuthWithGoogle(String idToken) {
         AuthCredential credential = GoogleAuthProvider.getCredential(idToken, null);
+        long traceFlow = googleTraceFlow;
+        LoginTracer.begin(traceFlow, LoginTracer.LoginType.GOOGLE, LoginTracer.Stage.SIGN_IN);
         FirebaseAuth.getInstance().signInWithCredential(credential)
                 .addOnCompleteListener(this, task -> {
+                    LoginTracer.end(traceFlow, LoginTracer.LoginType.GOOGLE, LoginTracer.Stage.SIGN_IN);
                     showLoading(false);
                     if (task.isSuccessful()) {
                         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
                         if (user != null) {
-                            userSession.createSession(user, UserSession.LOGIN_TYPE_GOOGLE);
+                            // One commit, one disk write
+                            UserSession.Editor session = userSession.edit()
+                                    .createSession(AuthUser.from(user), UserSession.LOGIN_TYPE_GOOGLE);
                             if (user.getDisplayName() != null) {
-                                userSession.setUserName(user.getDisplayName());
+                                session.setUserName(user.getDisplayName());
                             }
                             if (user.getEmail() != null) {
-                                userSession.setUserEmail(user.getEmail());
+                                session.setUserEmail(user.getEmail());
                             }
+                            session.commit();
+                            SuggestionRanker.recordLoginInBackground(this, SuggestionRanker.Kind.EMAIL,
+                                    user.getEmail());
                             Toast.makeText(this, "Welcome, " + user.getDisplayName() + "!", Toast.LENGTH_SHORT).show();
+                            LoginTracer.end(traceFlow, LoginTracer.LoginType.GOOGLE, LoginTracer.Stage.TOTAL);
                             navigateToMain();
+                        } else {
+                            LoginTracer.cancel(traceFlow, LoginTracer.LoginType.GOOGLE, LoginTracer.Stage.TOTAL);
                         }
                     } else {
+                        LoginTracer.cancel(traceFlow, LoginTracer.LoginType.GOOGLE, LoginTracer.Stage.TOTAL);
                         showError("Authentication failed. Please try again.");
                     }
                 });
@@ -188,12 +256,6 @@ public class LoginActivity extends AppCompatActivity {
                 });
     }
 
-    private void checkExistingSession() {
-        if (authManager.isLoggedIn() && userSession.isValidSession()) {
-            navigateToMain();
-        }
-    }
-
     private void setupUI() {
         // Set Lottie animation - Food delivery with people theme
         lottieAnimationView.setAnimationFromUrl(
@@ -202,24 +264,15 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void setupListeners() {
-        etPhone.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
-            }
-
-            @Override
-            public void onTextChanged(CharSequence s, int start, int before, int count) {
-                updateContinueButtonState();
-                hideSuggestions();
-            }
-
-            @Override
-            public void afterTextChanged(Editable s) {
-            }
+        // Groups the number as it is typed and reports validity without re-parsing the text
+        phoneFormatter = new PhoneInputFormatter(selectedCountry, (digitCount, valid) -> {
+            updateContinueButtonState(valid);
+            showPhoneSuggestions();
         });
+        etPhone.addTextChangedListener(phoneFormatter);
 
         etPhone.setOnFocusChangeListener((v, hasFocus) -> {
-            if (hasFocus && detectedAccounts != null && !detectedAccounts.phoneNumbers.isEmpty()) {
+            if (hasFocus) {
                 showPhoneSuggestions();
             }
         });
@@ -229,9 +282,7 @@ public class LoginActivity extends AppCompatActivity {
         btnEmail.setOnClickListener(v -> onEmailLoginClicked());
     }
 
-    private void updateContinueButtonState() {
-        String phone = etPhone.getText().toString().trim();
-        boolean isValid = phone.length() >= 10;
+    private void updateContinueButtonState(boolean isValid) {
         btnContinue.setEnabled(isValid);
         btnContinue.setAlpha(isValid ? 1.0f : 0.6f);
     }
@@ -257,42 +308,144 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void detectSystemAccounts() {
-        detectedAccounts = accountDetector.detectAccounts();
+        cancelDetection();
+        // Sources answer independently; the hint appears with the first number found
+        detectionRequest = accountDetector.detectAccountsAsync(new AccountDetector.DetectionListener() {
+            @Override
+            public void onPartialResult(AccountDetector.AccountInfo info, AccountDetector.Source source) {
+                showDetectedAccounts(info);
+            }
+
+            @Override
+            public void onComplete(AccountDetector.AccountInfo info) {
+                detectionRequest = null;
+            }
+        });
+    }
+
+    private void showDetectedAccounts(AccountDetector.AccountInfo info) {
+        detectedAccounts = info;
+        rebuildPhoneCompletions();
 
-        if (detectedAccounts.hasPhone()) {
-            String localNumber = accountDetector.getLocalNumber(detectedAccounts.primaryPhone);
+        if (info.hasPhone()) {
+            String localNumber = accountDetector.getLocalNumber(info.primaryPhone, selectedCountry);
             if (!localNumber.isEmpty()) {
                 etPhone.setHint("Detected: " + formatPhoneForDisplay(localNumber));
             }
         }
+
+        // User is already in the field: offer numbers as soon as they are known
+        if (etPhone.hasFocus()) {
+            showPhoneSuggestions();
+        }
+    }
+
+    private void cancelDetection() {
+        if (detectionRequest != null) {
+            detectionRequest.cancel();
+            detectionRequest = null;
+        }
+    }
+
+    /**
+     * History is read off the main thread; completions are rebuilt once it is in
+     */
+    private void loadPhoneHistory() {
+        SuggestionRanker.Kind kind = SuggestionRanker.Kind.PHONE;
+        AuthExecutors.io().execute(() -> {
+            List<String> history = SuggestionRanker.getInstance(this).getHistory(kind);
+            AuthExecutors.mainThread().execute(() -> {
+                if (isDestroyed()) {
+                    return;
+                }
+                phoneHistory = history;
+                rebuildPhoneCompletions();
+                if (etPhone.hasFocus()) {
+                    showPhoneSuggestions();
+                }
+            });
+        });
     }
 
+    /**
+     * Refill the trie in priority order; a number already added keeps its first, higher weight.
+     * Only numbers of selectedCountry are offered, since the typed number is read in it.
+     */
+    private void rebuildPhoneCompletions() {
+        phoneCompletions.clear();
+        double weight = 0;
+        if (detectedAccounts != null) {
+            for (String phone : detectedAccounts.phoneNumbers) {
+                weight = addPhoneCompletion(phone, weight);
+            }
+        }
+        for (String phone : phoneHistory) {
+            weight = addPhoneCompletion(phone, weight);
+        }
+        for (SessionSnapshot account : userSession.getAccounts()) {
+            weight = addPhoneCompletion(account.getUserPhone(), weight);
+        }
+    }
+
+    private double addPhoneCompletion(String phone, double weight) {
+        String localNumber = accountDetector.getLocalNumber(phone, selectedCountry);
+        if (localNumber.isEmpty()) {
+            return weight;
+        }
+        phoneCompletions.add(localNumber, localNumber, weight);
+        return weight - 1;
+    }
+
+    /**
+     * Completions of what is typed so far; views are only rebuilt when the completions change
+     */
     private void showPhoneSuggestions() {
-        if (detectedAccounts == null || detectedAccounts.phoneNumbers.isEmpty()) {
+        int count = phoneCursor.update(etPhone.getText());
+        if (count == 0 || phoneCursor.isWholeKey()) {
+            hideSuggestions();
             return;
         }
+        count = phoneCursor.completions(completionBuffer, 0);
+        if (suggestionsContainer.getVisibility() == View.VISIBLE && sameAsShown(count)) {
+            return;
+        }
+        System.arraycopy(completionBuffer, 0, shownCompletions, 0, count);
+        shownCompletionCount = count;
 
         suggestionsContainer.removeAllViews();
         suggestionsContainer.setVisibility(View.VISIBLE);
 
-        for (String phone : detectedAccounts.phoneNumbers) {
-            TextView suggestion = createSuggestionView(phone);
+        for (int i = 0; i < count; i++) {
+            String localNumber = completionBuffer[i];
+            TextView suggestion = createSuggestionView("📱 " + formatPhoneForDisplay(localNumber));
             suggestion.setOnClickListener(v -> {
-                String localNumber = accountDetector.getLocalNumber(phone);
                 etPhone.setText(localNumber);
-                etPhone.setSelection(localNumber.length());
+                etPhone.setSelection(etPhone.length());
                 hideSuggestions();
             });
             suggestionsContainer.addView(suggestion);
         }
 
+        suggestionsContainer.animate().cancel();
         suggestionsContainer.setAlpha(0f);
         suggestionsContainer.animate().alpha(1f).setDuration(200).start();
     }
 
-    private TextView createSuggestionView(String phone) {
+    private boolean sameAsShown(int count) {
+        if (count != shownCompletionCount) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!completionBuffer[i].equals(shownCompletions[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private TextView createSuggestionView(String text) {
         TextView tv = new TextView(this);
-        tv.setText("📱 " + formatPhoneForDisplay(accountDetector.getLocalNumber(phone)));
+        tv.setText(text);
         tv.setPadding(32, 24, 32, 24);
         tv.setTextSize(16);
         tv.setTextColor(ContextCompat.getColor(this, android.R.color.black));
@@ -308,6 +461,7 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void hideSuggestions() {
+        shownCompletionCount = 0;
         if (suggestionsContainer != null && suggestionsContainer.getVisibility() == View.VISIBLE) {
             suggestionsContainer.animate()
                     .alpha(0f)
@@ -318,25 +472,27 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private String formatPhoneForDisplay(String phone) {
-        if (phone == null || phone.length() < 10)
-            return phone;
-        return phone.substring(0, 3) + " " + phone.substring(3, 6) + " " + phone.substring(6);
+        return PhoneInputFormatter.format(selectedCountry, phone);
     }
 
     private void onContinueClicked() {
         String phone = etPhone.getText().toString().trim();
 
-        if (phone.length() < 10) {
+        PhoneNumberNormalizer normalizer = PhoneNumberNormalizer.forCurrentThread();
+        if (!normalizer.parse(phone, selectedCountry)) {
             showError("Please enter a valid phone number");
             shakeView(phoneInputLayout);
             return;
         }
 
-        String fullPhone = selectedCountryCode + phone;
+        String fullPhone = normalizer.toE164();
+        long traceFlow = LoginTracer.newFlow();
+        LoginTracer.begin(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.TOTAL);
         showLoading(true);
 
         Intent intent = new Intent(this, OtpVerificationActivity.class);
         intent.putExtra("phone", fullPhone);
+        intent.putExtra(OtpVerificationActivity.EXTRA_TRACE_FLOW, traceFlow);
         intent.putExtra("phone_display", formatPhoneForDisplay(phone));
         startActivity(intent);
 
@@ -345,13 +501,29 @@ public class LoginActivity extends AppCompatActivity {
 
     private void onGoogleSignInClicked() {
         pulseView(btnGoogle);
+        googleTraceFlow = LoginTracer.newFlow();
+        LoginTracer.begin(googleTraceFlow, LoginTracer.LoginType.GOOGLE, LoginTracer.Stage.TOTAL);
         showLoading(true);
 
-        // Sign out first to show account picker
-        googleSignInClient.signOut().addOnCompleteListener(this, task -> {
-            Intent signInIntent = googleSignInClient.getSignInIntent();
-            googleSignInLauncher.launch(signInIntent);
-        });
+        // Only waits here if the user taps before the warm-up finished
+        AuthInitializer.googleSignInClient(this).whenCompleteAsync((client, error) -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
+            }
+            if (error != null) {
+                Log.e(TAG, "GoogleSignInClient unavailable", error);
+                LoginTracer.cancel(googleTraceFlow, LoginTracer.LoginType.GOOGLE, LoginTracer.Stage.TOTAL);
+                showLoading(false);
+                showError("Google Sign-In is unavailable. Please try again.");
+                return;
+            }
+
+            // Sign out first to show account picker
+            client.signOut().addOnCompleteListener(this, task -> {
+                Intent signInIntent = client.getSignInIntent();
+                googleSignInLauncher.launch(signInIntent);
+            });
+        }, AuthExecutors.mainThread());
     }
 
     private void onEmailLoginClicked() {
@@ -364,6 +536,65 @@ public class LoginActivity extends AppCompatActivity {
         startActivity(intent);
     }
 
+    // ==================== Account Switching ====================
+
+    private void showCachedAccounts() {
+        List<SessionSnapshot> accounts = userSession.getAccounts();
+        if (accounts.isEmpty()) {
+            return;
+        }
+
+        suggestionsContainer.removeAllViews();
+        suggestionsContainer.setVisibility(View.VISIBLE);
+        shownCompletionCount = 0;
+
+        for (SessionSnapshot account : accounts) {
+            String name = account.getUserName().isEmpty() ? account.getDisplayIdentifier() : account.getUserName();
+            TextView suggestion = createSuggestionView("👤 Continue as " + name);
+            suggestion.setOnClickListener(v -> switchToAccount(account.getUserId()));
+            suggestionsContainer.addView(suggestion);
+        }
+    }
+
+    private void switchToAccount(String uid) {
+        hideSuggestions();
+        showLoading(true);
+
+        AuthManager.whenReady(this).whenCompleteAsync((manager, error) -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
+            }
+            if (error != null) {
+                Log.e(TAG, "AuthManager unavailable", error);
+                showLoading(false);
+                showError("Could not switch account. Please try again.");
+                return;
+            }
+
+            manager.switchAccount(uid, new AuthManager.AuthCallback() {
+                @Override
+                public void onSuccess(AuthUser user) {
+                    showLoading(false);
+                    userSession.switchAccount(uid);
+                    navigateToMain();
+                }
+
+                @Override
+                public void onError(String message) {
+                    Log.w(TAG, "Account switch failed: " + message);
+                    showLoading(false);
+                    // The backend no longer has this user; it needs a fresh login
+                    userSession.removeAccount(uid);
+                    if (userSession.getAccounts().isEmpty()) {
+                        SuggestionRanker.clearInBackground(LoginActivity.this);
+                    }
+                    showError("Please sign in to this account again");
+                    showCachedAccounts();
+                }
+            });
+        }, AuthExecutors.mainThread());
+    }
+
     private void navigateToMain() {
         Intent intent = new Intent(this, MainActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -473,4 +704,10 @@ public class LoginActivity extends AppCompatActivity {
             lottieAnimationView.pauseAnimation();
         }
     }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        cancelDetection();
+    }
 }
@@ -23,11 +23,13 @@ import com.airbnb.lottie.LottieAnimationView;
 import com.example.loginmodule.MainActivity;
 import com.example.loginmodule.R;
 import com.example.loginmodule.loginAuth.AuthManager;
+import com.example.loginmodule.loginAuth.AuthRequest;
+import com.example.loginmodule.loginAuth.AuthUser;
+import com.example.loginmodule.loginAuth.LoginTracer;
 import com.example.loginmodule.loginAuth.OtpHelper;
+import com.example.loginmodule.loginAuth.SuggestionRanker;
 import com.example.loginmodule.loginAuth.UserSession;
 import com.google.android.material.button.MaterialButton;
-import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.auth.PhoneAuthCredential;
 
 /**
  * OtpVerificationActivity - OTP Entry Screen with auto-read and animations
@@ -35,6 +37,9 @@ import com.google.firebase.auth.PhoneAuthCredential;
  */
 public class OtpVerificationActivity extends AppCompatActivity {
 
+    // LoginTracer flow whose PHONE / TOTAL stage LoginActivity began
+    public static final String EXTRA_TRACE_FLOW = "trace_flow";
+
     // UI Components
     private LottieAnimationView lottieVerification;
     private ImageView btnBack;
@@ -50,11 +55,17 @@ public class OtpVerificationActivity extends AppCompatActivity {
     // Data
     private String phoneNumber;
     private String phoneDisplay;
+    private String verificationId;
+    private boolean loginCompleted = false;
+    private long traceFlow = LoginTracer.NO_FLOW;
+    private boolean resendCountingDown = false;
 
     // Auth & Helpers
     private AuthManager authManager;
     private OtpHelper otpHelper;
     private UserSession userSession;
+    private AuthRequest<AuthManager.OtpCallback> otpRequest;
+    private AuthRequest<AuthManager.AuthCallback> verifyRequest;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -73,6 +84,7 @@ public class OtpVerificationActivity extends AppCompatActivity {
         Intent intent = getIntent();
         phoneNumber = intent.getStringExtra("phone");
         phoneDisplay = intent.getStringExtra("phone_display");
+        traceFlow = intent.getLongExtra(EXTRA_TRACE_FLOW, LoginTracer.NO_FLOW);
 
         if (phoneNumber == null || phoneNumber.isEmpty()) {
             Toast.makeText(this, "Invalid phone number", Toast.LENGTH_SHORT).show();
@@ -81,7 +93,7 @@ public class OtpVerificationActivity extends AppCompatActivity {
     }
 
     private void initializeComponents() {
-        authManager = AuthManager.getInstance();
+        authManager = AuthManager.getInstance(this);
         userSession = UserSession.getInstance(this);
         otpHelper = new OtpHelper(this);
 
@@ -185,22 +197,23 @@ public class OtpVerificationActivity extends AppCompatActivity {
 
             @Override
             public void onTimerTick(long secondsRemaining) {
-                runOnUiThread(() -> {
+                // Already on the main thread; only the time changes between ticks
+                if (!resendCountingDown) {
+                    resendCountingDown = true;
                     tvResendInfo.setText("Resend OTP in ");
-                    tvResend.setText(OtpHelper.formatTime(secondsRemaining));
                     tvResend.setEnabled(false);
                     tvResend.setAlpha(0.5f);
-                });
+                }
+                tvResend.setText(OtpHelper.formatTime(secondsRemaining));
             }
 
             @Override
             public void onTimerFinished() {
-                runOnUiThread(() -> {
-                    tvResendInfo.setText("Didn't receive OTP? ");
-                    tvResend.setText("Resend");
-                    tvResend.setEnabled(true);
-                    tvResend.setAlpha(1f);
-                });
+                resendCountingDown = false;
+                tvResendInfo.setText("Didn't receive OTP? ");
+                tvResend.setText("Resend");
+                tvResend.setEnabled(true);
+                tvResend.setAlpha(1f);
             }
         });
     }
@@ -208,34 +221,34 @@ public class OtpVerificationActivity extends AppCompatActivity {
     private void sendOtp() {
         showLoading(true);
 
-        authManager.sendOtp(this, phoneNumber, new AuthManager.OtpCallback() {
+        otpRequest = authManager.sendOtp(this, phoneNumber, new AuthManager.OtpCallback() {
             @Override
             public void onCodeSent(String verificationId) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    Toast.makeText(OtpVerificationActivity.this,
-                            "OTP sent successfully!", Toast.LENGTH_SHORT).show();
-                    otpHelper.startSmsRetriever();
-                    otpHelper.startResendTimer();
-                    otpFields[0].requestFocus();
-                });
+                OtpVerificationActivity.this.verificationId = verificationId;
+                showLoading(false);
+                Toast.makeText(OtpVerificationActivity.this,
+                        "OTP sent successfully!", Toast.LENGTH_SHORT).show();
+                otpHelper.startSmsRetriever();
+                otpHelper.startResendTimer();
+                otpFields[0].requestFocus();
             }
 
             @Override
-            public void onVerificationCompleted(PhoneAuthCredential credential) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    // Auto verification - will be handled by AuthManager
-                });
+            public void onVerificationCompleted() {
+                showLoading(false);
+                // Auto verification - will be handled by AuthManager
             }
 
             @Override
             public void onVerificationFailed(String message) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    showError(message);
-                    shakeOtpContainer();
-                });
+                showLoading(false);
+                showError(message);
+                shakeOtpContainer();
+            }
+
+            @Override
+            public void onSignedIn(AuthUser user) {
+                completeLogin(user);
             }
         });
     }
@@ -244,29 +257,34 @@ public class OtpVerificationActivity extends AppCompatActivity {
         clearOtpFields();
         showLoading(true);
 
-        authManager.resendOtp(this, phoneNumber, new AuthManager.OtpCallback() {
+        if (otpRequest != null) {
+            otpRequest.cancel();
+        }
+        otpRequest = authManager.resendOtp(this, phoneNumber, new AuthManager.OtpCallback() {
             @Override
             public void onCodeSent(String verificationId) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    Toast.makeText(OtpVerificationActivity.this,
-                            "OTP resent!", Toast.LENGTH_SHORT).show();
-                    otpHelper.startResendTimer();
-                    otpFields[0].requestFocus();
-                });
+                OtpVerificationActivity.this.verificationId = verificationId;
+                showLoading(false);
+                Toast.makeText(OtpVerificationActivity.this,
+                        "OTP resent!", Toast.LENGTH_SHORT).show();
+                otpHelper.startResendTimer();
+                otpFields[0].requestFocus();
             }
 
             @Override
-            public void onVerificationCompleted(PhoneAuthCredential credential) {
-                runOnUiThread(() -> showLoading(false));
+            public void onVerificationCompleted() {
+                showLoading(false);
             }
 
             @Override
             public void onVerificationFailed(String message) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    showError(message);
-                });
+                showLoading(false);
+                showError(message);
+            }
+
+            @Override
+            public void onSignedIn(AuthUser user) {
+                completeLogin(user);
             }
         });
     }
@@ -282,32 +300,41 @@ public class OtpVerificationActivity extends AppCompatActivity {
 
         showLoading(true);
 
-        authManager.verifyOtp(otp, new AuthManager.AuthCallback() {
+        if (verifyRequest != null) {
+            verifyRequest.cancel();
+        }
+        verifyRequest = authManager.verifyOtp(verificationId, otp, new AuthManager.AuthCallback() {
             @Override
-            public void onSuccess(FirebaseUser user) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-
-                    // Create session
-                    userSession.createSession(user, UserSession.LOGIN_TYPE_PHONE);
-
-                    // Show success animation
-                    showSuccessAnimation(() -> navigateToMain());
-                });
+            public void onSuccess(AuthUser user) {
+                completeLogin(user);
             }
 
             @Override
             public void onError(String message) {
-                runOnUiThread(() -> {
-                    showLoading(false);
-                    showError(message);
-                    shakeOtpContainer();
-                    clearOtpFields();
-                });
+                showLoading(false);
+                showError(message);
+                shakeOtpContainer();
+                clearOtpFields();
             }
         });
     }
 
+    private void completeLogin(AuthUser user) {
+        // Auto-verification and the auto-filled OTP can both report the same sign-in
+        if (loginCompleted)
+            return;
+        loginCompleted = true;
+        LoginTracer.begin(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.PROFILE_TO_MAIN);
+        showLoading(false);
+
+        // Create session
+        userSession.createSession(user, UserSession.LOGIN_TYPE_PHONE);
+        SuggestionRanker.recordLoginInBackground(this, SuggestionRanker.Kind.PHONE, phoneNumber);
+
+        // Show success animation
+        showSuccessAnimation(() -> navigateToMain());
+    }
+
     private String getOtpFromFields() {
         StringBuilder otp = new StringBuilder();
         for (EditText field : otpFields) {
@@ -331,7 +358,10 @@ public class OtpVerificationActivity extends AppCompatActivity {
         }
 
         // Auto verify after filling
-        otpFields[5].postDelayed(this::verifyOtp, 600);
+        otpFields[5].postDelayed(() -> {
+            LoginTracer.end(otpHelper.getTraceFlow(), LoginTracer.LoginType.PHONE, LoginTracer.Stage.AUTOFILL);
+            verifyOtp();
+        }, 600);
     }
 
     private void clearOtpFields() {
@@ -350,6 +380,8 @@ public class OtpVerificationActivity extends AppCompatActivity {
     }
 
     private void navigateToMain() {
+        LoginTracer.end(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.PROFILE_TO_MAIN);
+        LoginTracer.end(traceFlow, LoginTracer.LoginType.PHONE, LoginTracer.Stage.TOTAL);
         Intent intent = new Intent(this, MainActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
         startActivity(intent);
@@ -496,6 +528,12 @@ public class OtpVerificationActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (otpRequest != null) {
+            otpRequest.cancel();
+        }
+        if (verifyRequest != null) {
+            verifyRequest.cancel();
+        }
         if (otpHelper != null) {
             otpHelper.cleanup();
         }
@@ -0,0 +1,195 @@
+package com.example.loginmodule.loginAuth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * AuthLoadTest - Thousands of simulated logins through AuthManager on InMemoryAuthBackend
+ * Runs the real pipeline (OTP gate, phone state machine, profile cache) on the JVM; Android
+ * calls on the way (Log, Trace) return defaults through unitTests.returnDefaultValues.
+ */
+public class AuthLoadTest {
+    private static final int PHONE_USERS = 2_000;
+    private static final int EMAIL_USERS = 2_000;
+    private static final int CLIENT_THREADS = 8;
+    private static final double FAILURE_RATE = 0.05;
+    private static final long WAIT_SECONDS = 60;
+
+    private InMemoryAuthBackend backend;
+    private AuthManager manager;
+
+    @Before
+    public void setUp() {
+        // Deliver results inline instead of on a main looper
+        AuthExecutors.setExecutors(Runnable::run, Runnable::run);
+        backend = new InMemoryAuthBackend(42);
+        manager = AuthManager.initialize(backend, backend);
+    }
+
+    @After
+    public void tearDown() {
+        backend.reset();
+    }
+
+    @Test
+    public void phoneLoginsCreateOneAccountPerNumber() {
+        Map<String, String> uidByPhone = new ConcurrentHashMap<>();
+        for (int i = 0; i < PHONE_USERS; i++) {
+            String phone = phoneNumber(i);
+            AuthUser user = phoneLogin(phone);
+            assertEquals(phone, user.getPhoneNumber());
+            uidByPhone.put(phone, user.getUid());
+        }
+        assertEquals(PHONE_USERS, new HashSet<>(uidByPhone.values()).size());
+
+        // Logging in again reaches the same accounts and never replays a used verification
+        for (int i = 0; i < PHONE_USERS; i++) {
+            String phone = phoneNumber(i);
+            assertEquals(uidByPhone.get(phone), phoneLogin(phone).getUid());
+        }
+
+        for (String uid : uidByPhone.values()) {
+            assertNotNull("No profile for " + uid, profileOf(uid));
+        }
+        assertEquals(PhoneAuthState.Stage.SIGNED_IN, manager.getPhoneAuthState().getStage());
+    }
+
+    @Test
+    public void concurrentEmailLoginsWithLatencyAndFailures() throws InterruptedException {
+        Map<String, String> uidByEmail = new ConcurrentHashMap<>();
+        for (int i = 0; i < EMAIL_USERS; i++) {
+            String email = "user" + i + "@example.com";
+            AtomicReference<AuthUser> created = new AtomicReference<>();
+            manager.createAccountWithEmail(email, "password", "User " + i, callback(created, null));
+            uidByEmail.put(email, created.get().getUid());
+        }
+
+        backend.setLatencyMs(1);
+        backend.setFailureRate(FAILURE_RATE);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<String> unexpected = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(EMAIL_USERS);
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+        for (String email : uidByEmail.keySet()) {
+            clients.execute(() -> manager.signInWithEmail(email, "password", new AuthManager.AuthCallback() {
+                @Override
+                public void onSuccess(AuthUser user) {
+                    if (!uidByEmail.get(email).equals(user.getUid())) {
+                        record(unexpected, email + " signed in as " + user.getUid());
+                    }
+                    succeeded.incrementAndGet();
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String message) {
+                    if (!InMemoryAuthBackend.SIMULATED_FAILURE.equals(message)) {
+                        record(unexpected, email + ": " + message);
+                    }
+                    failed.incrementAndGet();
+                    done.countDown();
+                }
+            }));
+        }
+        assertTrue("Logins did not finish", done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        clients.shutdown();
+
+        // Every login answers exactly once, and only the injected failures fail
+        assertEquals(EMAIL_USERS, succeeded.get() + failed.get());
+        assertTrue(unexpected.toString(), unexpected.isEmpty());
+        assertTrue(failed.get() > 0);
+        assertTrue(failed.get() < EMAIL_USERS * FAILURE_RATE * 2);
+    }
+
+    private static void record(List<String> problems, String problem) {
+        synchronized (problems) {
+            problems.add(problem);
+        }
+    }
+
+    /**
+     * Send an OTP and enter the code the fake SMS carries; fails the test on any error
+     */
+    private AuthUser phoneLogin(String phone) {
+        AtomicReference<String> verificationId = new AtomicReference<>();
+        manager.sendOtp(null, phone, new AuthManager.OtpCallback() {
+            @Override
+            public void onCodeSent(String id) {
+                verificationId.set(id);
+            }
+
+            @Override
+            public void onVerificationCompleted() {
+            }
+
+            @Override
+            public void onVerificationFailed(String message) {
+                throw new AssertionError(phone + ": " + message);
+            }
+
+            @Override
+            public void onSignedIn(AuthUser user) {
+            }
+        });
+        assertNotNull("No code sent to " + phone, verificationId.get());
+
+        AtomicReference<AuthUser> signedIn = new AtomicReference<>();
+        manager.verifyOtp(verificationId.get(), InMemoryAuthBackend.DEFAULT_OTP_CODE, callback(signedIn, phone));
+        assertNotNull(signedIn.get());
+        return signedIn.get();
+    }
+
+    private static AuthManager.AuthCallback callback(AtomicReference<AuthUser> result, String label) {
+        return new AuthManager.AuthCallback() {
+            @Override
+            public void onSuccess(AuthUser user) {
+                result.set(user);
+            }
+
+            @Override
+            public void onError(String message) {
+                throw new AssertionError(label + ": " + message);
+            }
+        };
+    }
+
+    private Map<String, Object> profileOf(String uid) {
+        AtomicReference<Map<String, Object>> profile = new AtomicReference<>();
+        backend.getProfile(uid, new ProfileStore.ProfileCallback() {
+            @Override
+            public void onSuccess(Map<String, Object> data) {
+                profile.set(data);
+            }
+
+            @Override
+            public void onError(String message) {
+                throw new AssertionError(uid + ": " + message);
+            }
+        });
+        return profile.get();
+    }
+
+    private static String phoneNumber(int index) {
+        return String.format(Locale.US, "+1415555%04d", index);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.loginmodule.loginAuth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * EmailNormalizerBenchmark - EmailNormalizer against the Patterns.EMAIL_ADDRESS regex it replaced
+ * Fuzzes both with random and mutated addresses and requires the same answer for every input,
+ * then reports ns/op and allocated bytes/op for each
+ * (run with ./gradlew :app:testDebugUnitTest -Pbenchmark --tests '*EmailNormalizerBenchmark*')
+ */
+public class EmailNormalizerBenchmark {
+    private static final int FUZZ_CASES = 500_000;
+    private static final int ITERATIONS = 100_000;
+
+    // android.util.Patterns.EMAIL_ADDRESS, copied verbatim from AOSP (android.jar is a stub in unit tests)
+    private static final Pattern EMAIL_ADDRESS = Pattern.compile(
+            "[a-zA-Z0-9\\+\\.\\_\\%\\-\\+]{1,256}" +
+            "\\@" +
+            "[a-zA-Z0-9][a-zA-Z0-9\\-]{0,64}" +
+            "(" +
+                "\\." +
+                "[a-zA-Z0-9][a-zA-Z0-9\\-]{0,25}" +
+            ")+"
+    );
+
+    // Account names and typed input the login screens see
+    private static final String[] CORPUS = {
+            "user@example.com",
+            "first.last+tag@gmail.com",
+            "User.Name@GoogleMail.COM",
+            "someone@mail.example.co.in",
+            "not an email",
+            "missing-at.example.com",
+            "trailing.dot@example.",
+            "a@b",
+            "9876543210",
+            "x_y%z-w@sub-domain.example.org",
+    };
+
+    // Characters the regex treats specially, plus near misses
+    private static final String ALPHABET = "aZ09+._%-@.-@ é!#٠";
+
+    // ==================== Correctness ====================
+
+    @Test
+    public void agreesWithRegexOnCorpus() {
+        for (String input : CORPUS) {
+            assertEquals(input, EMAIL_ADDRESS.matcher(input).matches(), EmailNormalizer.isValidAddress(input));
+        }
+    }
+
+    @Test
+    public void agreesWithRegexOnFuzzedInput() {
+        Random random = new Random(0x5EED);
+        for (int i = 0; i < FUZZ_CASES; i++) {
+            String input = i % 2 == 0 ? randomString(random) : mutate(random, CORPUS[random.nextInt(CORPUS.length)]);
+            assertEquals(input, EMAIL_ADDRESS.matcher(input).matches(), EmailNormalizer.isValidAddress(input));
+        }
+    }
+
+    @Test
+    public void agreesWithRegexOnLengthLimits() {
+        String[] locals = { "", repeat('a', 1), repeat('a', 256), repeat('a', 257) };
+        String[] firstLabels = { repeat('b', 1), repeat('b', 65), repeat('b', 66), "-b", "b-" };
+        String[] lastLabels = { repeat('c', 1), repeat('c', 26), repeat('c', 27), "", "-c" };
+        for (String local : locals) {
+            for (String first : firstLabels) {
+                for (String last : lastLabels) {
+                    String input = local + "@" + first + "." + last;
+                    assertEquals(input, EMAIL_ADDRESS.matcher(input).matches(), EmailNormalizer.isValidAddress(input));
+                    input = local + "@" + first + "." + last + "." + last;
+                    assertEquals(input, EMAIL_ADDRESS.matcher(input).matches(), EmailNormalizer.isValidAddress(input));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void normalizesDomainsAndAliases() {
+        EmailNormalizer normalizer = EmailNormalizer.forCurrentThread();
+
+        assertTrue(normalizer.parse("  First.Last+news@GoogleMail.COM "));
+        assertEquals("First.Last+news@googlemail.com", normalizer.toNormalized());
+        assertEquals("firstlast@gmail.com", normalizer.toCanonical());
+        assertEquals("Gmail", normalizer.getProvider().getName());
+        assertTrue(normalizer.isAlias());
+
+        assertTrue(normalizer.parse("firstlast@gmail.com"));
+        assertFalse(normalizer.isAlias());
+
+        // Dots only matter to Gmail; iCloud domains are one mailbox
+        assertTrue(normalizer.parse("john.doe@me.com"));
+        assertEquals("john.doe@icloud.com", normalizer.toCanonical());
+
+        // Yahoo and Ymail hand out the same local part to different people
+        assertTrue(normalizer.parse("Jane.Doe@YMail.com"));
+        assertEquals("jane.doe@ymail.com", normalizer.toCanonical());
+        assertEquals("Ymail", normalizer.getProvider().getName());
+        assertFalse(normalizer.isAlias());
+
+        assertTrue(normalizer.parse("Jane@Example.ORG"));
+        assertEquals("Jane@example.org", normalizer.toNormalized());
+        assertEquals("jane@example.org", normalizer.toCanonical());
+        assertNull(normalizer.getProvider());
+        assertFalse(normalizer.isAlias());
+
+        assertFalse(normalizer.parse("jane@example"));
+        assertNull(normalizer.toNormalized());
+        assertNull(normalizer.toCanonical());
+    }
+
+    private static String randomString(Random random) {
+        int length = random.nextInt(12);
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            out.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return out.toString();
+    }
+
+    private static String mutate(Random random, String input) {
+        StringBuilder out = new StringBuilder(input);
+        int edits = 1 + random.nextInt(3);
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(out.length() + 1);
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    out.insert(position, c);
+                    break;
+                case 1:
+                    if (position < out.length()) {
+                        out.deleteCharAt(position);
+                    }
+                    break;
+                default:
+                    if (position < out.length()) {
+                        out.setCharAt(position, c);
+                    }
+                    break;
+            }
+        }
+        return out.toString();
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder out = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    // ==================== Benchmark ====================
+
+    @Test
+    public void compareWithRegex() {
+        MicroBenchmark.assumeEnabled();
+        MicroBenchmark.Result regex = measure(input -> EMAIL_ADDRESS.matcher(input).matches());
+        MicroBenchmark.Result validator = measure(EmailNormalizer::isValidAddress);
+
+        MicroBenchmark.printHeader();
+        MicroBenchmark.print("EMAIL_ADDRESS.matches", regex);
+        MicroBenchmark.print("isValidAddress", validator);
+        MicroBenchmark.printFooter();
+    }
+
+    private static MicroBenchmark.Result measure(Predicate<String> operation) {
+        return MicroBenchmark.measure((long) ITERATIONS * CORPUS.length, () -> {
+            int hits = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                for (String input : CORPUS) {
+                    if (operation.test(input)) {
+                        hits++;
+                    }
+                }
+            }
+            return hits;
+        });
+    }
+}
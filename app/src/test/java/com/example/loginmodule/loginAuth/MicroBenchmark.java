@@ -0,0 +1,91 @@
+package com.example.loginmodule.loginAuth;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.function.IntSupplier;
+
+/**
+ * MicroBenchmark - ns/op and allocated bytes/op reporting shared by the *Benchmark tests
+ * Timing tests are skipped unless the test JVM has -Dbenchmark=true, which build.gradle sets
+ * for ./gradlew :app:testDebugUnitTest -Pbenchmark --tests '*Benchmark*'. Correctness tests
+ * in the same classes always run.
+ */
+final class MicroBenchmark {
+    static final String ENABLED_PROPERTY = "benchmark";
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static int sink;
+
+    /**
+     * Best round time and allocation of one operation
+     */
+    static final class Result {
+        final double nanosPerOp;
+        final double bytesPerOp;
+
+        Result(double nanosPerOp, double bytesPerOp) {
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    private MicroBenchmark() {
+    }
+
+    /**
+     * Skip the calling test unless benchmarks were asked for
+     */
+    static void assumeEnabled() {
+        Assume.assumeTrue("Benchmarks run with -P" + ENABLED_PROPERTY, Boolean.getBoolean(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Warm up, then time rounds of opsPerRound operations; the round returns a hash that is kept alive
+     */
+    static Result measure(long opsPerRound, IntSupplier round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += round.getAsInt();
+        }
+
+        long best = Long.MAX_VALUE;
+        long bytesBefore = allocatedBytes();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink += round.getAsInt();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long bytes = bytesBefore < 0 ? -1 : allocatedBytes() - bytesBefore;
+        return new Result((double) best / opsPerRound,
+                bytes < 0 ? -1 : (double) bytes / ((double) opsPerRound * MEASURED_ROUNDS));
+    }
+
+    static void printHeader() {
+        System.out.println(String.format(Locale.US, "%-24s %10s %12s", "operation", "ns/op", "bytes/op"));
+    }
+
+    static void print(String name, Result result) {
+        System.out.println(String.format(Locale.US, "%-24s %10.1f %12s", name, result.nanosPerOp,
+                result.bytesPerOp < 0 ? "n/a" : String.format(Locale.US, "%.1f", result.bytesPerOp)));
+    }
+
+    static void printFooter() {
+        System.out.println("(sink " + sink + ")");
+    }
+
+    /**
+     * Bytes allocated by this thread so far, or a negative value where the JVM cannot tell
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.loginmodule.loginAuth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * OtpExtractorBenchmark - OtpExtractor against the per-message regex OtpHelper used before
+ * Builds a corpus of a few thousand SMS from real-world formats (bank, wallet, delivery, Google,
+ * Web OTP, non-Latin scripts) with amounts, dates, phone numbers and references around the code,
+ * requires the extractor to find every code, then reports accuracy, ns/op and allocated bytes/op
+ * for both (run with ./gradlew :app:testDebugUnitTest -Pbenchmark --tests '*OtpExtractorBenchmark*')
+ */
+public class OtpExtractorBenchmark {
+    private static final int ITERATIONS = 50;
+    private static final int CODES_PER_FORMAT = 12;
+
+    private static final String HASH = "FA+9qCX9VSu";
+
+    // {code} code, {app} sender, {amt} amount, {date} date, {time} time, {phone} phone, {ref} 6-8 digit reference
+    private static final String[] FORMATS = {
+            "<#> Your {app} verification code is {code}\n" + HASH,
+            "{code} is your {app} verification code. Don't share it with anyone.",
+            "Your OTP for {app} login is {code}. Valid for 10 minutes. Do not share this OTP with anyone.\n" + HASH,
+            "G-{code} is your Google verification code.",
+            "Use {code} as your login OTP. OTP is confidential. {app} never calls you asking for OTP.",
+            "Dear Customer, {code} is the OTP for your transaction of Rs. {amt} at {app} on {date}. Valid for 5 mins. Do not share with anyone.",
+            "{app}: Your code is {code}",
+            "[{app}] Verification code: {code}. If you didn't request this, ignore this message.",
+            "Your {app} code: {grouped}",
+            "{code} is your one-time password for {app}. Call {phone} for help.",
+            "Your {app} OTP is {code}. Sent at {time} on {date}.",
+            "Do not share this code with anyone. {app} code: {code}",
+            "INR {amt} debited from A/c XX{acct} on {date}. OTP {code} for txn at {app}. Not you? Call {phone}",
+            "{app} order #{ref} confirmed. Your delivery OTP is {code}.",
+            "Ref {ref}: your {app} security code is {code}. It expires in 10 minutes.",
+            "Welcome to {app}! Your sign-in code is {code}\n\n@example.com #{code}",
+            "{code}\n\nEnter this code in {app} to continue.\n" + HASH,
+            "Your {app} PIN is {code}",
+            "Hi! {code} - that's your {app} login code. Happy shopping!",
+            "Rs {amt} credited to your {app} wallet on {date}. Use code {code} to redeem.",
+            "{phone} is trying to sign in to {app}. Your code: {code}",
+            "Transaction of USD {amt} at {app}. Code {code}. Call {phone} if this wasn't you.",
+            "{app} code {code} (valid 15 min). Don't share.",
+            "Your {app} password reset code is {code}. Ignore if not requested. 100% secure.",
+            "{app}: {code} is your code to verify your number. Balance Rs.{amt} as of {date}.",
+            "Your login number is {code}",
+            "ORD{ref} shipped. Delivery on {date}. Share OTP {code} with the {app} agent only.",
+            "Tu código de verificación de {app} es {code}",
+            "Ваш код подтверждения {app}: {code}",
+            "Kode OTP {app} Anda adalah {code}. JANGAN BERIKAN kode ini kepada siapa pun.",
+            "رمز التحقق الخاص بك في {app} هو {arabic}",
+            "आपका {app} ओटीपी {devanagari} है। इसे किसी के साथ साझा न करें।",
+            "【{app}】您的验证码是{code}，5分钟内有效。",
+            "Your {app} code is {fullwidth}",
+    };
+
+    private static final String[] APPS = {
+            "ExampleApp", "Swiggy", "PayNow", "Acme Bank", "Zeta", "MyJio", "Uber", "ShopKart",
+    };
+
+    /**
+     * One generated SMS and the code it carries
+     */
+    private static final class Sms {
+        final String text;
+        final String code;
+
+        Sms(String text, String code) {
+            this.text = text;
+            this.code = code;
+        }
+    }
+
+    private static final List<Sms> CORPUS = buildCorpus(6, 0x07B);
+    private static final List<Sms> SHORT_CORPUS = buildCorpus(4, 0x4D16);
+
+    private static List<Sms> buildCorpus(int length, long seed) {
+        Random random = new Random(seed);
+        List<Sms> corpus = new ArrayList<>();
+        for (String format : FORMATS) {
+            for (String app : APPS) {
+                for (int i = 0; i < CODES_PER_FORMAT; i++) {
+                    String code = digits(random, length);
+                    String text = format
+                            .replace("{app}", app)
+                            .replace("{code}", code)
+                            .replace("{grouped}", code.substring(0, length / 2) + (i % 2 == 0 ? " " : "-")
+                                    + code.substring(length / 2))
+                            .replace("{arabic}", toScript(code, '٠'))
+                            .replace("{devanagari}", toScript(code, '०'))
+                            .replace("{fullwidth}", toScript(code, '０'))
+                            .replace("{amt}", random.nextBoolean() ? digits(random, length)
+                                    : String.format(Locale.US, "%,d.%02d", 1000 + random.nextInt(90000), random.nextInt(100)))
+                            .replace("{date}", String.format(Locale.US, "%02d/%02d/20%02d",
+                                    1 + random.nextInt(28), 1 + random.nextInt(12), 20 + random.nextInt(10)))
+                            .replace("{time}", String.format(Locale.US, "%02d:%02d", random.nextInt(24), random.nextInt(60)))
+                            .replace("{phone}", random.nextBoolean() ? "+91" + digits(random, 10) : "1800-208-" + digits(random, 4))
+                            .replace("{acct}", digits(random, 4))
+                            .replace("{ref}", digits(random, length + random.nextInt(3)));
+                    corpus.add(new Sms(text, code));
+                }
+            }
+        }
+        return corpus;
+    }
+
+    private static String digits(Random random, int length) {
+        StringBuilder out = new StringBuilder(length);
+        out.append((char) ('1' + random.nextInt(9)));
+        while (out.length() < length) {
+            out.append((char) ('0' + random.nextInt(10)));
+        }
+        return out.toString();
+    }
+
+    private static String toScript(String ascii, char zero) {
+        StringBuilder out = new StringBuilder(ascii.length());
+        for (int i = 0; i < ascii.length(); i++) {
+            out.append((char) (zero + ascii.charAt(i) - '0'));
+        }
+        return out.toString();
+    }
+
+    // ==================== Legacy implementation (OtpHelper before the extractor) ====================
+
+    private static String legacyExtractOtp(String message) {
+        Pattern pattern = Pattern.compile("\\b(\\d{4,6})\\b");
+        Matcher matcher = pattern.matcher(message);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        return null;
+    }
+
+    // ==================== Correctness ====================
+
+    @Test
+    public void findsEveryCodeInCorpus() {
+        assertTrue(CORPUS.size() >= 2000);
+        OtpExtractor extractor = new OtpExtractor(6);
+        for (Sms sms : CORPUS) {
+            assertEquals(sms.text, sms.code, extractor.extract(sms.text));
+        }
+        OtpExtractor shortCodes = new OtpExtractor(4);
+        for (Sms sms : SHORT_CORPUS) {
+            assertEquals(sms.text, sms.code, shortCodes.extract(sms.text));
+        }
+    }
+
+    @Test
+    public void prefersKeywordTemplates() {
+        OtpExtractor extractor = new OtpExtractor(OtpExtractor.ANY_LENGTH);
+
+        assertEquals("482913", extractor.extract("Ref 7730: your OTP is 482913"));
+        assertEquals(OtpExtractor.KEYWORD_BEFORE, extractor.getLastTemplate());
+        assertEquals("5521", extractor.extract("5521 is your code. Order 99887766 ships today."));
+        assertEquals(OtpExtractor.KEYWORD_AFTER, extractor.getLastTemplate());
+        assertEquals("90817", extractor.extract("Your number is 90817"));
+        assertEquals(OtpExtractor.CONNECTOR_BEFORE, extractor.getLastTemplate());
+        assertEquals("123456", extractor.extract("Acme: 123 456"));
+        assertEquals(OtpExtractor.BARE, extractor.getLastTemplate());
+
+        // Keywords do not reach into the next sentence
+        assertEquals("4455", extractor.extract("Use 4455 now. Code expires at 10:30."));
+    }
+
+    @Test
+    public void skipsNumbersThatAreNotCodes() {
+        OtpExtractor extractor = new OtpExtractor(OtpExtractor.ANY_LENGTH);
+
+        assertNull(extractor.extract("Rs 15000 debited on 12/05/2024 at 10:30"));
+        assertNull(extractor.extract("Paid $2500, 1,250.00 USD, 4500 INR, 15% off"));
+        assertNull(extractor.extract("Call 1800-208-1234 or +919876543210 about order #884422"));
+        assertNull(extractor.extract("A/c XX1234 ref ORD556677 *9012"));
+        assertNull(extractor.extract(null));
+
+        // The app hash is not a code, even when it is all digits
+        assertEquals("1234", extractor.extract("Your code is 1234 12345678901"));
+        assertNull(extractor.extract("<#> Hello\n12345678901"));
+
+        // Only the configured length counts
+        OtpExtractor sixDigits = new OtpExtractor(6);
+        assertEquals("654321", sixDigits.extract("OTP 1234. Backup code 654321"));
+        assertNull(sixDigits.extract("Your OTP is 1234"));
+
+        OtpExtractor withHash = new OtpExtractor(6);
+        withHash.setAppHash(HASH);
+        assertEquals("112233", withHash.extract("Code 112233 " + HASH));
+    }
+
+    // ==================== Benchmark ====================
+
+    @Test
+    public void compareWithLegacy() {
+        MicroBenchmark.assumeEnabled();
+        OtpExtractor extractor = new OtpExtractor(6);
+        Function<String, String> legacy = OtpExtractorBenchmark::legacyExtractOtp;
+
+        System.out.println(String.format(Locale.US, "%d messages from %d formats, codes found: regex %.1f%%, "
+                + "OtpExtractor %.1f%%", CORPUS.size(), FORMATS.length, accuracy(legacy) * 100,
+                accuracy(extractor::extract) * 100));
+        MicroBenchmark.printHeader();
+        MicroBenchmark.print("regex (legacy)", measure(legacy));
+        MicroBenchmark.print("OtpExtractor", measure(extractor::extract));
+        MicroBenchmark.printFooter();
+    }
+
+    private static double accuracy(Function<String, String> operation) {
+        int correct = 0;
+        for (Sms sms : CORPUS) {
+            if (sms.code.equals(operation.apply(sms.text))) {
+                correct++;
+            }
+        }
+        return (double) correct / CORPUS.size();
+    }
+
+    private static MicroBenchmark.Result measure(Function<String, String> operation) {
+        return MicroBenchmark.measure((long) ITERATIONS * CORPUS.size(), () -> {
+            int hash = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                for (Sms sms : CORPUS) {
+                    String otp = operation.apply(sms.text);
+                    hash += otp == null ? 0 : otp.length();
+                }
+            }
+            return hash;
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.loginmodule.loginAuth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.function.Function;
+
+/**
+ * PhoneNumberNormalizerBenchmark - PhoneNumberNormalizer against the regex implementation it replaced
+ * Checks both agree on the inputs the old code handled, then reports ns/op and allocated
+ * bytes/op for each (run with ./gradlew :app:testDebugUnitTest -Pbenchmark --tests '*PhoneNumberNormalizerBenchmark*')
+ */
+public class PhoneNumberNormalizerBenchmark {
+    private static final int ITERATIONS = 100_000;
+
+    private static final PhoneNumberNormalizer.Country INDIA = PhoneNumberNormalizer.forRegion("IN");
+
+    // Shapes the system reports (line 1, subscriptions, contacts) and users paste
+    private static final String[] CORPUS = {
+            "9876543210",
+            "+91 98765 43210",
+            "+91-98765-43210",
+            "098765 43210",
+            "(987) 654-3210",
+            "+919876543210",
+            "919876543210",
+            "0091 98765 43210",
+            "+1 (415) 555-2671",
+            "+44 20 7946 0958",
+    };
+
+    // ==================== Legacy implementation (AccountDetector before the normalizer) ====================
+
+    private static String legacyFormatPhoneNumber(String phone) {
+        if (phone == null)
+            return "";
+        String cleaned = phone.replaceAll("[^\\d+]", "");
+        if (!cleaned.startsWith("+")) {
+            if (cleaned.startsWith("0")) {
+                cleaned = cleaned.substring(1);
+            }
+            if (cleaned.length() == 10) {
+                cleaned = "+91" + cleaned;
+            }
+        }
+        return cleaned;
+    }
+
+    private static String legacyGetLocalNumber(String phone) {
+        if (phone == null)
+            return "";
+        String cleaned = phone.replaceAll("[^\\d]", "");
+        if (cleaned.startsWith("91") && cleaned.length() > 10) {
+            cleaned = cleaned.substring(2);
+        }
+        if (cleaned.length() > 10) {
+            cleaned = cleaned.substring(cleaned.length() - 10);
+        }
+        return cleaned;
+    }
+
+    private static String formatPhoneNumber(String phone) {
+        PhoneNumberNormalizer normalizer = PhoneNumberNormalizer.forCurrentThread();
+        return normalizer.parse(phone, INDIA) ? normalizer.toE164() : normalizer.toDigits();
+    }
+
+    private static String getLocalNumber(String phone) {
+        PhoneNumberNormalizer normalizer = PhoneNumberNormalizer.forCurrentThread();
+        normalizer.parse(phone, INDIA);
+        return normalizer.toNational();
+    }
+
+    // ==================== Correctness ====================
+
+    @Test
+    public void agreesWithLegacyOnIndianNumbers() {
+        String[] indian = { "9876543210", "+91 98765 43210", "+91-98765-43210", "098765 43210",
+                "(987) 654-3210", "+919876543210" };
+        for (String input : indian) {
+            assertEquals(input, legacyFormatPhoneNumber(input), formatPhoneNumber(input));
+            assertEquals(input, legacyGetLocalNumber(input), getLocalNumber(input));
+        }
+    }
+
+    @Test
+    public void resolvesCountryCodesTheLegacyCodeMissed() {
+        // Country code without '+', international prefix, other countries
+        assertEquals("+919876543210", formatPhoneNumber("919876543210"));
+        assertEquals("+919876543210", formatPhoneNumber("0091 98765 43210"));
+        assertEquals("+14155552671", formatPhoneNumber("+1 (415) 555-2671"));
+        assertEquals("+442079460958", formatPhoneNumber("+44 (0)20 7946 0958"));
+        assertEquals("2079460958", getLocalNumber("+44 20 7946 0958"));
+
+        PhoneNumberNormalizer normalizer = PhoneNumberNormalizer.forCurrentThread();
+        PhoneNumberNormalizer.Country us = PhoneNumberNormalizer.forRegion("us");
+        assertTrue(normalizer.parse("1 415 555 2671", us));
+        assertEquals("+14155552671", normalizer.toE164());
+        assertTrue(normalizer.parse("011 91 98765 43210", us));
+        assertEquals("IN", normalizer.getCountry().getRegion());
+
+        // Unicode digits (Arabic-Indic keyboards) and extensions
+        assertEquals("+919876543210", formatPhoneNumber("٩٨٧٦٥٤٣٢١٠"));
+        assertEquals("+919876543210", formatPhoneNumber("98765 43210 ext. 12"));
+
+        assertFalse(normalizer.parse("12345", INDIA));
+        assertEquals("12345", normalizer.toDigits());
+        assertFalse(normalizer.parse("+999 123", INDIA));
+        assertFalse(normalizer.parse("123456789012345678901234", INDIA));
+        assertEquals("123456789012345678901234", normalizer.toDigits());
+        assertEquals("+123456789012345678901234", formatPhoneNumber("+1 2345 6789 0123 4567 8901 234 ext. 5"));
+
+        // No calling code starts with 0, so a leading 0 after '+' never reads as +1
+        assertFalse(normalizer.parse("+0123", us));
+        assertFalse(normalizer.parse("+01 415 555 2671", us));
+        assertEquals(null, normalizer.getCountry());
+        assertEquals("+014155552671", normalizer.toDigits());
+    }
+
+    // ==================== Benchmark ====================
+
+    @Test
+    public void compareWithLegacy() {
+        MicroBenchmark.assumeEnabled();
+        MicroBenchmark.Result legacyFormat = measure(PhoneNumberNormalizerBenchmark::legacyFormatPhoneNumber);
+        MicroBenchmark.Result format = measure(PhoneNumberNormalizerBenchmark::formatPhoneNumber);
+        MicroBenchmark.Result legacyLocal = measure(PhoneNumberNormalizerBenchmark::legacyGetLocalNumber);
+        MicroBenchmark.Result local = measure(PhoneNumberNormalizerBenchmark::getLocalNumber);
+
+        MicroBenchmark.printHeader();
+        MicroBenchmark.print("formatPhoneNumber legacy", legacyFormat);
+        MicroBenchmark.print("formatPhoneNumber", format);
+        MicroBenchmark.print("getLocalNumber legacy", legacyLocal);
+        MicroBenchmark.print("getLocalNumber", local);
+        MicroBenchmark.printFooter();
+    }
+
+    private static MicroBenchmark.Result measure(Function<String, String> operation) {
+        return MicroBenchmark.measure((long) ITERATIONS * CORPUS.length, () -> {
+            int hash = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                for (String input : CORPUS) {
+                    hash += operation.apply(input).length();
+                }
+            }
+            return hash;
+        });
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.loginmodule.loginAuth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PhoneSignInRaceTest - Auto-verification racing a typed code on InMemoryAuthBackend
+ * Whichever reaches AuthManager first, the backend must see one sign-in and one profile
+ * write, and the OTP screen and the verifyOtp caller must both get the same user. A code
+ * for a verification that a newer sendOtp replaced must not sign anyone in.
+ */
+public class PhoneSignInRaceTest {
+    private static final String PHONE = "+14155552671";
+    private static final String OTHER_PHONE = "+919876543210";
+    private static final int ROUNDS = 50;
+    private static final long LATENCY_MS = 2;
+    private static final long WAIT_SECONDS = 10;
+
+    private CountingBackend backend;
+    private AuthManager manager;
+
+    /**
+     * Counts sign-ins and profile writes; holds each sign-in until release() so the other side can join
+     */
+    private static final class CountingBackend extends InMemoryAuthBackend {
+        final AtomicInteger signIns = new AtomicInteger();
+        final AtomicInteger profileWrites = new AtomicInteger();
+        final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void signInWithCredential(Credential credential, SignInCallback callback) {
+            signIns.incrementAndGet();
+            Thread held = new Thread(() -> {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.signInWithCredential(credential, callback);
+            });
+            held.setDaemon(true);
+            held.start();
+        }
+
+        @Override
+        public void saveProfile(String uid, Map<String, Object> data) {
+            profileWrites.incrementAndGet();
+            super.saveProfile(uid, data);
+        }
+
+        @Override
+        public void mergeProfiles(Map<String, Map<String, Object>> updates, WriteCallback callback) {
+            profileWrites.addAndGet(updates.size());
+            super.mergeProfiles(updates, callback);
+        }
+
+        void release() {
+            released.countDown();
+        }
+    }
+
+    /**
+     * The OTP screen's side: records the code, auto-verification and the final user
+     */
+    private static class OtpScreen implements AuthManager.OtpCallback {
+        final CountDownLatch codeSent = new CountDownLatch(1);
+        final CountDownLatch autoVerified = new CountDownLatch(1);
+        final CountDownLatch signedIn = new CountDownLatch(1);
+        final AtomicReference<String> verificationId = new AtomicReference<>();
+        final AtomicReference<AuthUser> user = new AtomicReference<>();
+        final AtomicReference<String> error = new AtomicReference<>();
+
+        @Override
+        public void onCodeSent(String id) {
+            verificationId.set(id);
+            codeSent.countDown();
+        }
+
+        @Override
+        public void onVerificationCompleted() {
+            autoVerified.countDown();
+        }
+
+        @Override
+        public void onVerificationFailed(String message) {
+            error.set(message);
+            signedIn.countDown();
+        }
+
+        @Override
+        public void onSignedIn(AuthUser signedInUser) {
+            user.set(signedInUser);
+            signedIn.countDown();
+        }
+    }
+
+    /**
+     * The verifyOtp caller's side
+     */
+    private static final class TypedCode implements AuthManager.AuthCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<AuthUser> user = new AtomicReference<>();
+        final AtomicReference<String> error = new AtomicReference<>();
+
+        @Override
+        public void onSuccess(AuthUser signedInUser) {
+            user.set(signedInUser);
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String message) {
+            error.set(message);
+            done.countDown();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        AuthExecutors.setExecutors(Runnable::run, Runnable::run);
+    }
+
+    @After
+    public void tearDown() {
+        if (backend != null) {
+            backend.release();
+            backend.reset();
+        }
+    }
+
+    @Test
+    public void autoVerificationFirstThenTypedCode() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; round++) {
+            newBackend();
+            OtpScreen screen = new OtpScreen();
+            manager.sendOtp(null, PHONE, screen);
+
+            // Auto-retrieval starts the sign-in; the typed code arrives while it is in flight
+            await(screen.autoVerified);
+            awaitStage(PhoneAuthState.Stage.VERIFYING);
+            TypedCode typed = new TypedCode();
+            manager.verifyOtp(screen.verificationId.get(), InMemoryAuthBackend.DEFAULT_OTP_CODE, typed);
+            backend.release();
+
+            assertOneSignIn(screen, typed);
+        }
+    }
+
+    @Test
+    public void typedCodeFirstThenAutoVerification() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; round++) {
+            newBackend();
+            TypedCode typed = new TypedCode();
+            OtpScreen screen = new OtpScreen() {
+                @Override
+                public void onCodeSent(String id) {
+                    super.onCodeSent(id);
+                    // Auto-filled from the SMS the moment it is shown
+                    manager.verifyOtp(id, InMemoryAuthBackend.DEFAULT_OTP_CODE, typed);
+                }
+            };
+            manager.sendOtp(null, PHONE, screen);
+
+            await(screen.autoVerified);
+            backend.release();
+
+            assertOneSignIn(screen, typed);
+        }
+    }
+
+    @Test
+    public void codeForReplacedVerificationIsRefused() throws InterruptedException {
+        newBackend();
+        backend.setAutoVerify(false);
+        OtpScreen first = new OtpScreen();
+        manager.sendOtp(null, PHONE, first);
+        await(first.codeSent);
+
+        // The user went back and asked for a code on another number; the first code arrives late
+        OtpScreen second = new OtpScreen();
+        manager.sendOtp(null, OTHER_PHONE, second);
+        TypedCode typed = new TypedCode();
+        manager.verifyOtp(first.verificationId.get(), InMemoryAuthBackend.DEFAULT_OTP_CODE, typed);
+        backend.release();
+
+        await(typed.done);
+        assertNotNull(typed.error.get());
+        assertEquals(null, typed.user.get());
+        assertEquals(0, backend.signIns.get());
+        assertEquals(OTHER_PHONE, manager.getPhoneAuthState().getPhoneNumber());
+        assertTrue(manager.getPhoneAuthState().canVerify());
+    }
+
+    private void newBackend() {
+        if (backend != null) {
+            backend.release();
+            backend.reset();
+        }
+        backend = new CountingBackend();
+        backend.setLatencyMs(LATENCY_MS);
+        backend.setAutoVerify(true);
+        manager = AuthManager.initialize(backend, backend);
+    }
+
+    private void assertOneSignIn(OtpScreen screen, TypedCode typed) throws InterruptedException {
+        await(screen.signedIn);
+        await(typed.done);
+        assertEquals(null, screen.error.get());
+        assertEquals(null, typed.error.get());
+        assertNotNull(typed.user.get());
+        assertEquals(typed.user.get().getUid(), screen.user.get().getUid());
+        assertEquals(1, backend.signIns.get());
+        assertEquals(1, backend.profileWrites.get());
+        assertEquals(PhoneAuthState.Stage.SIGNED_IN, manager.getPhoneAuthState().getStage());
+    }
+
+    private void awaitStage(PhoneAuthState.Stage stage) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (manager.getPhoneAuthState().getStage() != stage) {
+            assertTrue("Never reached " + stage, System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        assertTrue("Timed out", latch.await(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.loginmodule.loginAuth;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * RecordCodecTest - Wire format of RecordCodec
+ * Every value type round-trips, ids unknown to an older schema are skipped, and truncated
+ * or newer-format records are rejected with IllegalArgumentException.
+ */
+public class RecordCodecTest {
+    private static final RecordCodec.Schema SCHEMA = new RecordCodec.Schema(
+            "string", "long", "int", "true", "false", "double", "bytes", "null");
+    private static final RecordCodec.Schema OLDER_SCHEMA = new RecordCodec.Schema("string", "long");
+
+    @Test
+    public void everyWireTypeRoundTrips() {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("string", "Asha Rao अशा");
+        fields.put("long", Long.MIN_VALUE);
+        fields.put("int", -42);
+        fields.put("true", true);
+        fields.put("false", false);
+        fields.put("double", -0.125);
+        fields.put("bytes", new byte[] { 0, 1, (byte) 0xFF });
+        fields.put("null", null);
+        fields.put("notInSchema", "written by name");
+
+        Map<String, Object> decoded = RecordCodec.decode(RecordCodec.encode(fields, SCHEMA), SCHEMA);
+
+        assertEquals(fields.size(), decoded.size());
+        assertEquals("Asha Rao अशा", decoded.get("string"));
+        assertEquals(Long.MIN_VALUE, decoded.get("long"));
+        // Integers come back as Long
+        assertEquals(-42L, decoded.get("int"));
+        assertEquals(Boolean.TRUE, decoded.get("true"));
+        assertEquals(Boolean.FALSE, decoded.get("false"));
+        assertEquals(-0.125, decoded.get("double"));
+        assertArrayEquals(new byte[] { 0, 1, (byte) 0xFF }, (byte[]) decoded.get("bytes"));
+        assertTrue(decoded.containsKey("null"));
+        assertEquals(null, decoded.get("null"));
+        assertEquals("written by name", decoded.get("notInSchema"));
+    }
+
+    @Test
+    public void numbersKeepTheirValueAcrossVarintLengths() {
+        long[] values = { 0, 1, -1, 63, -64, 64, 1L << 35, -(1L << 35), Long.MAX_VALUE, Long.MIN_VALUE };
+        for (long value : values) {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("long", value);
+            assertEquals(value, RecordCodec.decode(RecordCodec.encode(fields, SCHEMA), SCHEMA).get("long"));
+        }
+    }
+
+    @Test
+    public void idsUnknownToTheReaderAreSkipped() {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("string", "kept");
+        fields.put("long", 7L);
+        fields.put("double", 1.5);
+        fields.put("bytes", new byte[] { 1, 2, 3 });
+        fields.put("true", true);
+        fields.put("null", null);
+
+        Map<String, Object> decoded = RecordCodec.decode(RecordCodec.encode(fields, SCHEMA), OLDER_SCHEMA);
+
+        assertEquals(2, decoded.size());
+        assertEquals("kept", decoded.get("string"));
+        assertEquals(7L, decoded.get("long"));
+        assertFalse(decoded.containsKey("double"));
+    }
+
+    @Test
+    public void truncatedRecordsAreRejected() {
+        Object[] values = { "truncated", 1L << 40, 2.5, new byte[] { 9, 8, 7, 6 } };
+        for (Object value : values) {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("notInSchema", value);
+            byte[] record = RecordCodec.encode(fields, SCHEMA);
+
+            // Past the version byte, every cut lands inside the one field
+            for (int length = 2; length < record.length; length++) {
+                assertRejected(Arrays.copyOf(record, length));
+            }
+        }
+        assertRejected(new byte[0]);
+    }
+
+    @Test
+    public void newerFormatVersionsAreRejected() {
+        byte[] record = RecordCodec.encode(new HashMap<>(), SCHEMA);
+        assertEquals(1, record.length);
+        assertEquals(RecordCodec.FORMAT_VERSION, record[0]);
+
+        record[0] = (byte) (RecordCodec.FORMAT_VERSION + 1);
+        assertRejected(record);
+        record[0] = 0;
+        assertRejected(record);
+    }
+
+    private static void assertRejected(byte[] record) {
+        try {
+            RecordCodec.decode(record, SCHEMA);
+            fail("Decoded " + Arrays.toString(record));
+        } catch (IllegalArgumentException expected) {
+            // Malformed input is always an IllegalArgumentException, never an index error
+        }
+    }
+}